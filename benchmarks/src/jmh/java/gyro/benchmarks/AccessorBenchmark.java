@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import gyro.core.Reflections;
+import gyro.core.resource.DiffableField;
+import gyro.core.resource.DiffableType;
+import gyro.core.scope.RootScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link DiffableField#getValue} and {@link DiffableField#setValue}
+ * against calling the same getter and setter through reflection, the way
+ * the fields used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessorBenchmark {
+
+    private RootScope root;
+    private BenchmarkResource resource;
+    private DiffableField field;
+    private Method getter;
+    private Method setter;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        InMemoryFileBackend backend = new InMemoryFileBackend();
+
+        backend.putAll(new SyntheticProject(1, 1, 1).generate(0));
+
+        root = SyntheticProject.evaluate(backend, null);
+        resource = (BenchmarkResource) root.findResource("benchmark::resource::r-0-0");
+        field = DiffableType.getInstance(BenchmarkResource.class).getField("value");
+        getter = BenchmarkResource.class.getMethod("getValue");
+        setter = BenchmarkResource.class.getMethod("setValue", String.class);
+    }
+
+    @Benchmark
+    public Object reflectionGet() {
+        return Reflections.invoke(getter, resource);
+    }
+
+    @Benchmark
+    public Object accessorGet() {
+        return field.getValue(resource);
+    }
+
+    @Benchmark
+    public void reflectionSet() {
+        Type type = setter.getGenericParameterTypes()[0];
+
+        Reflections.invoke(setter, resource, root.convertValue(type, "foo"));
+    }
+
+    @Benchmark
+    public void accessorSet() {
+        field.setValue(resource, "foo");
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import gyro.core.GyroUI;
+import gyro.core.Namespace;
+import gyro.core.Type;
+import gyro.core.resource.DiffableType;
+import gyro.core.resource.Resource;
+import gyro.core.resource.Updatable;
+import gyro.core.scope.RootScope;
+import gyro.core.scope.State;
+
+/**
+ * In-memory resource used by the synthetic projects. Nothing is ever sent
+ * anywhere, so only the work done by Gyro itself is measured.
+ */
+@Namespace("benchmark")
+@Type("resource")
+public class BenchmarkResource extends Resource {
+
+    public static final List<Class<? extends BenchmarkResource>> TYPES = Collections.unmodifiableList(Arrays.asList(
+        BenchmarkResource.class,
+        Network.class,
+        Volume.class,
+        Instance.class));
+
+    /**
+     * Number of resource type names available, counting the ones in
+     * {@link #TYPES} and the aliases registered for them.
+     */
+    public static final int MAX_TYPES = 200;
+
+    private String value;
+    private Long size;
+    private Map<String, String> tags;
+    private BenchmarkResource dependency;
+    private List<BenchmarkRule> rule;
+
+    /**
+     * Makes the benchmark resource types available to the given {@code root}
+     * the same way that a plugin would.
+     */
+    public static void register(RootScope root) {
+        for (int i = 0; i < MAX_TYPES; ++i) {
+            root.put(getTypeName(i), TYPES.get(i % TYPES.size()));
+        }
+    }
+
+    /**
+     * Returns the name of the resource type at the given {@code index}.
+     * Past the ones in {@link #TYPES}, the names are aliases for them so
+     * that configs can use many types without as many classes.
+     *
+     * @param index Must be less than {@link #MAX_TYPES}.
+     */
+    public static String getTypeName(int index) {
+        if (index < TYPES.size()) {
+            return DiffableType.getInstance(TYPES.get(index)).getName();
+
+        } else {
+            return "benchmark::alias-" + index;
+        }
+    }
+
+    @Updatable
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    @Updatable
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    @Updatable
+    public Map<String, String> getTags() {
+        if (tags == null) {
+            tags = new LinkedHashMap<>();
+        }
+
+        return tags;
+    }
+
+    public void setTags(Map<String, String> tags) {
+        this.tags = tags;
+    }
+
+    @Updatable
+    public BenchmarkResource getDependency() {
+        return dependency;
+    }
+
+    public void setDependency(BenchmarkResource dependency) {
+        this.dependency = dependency;
+    }
+
+    @Updatable
+    public List<BenchmarkRule> getRule() {
+        return rule;
+    }
+
+    public void setRule(List<BenchmarkRule> rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public boolean refresh() {
+        return true;
+    }
+
+    @Override
+    public void create(GyroUI ui, State state) {
+    }
+
+    @Override
+    public void update(GyroUI ui, State state, Resource current, Set<String> changedFieldNames) {
+    }
+
+    @Override
+    public void delete(GyroUI ui, State state) {
+    }
+
+    @Namespace("benchmark")
+    @Type("network")
+    public static class Network extends BenchmarkResource {
+
+    }
+
+    @Namespace("benchmark")
+    @Type("volume")
+    public static class Volume extends BenchmarkResource {
+
+    }
+
+    @Namespace("benchmark")
+    @Type("instance")
+    public static class Instance extends BenchmarkResource {
+
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.util.Map;
+
+import gyro.core.GyroUI;
+
+/**
+ * Formats everything written to it like a console would but only keeps
+ * track of the number of characters. Prompts always take the default.
+ */
+public class CountingGyroUI implements GyroUI {
+
+    private int indentLevel;
+    private long written;
+
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public boolean isVerbose() {
+        return false;
+    }
+
+    @Override
+    public void setVerbose(boolean verbose) {
+    }
+
+    @Override
+    public boolean readBoolean(Boolean defaultValue, String message, Object... arguments) {
+        return Boolean.TRUE.equals(defaultValue);
+    }
+
+    @Override
+    public void readEnter(String message, Object... arguments) {
+    }
+
+    @Override
+    public <E extends Enum<E>> E readNamedOption(E options) {
+        return options;
+    }
+
+    @Override
+    public String readPassword(String message, Object... arguments) {
+        return "";
+    }
+
+    @Override
+    public String readText(String message, Object... arguments) {
+        return "";
+    }
+
+    @Override
+    public void indent() {
+        ++indentLevel;
+    }
+
+    @Override
+    public void unindent() {
+        --indentLevel;
+    }
+
+    @Override
+    public boolean isIndented() {
+        return indentLevel > 0;
+    }
+
+    @Override
+    public void write(String message, Object... arguments) {
+        written += indentLevel * 4 + String.format(message, arguments).length();
+    }
+
+    @Override
+    public void replace(String message, Object... arguments) {
+        write(message, arguments);
+    }
+
+    @Override
+    public boolean auditPending() {
+        return false;
+    }
+
+    @Override
+    public void setAuditPending(boolean auditPending) {
+    }
+
+    @Override
+    public void startAuditors(Map<String, Object> log) {
+    }
+
+    @Override
+    public void finishAuditors(Map<String, Object> log, boolean success) {
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import gyro.core.diff.Diff;
+import gyro.core.scope.RootScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link Diff#diff} and {@link Diff#write} separately between two
+ * revisions of the same project, where every tenth resource changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DiffBenchmark {
+
+    @Param({ "10", "100" })
+    public int files;
+
+    @Param("20")
+    public int resources;
+
+    private RootScope current;
+    private RootScope pending;
+    private Diff diff;
+
+    @Setup
+    public void setup() {
+        SyntheticProject project = new SyntheticProject(files, resources, 1);
+        InMemoryFileBackend currentBackend = new InMemoryFileBackend();
+        InMemoryFileBackend pendingBackend = new InMemoryFileBackend();
+
+        currentBackend.putAll(project.generate(0));
+        pendingBackend.putAll(project.generate(1));
+
+        current = SyntheticProject.evaluate(currentBackend, null);
+        pending = SyntheticProject.evaluate(pendingBackend, current);
+        diff = diff();
+    }
+
+    @Benchmark
+    public Diff diff() {
+        Diff diff = new Diff(current.findSortedResources(), pending.findSortedResources());
+
+        diff.diff();
+
+        return diff;
+    }
+
+    @Benchmark
+    public long write() {
+        CountingGyroUI ui = new CountingGyroUI();
+
+        diff.write(ui);
+
+        return ui.getWritten();
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import gyro.core.scope.RootScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link RootScope#evaluate}, including parsing. Spreading the same
+ * resources across more {@code types} shows how the evaluator's per type
+ * bookkeeping scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EvaluateBenchmark {
+
+    @Param({ "10", "100" })
+    public int files;
+
+    @Param("20")
+    public int resources;
+
+    @Param({ "1", "4", "50", "200" })
+    public int types;
+
+    private final InMemoryFileBackend backend = new InMemoryFileBackend();
+
+    @Setup
+    public void setup() {
+        backend.putAll(new SyntheticProject(files, resources, types).generate(0));
+    }
+
+    @Benchmark
+    public RootScope evaluate() {
+        return SyntheticProject.evaluate(backend, null);
+    }
+
+}
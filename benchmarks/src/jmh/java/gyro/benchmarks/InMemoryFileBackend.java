@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import gyro.core.FileBackend;
+
+/**
+ * Keeps all files in memory so that the benchmarks don't measure the disk.
+ */
+public class InMemoryFileBackend extends FileBackend {
+
+    private final Map<String, byte[]> files = new ConcurrentSkipListMap<>();
+
+    public void put(String file, String content) {
+        files.put(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void putAll(Map<String, String> files) {
+        files.forEach(this::put);
+    }
+
+    public long getTotalBytes() {
+        return files.values().stream().mapToLong(b -> b.length).sum();
+    }
+
+    @Override
+    public Stream<String> list() {
+        return files.keySet().stream().filter(f -> f.endsWith(".gyro"));
+    }
+
+    @Override
+    public InputStream openInput(String file) throws FileNotFoundException {
+        byte[] content = files.get(file);
+
+        if (content == null) {
+            throw new FileNotFoundException(file);
+        }
+
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public OutputStream openOutput(String file) {
+        return new ByteArrayOutputStream() {
+
+            @Override
+            public void close() {
+                files.put(file, toByteArray());
+            }
+        };
+    }
+
+    @Override
+    public void delete(String file) {
+        files.remove(file);
+    }
+
+    @Override
+    public boolean exists(String file) {
+        return files.containsKey(file);
+    }
+
+    @Override
+    public void copy(String source, String destination) throws FileNotFoundException {
+        byte[] content = files.get(source);
+
+        if (content == null) {
+            throw new FileNotFoundException(source);
+        }
+
+        files.put(destination, content);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import gyro.cli.CliGyroUI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link CliGyroUI} writing a plan to a file, like a CI log, in
+ * each of its modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OutputBenchmark {
+
+    @Param({ "terminal", "buffered", "plain" })
+    public String mode;
+
+    @Param("50000")
+    public int lines;
+
+    private PrintStream originalOut;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        originalOut = System.out;
+        file = Files.createTempFile("gyro-output-benchmark-", ".log");
+
+        // Same as the default System.out in terminal mode, and as Gyro#main
+        // otherwise.
+        System.setOut("terminal".equals(mode)
+            ? new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 128), true)
+            : new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 64 * 1024), false));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.close();
+        System.setOut(originalOut);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CliGyroUI write() {
+        CliGyroUI ui = new CliGyroUI(!"terminal".equals(mode), !"plain".equals(mode));
+
+        for (int i = 0, resources = lines / 4; i < resources; ++i) {
+            ui.write("@|green + Create|@ aws::instance @|bold web-%d|@\n", i);
+            ui.indent();
+            ui.write("· ami: %s\n", "ami-0123456789");
+            ui.write("· instance-type: @|yellow %s|@ → @|green %s|@\n", "t2.micro", "t3.large");
+            ui.write("· tags: {Name: web-%d}\n", i);
+            ui.unindent();
+        }
+
+        System.out.flush();
+        return ui;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import gyro.lang.ast.Node;
+import gyro.parser.antlr4.GyroParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link Node#parse} on its own, without evaluation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+
+    @Param({ "10", "100" })
+    public int files;
+
+    @Param("20")
+    public int resources;
+
+    private final Map<String, byte[]> contents = new LinkedHashMap<>();
+
+    @Setup
+    public void setup() {
+        new SyntheticProject(files, resources, 1).generate(0)
+            .forEach((file, content) -> contents.put(file, content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+            ByteArrayInputStream input = new ByteArrayInputStream(entry.getValue());
+
+            blackhole.consume(Node.parse(input, entry.getKey(), GyroParser::file));
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import gyro.core.diff.Create;
+import gyro.core.resource.Resource;
+import gyro.core.scope.RootScope;
+import gyro.core.scope.State;
+import gyro.core.scope.StateFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures {@link State#save} writing out every state file, as if all
+ * resources in the project had just been created.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StateBenchmark {
+
+    @Param({ "10", "100" })
+    public int files;
+
+    @Param("20")
+    public int resources;
+
+    @Param({ "TEXT", "BINARY" })
+    public StateFormat format;
+
+    private final InMemoryFileBackend stateBackend = new InMemoryFileBackend();
+    private State state;
+    private boolean dirty;
+
+    @Setup
+    public void setup() {
+        InMemoryFileBackend configBackend = new InMemoryFileBackend();
+
+        configBackend.putAll(new SyntheticProject(files, resources, 1).generate(0));
+
+        RootScope current = SyntheticProject.evaluate(stateBackend, null);
+        RootScope pending = SyntheticProject.evaluate(configBackend, current);
+
+        state = new State(current, pending, false);
+
+        for (Resource resource : pending.findSortedResources()) {
+            state.update(new Create(resource));
+        }
+
+        state.convert(format);
+    }
+
+    @Benchmark
+    public long save() {
+        // Toggling between equivalent values marks every file dirty.
+        dirty = !dirty;
+
+        state.setRemoveModifiedInField(dirty ? Boolean.FALSE : null);
+        state.save();
+
+        return stateBackend.getTotalBytes();
+    }
+
+}
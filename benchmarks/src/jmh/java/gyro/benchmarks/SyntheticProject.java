@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import gyro.core.FileBackend;
+import gyro.core.scope.RootScope;
+
+/**
+ * Generates configuration files that look like a typical project: each
+ * resource references the one before it (and the first one in each file
+ * references a resource in the first file), has a map and two nested
+ * subresources, and each file ends with a small {@code @for} loop.
+ *
+ * <p>Changing the {@code revision} changes every tenth resource so that
+ * two revisions of the same project can be diffed.
+ */
+public class SyntheticProject {
+
+    private static final int LOOP_SIZE = 3;
+
+    private final int files;
+    private final int resources;
+    private final int types;
+
+    /**
+     * @param files Number of files.
+     * @param resources Number of resources in each file, not counting the
+     * ones created by the {@code @for} loop.
+     * @param types Number of resource types to spread the resources across.
+     */
+    public SyntheticProject(int files, int resources, int types) {
+        if (types < 1 || types > BenchmarkResource.MAX_TYPES) {
+            throw new IllegalArgumentException(String.format(
+                "types must be between 1 and %d!",
+                BenchmarkResource.MAX_TYPES));
+        }
+
+        this.files = files;
+        this.resources = resources;
+        this.types = types;
+    }
+
+    /**
+     * Evaluates all files in the given {@code backend} with the benchmark
+     * resource types available.
+     */
+    public static RootScope evaluate(FileBackend backend, RootScope current) {
+        RootScope root = new RootScope("", backend, current, null);
+
+        BenchmarkResource.register(root);
+        root.evaluate();
+
+        return root;
+    }
+
+    public static String getFile(int file) {
+        return String.format("file-%d.gyro", file);
+    }
+
+    /**
+     * @return Total number of resources in the project.
+     */
+    public int getResourceCount() {
+        return files * (resources + LOOP_SIZE);
+    }
+
+    /**
+     * @return Never {@code null}. File names are in order.
+     */
+    public Map<String, String> generate(int revision) {
+        Map<String, String> contents = new LinkedHashMap<>();
+
+        for (int f = 0; f < files; ++f) {
+            contents.put(getFile(f), generateFile(f, revision));
+        }
+
+        return contents;
+    }
+
+    private String generateFile(int file, int revision) {
+        StringBuilder out = new StringBuilder();
+
+        out.append("# Synthetic file ").append(file).append(".\n\n");
+
+        for (int r = 0; r < resources; ++r) {
+            boolean changed = revision != 0 && r % 10 == 0;
+
+            out.append(getType(file, r)).append(' ').append(getName(file, r)).append('\n');
+            out.append("    value: 'value-").append(file).append('-').append(r);
+
+            if (changed) {
+                out.append("-revision-").append(revision);
+            }
+
+            out.append("'\n");
+            out.append("    size: ").append(r).append('\n');
+
+            if (r > 0) {
+                out.append("    dependency: ").append(getReference(file, r - 1)).append('\n');
+
+            } else if (file > 0) {
+                out.append("    dependency: ").append(getReference(0, 0)).append('\n');
+            }
+
+            out.append("\n");
+            out.append("    tags: {\n");
+            out.append("        name: '").append(getName(file, r)).append("',\n");
+            out.append("        file: '").append(getFile(file)).append("'\n");
+            out.append("    }\n\n");
+            out.append("    rule\n");
+            out.append("        name: 'http'\n");
+            out.append("        port: 80\n");
+            out.append("        enabled: true\n");
+            out.append("    end\n\n");
+            out.append("    rule\n");
+            out.append("        name: 'https'\n");
+            out.append("        port: ").append(changed ? 8443 : 443).append('\n');
+            out.append("        enabled: ").append(!changed).append('\n');
+            out.append("    end\n");
+            out.append("end\n\n");
+        }
+
+        out.append("@for index -in [");
+
+        for (int i = 0; i < LOOP_SIZE; ++i) {
+            out.append(i > 0 ? ", " : "").append(i);
+        }
+
+        out.append("]\n");
+        out.append("    ").append(getType(file, 0)).append(" \"loop-").append(file).append("-$(index)\"\n");
+        out.append("        value: \"loop-$(index)\"\n");
+
+        if (resources > 0) {
+            out.append("        dependency: ").append(getReference(file, 0)).append('\n');
+        }
+
+        out.append("    end\n");
+        out.append("@end\n");
+
+        return out.toString();
+    }
+
+    // Counted across files so that every type is used.
+    private String getType(int file, int resource) {
+        return BenchmarkResource.getTypeName((file * resources + resource) % types);
+    }
+
+    private String getName(int file, int resource) {
+        return String.format("r-%d-%d", file, resource);
+    }
+
+    private String getReference(int file, int resource) {
+        return String.format("$(%s %s)", getType(file, resource), getName(file, resource));
+    }
+
+}
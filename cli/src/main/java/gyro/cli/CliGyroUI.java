@@ -22,10 +22,14 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
+import gyro.core.DaemonThreadFactory;
 import gyro.core.GyroException;
 import gyro.core.audit.GyroAuditableUI;
 import org.fusesource.jansi.Ansi;
@@ -33,12 +37,40 @@ import org.fusesource.jansi.AnsiRenderer;
 
 public class CliGyroUI extends GyroAuditableUI {
 
-    private static final Pattern NEWLINES = Pattern.compile("([\r\n]+)");
+    private static final long FLUSH_MILLIS = 200L;
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(
+        new DaemonThreadFactory("gyro-output-flusher-"));
+
+    private final boolean buffered;
+    private final boolean colored;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
     private boolean verbose;
     private int indentSize = 4;
     private int indentLevel;
     private boolean pendingIndentation = true;
+    private String indentation = "";
+
+    /**
+     * Creates an instance that's buffered when there's no terminal, and
+     * colored unless disabled in Jansi or by the {@code NO_COLOR} environment
+     * variable.
+     */
+    public CliGyroUI() {
+        this(System.console() == null, Ansi.isEnabled() && System.getenv("NO_COLOR") == null);
+    }
+
+    /**
+     * @param buffered If {@code true}, {@link System#out} is only flushed
+     * periodically and before prompts instead of after every write.
+     * @param colored If {@code false}, the styles in the messages are removed
+     * instead of rendered.
+     */
+    public CliGyroUI(boolean buffered, boolean colored) {
+        this.buffered = buffered;
+        this.colored = colored;
+    }
 
     @Override
     public boolean isVerbose() {
@@ -64,6 +96,8 @@ public class CliGyroUI extends GyroAuditableUI {
     }
 
     private String readLine() {
+        System.out.flush();
+
         try {
             return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine().trim();
 
@@ -73,8 +107,6 @@ public class CliGyroUI extends GyroAuditableUI {
     }
 
     private String readOption(Set<String> values) {
-        System.out.flush();
-
         while (true) {
             String selected = readLine();
 
@@ -127,7 +159,12 @@ public class CliGyroUI extends GyroAuditableUI {
     @Override
     public String readPassword(String message, Object... arguments) {
         write(message, arguments);
-        return new String(System.console().readPassword());
+        System.out.flush();
+        return new String(readPasswordFromConsole());
+    }
+
+    protected char[] readPasswordFromConsole() {
+        return System.console().readPassword();
     }
 
     @Override
@@ -148,9 +185,13 @@ public class CliGyroUI extends GyroAuditableUI {
 
     private void writeIndentation(StringBuilder outputBuilder) {
         if (pendingIndentation) {
-            if (indentLevel > 0) {
-                outputBuilder.append(String.format("%" + indentLevel * getIndentSize() + "s", ""));
+            int size = indentLevel > 0 ? indentLevel * getIndentSize() : 0;
+
+            if (indentation.length() != size) {
+                indentation = Strings.repeat(" ", size);
             }
+
+            outputBuilder.append(indentation);
             pendingIndentation = false;
         }
     }
@@ -161,23 +202,34 @@ public class CliGyroUI extends GyroAuditableUI {
             ? String.format(message, arguments)
             : message;
 
-        if (AnsiRenderer.test(text)) {
+        if (!colored) {
+            text = removeStyles(text);
+
+        } else if (AnsiRenderer.test(text)) {
             text = AnsiRenderer.render(text);
         }
 
         int offset = 0;
-        StringBuilder outputBuilder = new StringBuilder();
+        int length = text.length();
+        StringBuilder outputBuilder = new StringBuilder(length + 16);
 
-        for (Matcher m = NEWLINES.matcher(text); m.find(); ) {
-            writeIndentation(outputBuilder);
-            outputBuilder.append(text, offset, m.start());
-            outputBuilder.append(m.group(1));
+        // Indents every line, treating consecutive newlines as one.
+        for (int i = 0; i < length; ++i) {
+            if (isNewline(text.charAt(i))) {
+                int end = i + 1;
 
-            pendingIndentation = true;
-            offset = m.end();
-        }
+                while (end < length && isNewline(text.charAt(end))) {
+                    ++end;
+                }
 
-        int length = text.length();
+                writeIndentation(outputBuilder);
+                outputBuilder.append(text, offset, end);
+
+                pendingIndentation = true;
+                offset = end;
+                i = end - 1;
+            }
+        }
 
         if (length > offset) {
             writeIndentation(outputBuilder);
@@ -185,14 +237,64 @@ public class CliGyroUI extends GyroAuditableUI {
         }
         String output = outputBuilder.toString();
         System.out.print(output);
-        System.out.flush();
+
+        if (!buffered) {
+            System.out.flush();
+
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            FLUSHER.schedule(
+                () -> {
+                    flushScheduled.set(false);
+                    System.out.flush();
+                },
+                FLUSH_MILLIS,
+                TimeUnit.MILLISECONDS);
+        }
 
         return output;
     }
 
+    private boolean isNewline(char c) {
+        return c == '\r' || c == '\n';
+    }
+
+    // Same syntax as AnsiRenderer, e.g. @|bold,red text|@, but only keeps
+    // the text.
+    private String removeStyles(String text) {
+        int begin = text.indexOf("@|");
+
+        if (begin < 0) {
+            return text;
+        }
+
+        int offset = 0;
+        StringBuilder plain = new StringBuilder(text.length());
+
+        while (begin >= 0) {
+            int end = text.indexOf("|@", begin + 2);
+            int space = text.indexOf(' ', begin + 2);
+
+            if (end < 0 || space < 0 || space > end) {
+                break;
+            }
+
+            plain.append(text, offset, begin);
+            plain.append(text, space + 1, end);
+
+            offset = end + 2;
+            begin = text.indexOf("@|", offset);
+        }
+
+        plain.append(text, offset, text.length());
+        return plain.toString();
+    }
+
     @Override
     public String doReplace(String message, Object... arguments) {
-        message += Ansi.ansi().eraseLine(Ansi.Erase.ALL).cursorToColumn(1);
+        if (colored) {
+            message += Ansi.ansi().eraseLine(Ansi.Erase.ALL).cursorToColumn(1);
+        }
+
         return doWrite(message, arguments);
     }
 
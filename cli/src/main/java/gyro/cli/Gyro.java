@@ -16,11 +16,22 @@
 
 package gyro.cli;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -29,6 +40,7 @@ import java.util.stream.Collectors;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import gyro.core.Abort;
+import gyro.core.ErrorWriter;
 import gyro.core.GyroCore;
 import gyro.core.GyroException;
 import gyro.core.LocalFileBackend;
@@ -39,15 +51,9 @@ import gyro.core.command.AbstractDynamicCommand;
 import gyro.core.command.GyroCommand;
 import gyro.core.command.GyroCommandGroup;
 import gyro.core.command.VersionCommand;
-import gyro.core.scope.Defer;
+import gyro.core.plugin.PluginSettings;
 import gyro.core.scope.RootScope;
-import gyro.core.validation.ValidationErrorException;
-import gyro.lang.Locatable;
-import gyro.lang.SyntaxError;
-import gyro.lang.SyntaxErrorException;
 import gyro.util.Bug;
-import org.reflections.Reflections;
-import org.reflections.util.ClasspathHelper;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
@@ -59,21 +65,72 @@ import picocli.CommandLine.Command;
 )
 public class Gyro {
 
+    // Written at build time by the generateCommandRegistry task.
+    private static final String COMMAND_REGISTRY = "META-INF/gyro/commands";
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     private CommandLine commandLine;
     private List<String> arguments;
 
-    public static Reflections reflections;
+    public static void main(String[] arguments) throws IOException {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
 
-    static {
-        Reflections.log = null;
-    }
+        if (Boolean.getBoolean(GyroDaemon.SERVER_PROPERTY)) {
+            Path root = GyroCore.getRootDirectory();
 
-    public static void main(String[] arguments) {
-        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+            if (root != null) {
+                new GyroDaemon(root).serve();
+            }
+
+            return;
+        }
+
+        GyroDaemonClient daemonClient = GyroDaemonClient.create(Arrays.asList(arguments));
+
+        if (daemonClient != null) {
+            Integer exitStatus = daemonClient.execute(Arrays.asList(arguments));
+
+            if (exitStatus != null) {
+                System.exit(exitStatus);
+            }
+        }
+
+        // Without a terminal, such as in CI, the output is written in bigger
+        // chunks, and CliGyroUI flushes it periodically and before prompts.
+        if (System.console() == null) {
+            System.setOut(new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE),
+                false));
+        }
 
-        Gyro gyro = new Gyro();
         GyroCore.pushUi(new CliGyroUI());
 
+        int exitStatus = 1;
+
+        try {
+            exitStatus = execute(Arrays.asList(arguments));
+
+        } finally {
+            System.out.flush();
+            GyroCore.popUi();
+
+            if (daemonClient != null) {
+                daemonClient.startDaemon();
+            }
+
+            System.exit(exitStatus);
+        }
+    }
+
+    /**
+     * Runs the command with the given {@code arguments} using the current
+     * {@link GyroCore#ui()}.
+     *
+     * @return Exit status.
+     */
+    static int execute(List<String> arguments) {
+        Gyro gyro = new Gyro();
         int exitStatus = 0;
 
         try {
@@ -85,7 +142,7 @@ public class Gyro {
                     GyroCore.pushLockBackend(r.getSettings(LockBackendSettings.class).getLockBackend());
                 });
 
-            gyro.init(Arrays.asList(arguments));
+            gyro.init(arguments);
             exitStatus = gyro.run();
 
         } catch (Abort error) {
@@ -95,72 +152,14 @@ public class Gyro {
         } catch (Throwable error) {
             exitStatus = 1;
             GyroCore.ui().write("\n");
-            writeError(error, null);
+            ErrorWriter.write(GyroCore.ui(), error);
             GyroCore.ui().write("\n");
 
         } finally {
-            GyroCore.popUi();
             GyroCore.popLockBackend();
-            System.exit(exitStatus);
         }
-    }
-
-    private static void writeError(Throwable error, CommandLine commandLine) {
-        if (error instanceof Defer) {
-            ((Defer) error).write(GyroCore.ui());
-
-        } else if (error instanceof GyroException) {
-            GyroCore.ui().write("@|red Error:|@ %s\n", error.getMessage());
 
-            Locatable locatable = ((GyroException) error).getLocatable();
-
-            if (locatable != null) {
-                GyroCore.ui().write("\nIn @|bold %s|@ %s:\n", locatable.getFile(), locatable.toLocation());
-                GyroCore.ui().write("%s", locatable.toCodeSnippet());
-            }
-
-            Throwable cause = error.getCause();
-
-            if (cause != null) {
-                GyroCore.ui().write("\n@|red Caused by:|@ ");
-                writeError(cause, null);
-            }
-
-            if (commandLine != null && ((GyroException) error).showHelp()) {
-                GyroCore.ui().write("\n\n");
-                commandLine.usage(commandLine.getOut());
-            }
-
-        } else if (error instanceof SyntaxErrorException) {
-            SyntaxErrorException s = (SyntaxErrorException) error;
-            List<SyntaxError> errors = s.getErrors();
-
-            GyroCore.ui().write("@|red %d syntax errors in %s!|@\n", errors.size(), s.getFile());
-
-            for (SyntaxError e : errors) {
-                GyroCore.ui().write("\n%s %s:\n", e.getMessage(), e.toLocation());
-                GyroCore.ui().write("%s", e.toCodeSnippet());
-            }
-
-        } else if (error instanceof ValidationErrorException) {
-            ((ValidationErrorException) error).write(GyroCore.ui());
-
-        } else {
-            StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
-
-            error.printStackTrace(pw);
-
-            if (error instanceof Bug) {
-                GyroCore.ui()
-                    .write(
-                        "@|red This should've never happened. Please report this as a bug with the following stack trace:|@ %s\n",
-                        sw.toString());
-
-            } else {
-                GyroCore.ui().write("@|red Unexpected error:|@ %s\n", sw.toString());
-            }
-        }
+        return exitStatus;
     }
 
     public void init(List<String> arguments) {
@@ -176,10 +175,14 @@ public class Gyro {
 
         CommandLine commandLine = new CommandLine(this);
 
+        List<Class<?>> commandClasses = getCommandClasses();
+
         // Add commands part of a GyroCommandGroup
-        for (Class<? extends GyroCommandGroup> c : getReflections().getSubTypesOf(GyroCommandGroup.class)) {
-            GyroCommandGroup group = gyro.core.Reflections.newInstance(c);
-            commandLine.addSubcommand(null, group);
+        for (Class<?> c : commandClasses) {
+            if (GyroCommandGroup.class.isAssignableFrom(c)) {
+                Object group = gyro.core.Reflections.newInstance(c);
+                commandLine.addSubcommand(null, group);
+            }
         }
 
         Set<? extends Class<?>> groupCommands = getSubCommands(commandLine).stream()
@@ -187,8 +190,11 @@ public class Gyro {
             .collect(Collectors.toSet());
 
         // Add all other commands that are not previously added
-        for (Class<?> c : getReflections().getSubTypesOf(GyroCommand.class)) {
-            if (c.isAnnotationPresent(Command.class) && !groupCommands.contains(c)) {
+        for (Class<?> c : commandClasses) {
+            if (GyroCommand.class.isAssignableFrom(c)
+                && c.isAnnotationPresent(Command.class)
+                && !groupCommands.contains(c)) {
+
                 Object o = gyro.core.Reflections.newInstance(c);
                 commandLine.addSubcommand(null, o);
             }
@@ -241,7 +247,13 @@ public class Gyro {
 
     // custom handler for invalid input
     private static int invalidUserInput(Exception error, CommandLine commandLine, CommandLine.ParseResult parseResult) {
-        writeError(error, commandLine);
+        ErrorWriter.write(GyroCore.ui(), error);
+
+        if (error instanceof GyroException && ((GyroException) error).showHelp()) {
+            GyroCore.ui().write("\n\n");
+            commandLine.usage(commandLine.getOut());
+        }
+
         return 2;
     }
 
@@ -267,12 +279,36 @@ public class Gyro {
         return commandLine.execute(this.arguments.toArray(new String[0]));
     }
 
-    public static Reflections getReflections() {
-        if (reflections == null) {
-            reflections = new Reflections(new org.reflections.util.ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forPackage("gyro")));
+    // Commands in gyro itself are listed in the registry, and the ones in
+    // the plugins are found using the plugin class index.
+    private static List<Class<?>> getCommandClasses() {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        ClassLoader loader = Gyro.class.getClassLoader();
+
+        try {
+            for (URL url : Collections.list(loader.getResources(COMMAND_REGISTRY))) {
+                try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+
+                    String line;
+
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+
+                        if (!line.isEmpty()) {
+                            classes.add(Class.forName(line, false, loader));
+                        }
+                    }
+                }
+            }
+
+        } catch (ClassNotFoundException | IOException error) {
+            throw new Bug(error);
         }
 
-        return reflections;
+        classes.addAll(PluginSettings.findPluginClasses(GyroCommandGroup.class));
+        classes.addAll(PluginSettings.findPluginClasses(GyroCommand.class));
+
+        return new ArrayList<>(classes);
     }
 }
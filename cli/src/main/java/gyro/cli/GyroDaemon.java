@@ -0,0 +1,624 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import gyro.core.DaemonThreadFactory;
+import gyro.core.ErrorWriter;
+import gyro.core.GyroCore;
+import gyro.core.GyroException;
+import gyro.core.LocalFileBackend;
+import gyro.core.audit.GyroAuditor;
+import gyro.core.command.VersionCommand;
+import gyro.core.reference.FinderReferenceResolver;
+import gyro.core.scope.RootScope;
+import gyro.core.workflow.Workflow;
+
+/**
+ * Background process that runs gyro commands for a project root so that
+ * the plugins, the parsed files and everything else that's cached in
+ * memory don't have to be loaded again for every command.
+ *
+ * <p>The daemon is opt-in with the {@code GYRO_DAEMON=true} environment
+ * variable. There's one daemon for each {@link #getKey key}, which covers
+ * the {@code init.gyro}, the relevant environment variables and the gyro
+ * version. Each listens on a loopback socket that's described in a file
+ * under {@code .gyro/daemons} along with a random token that the clients
+ * must send. The daemon stops when it's idle for too long, or when its
+ * {@code init.gyro} changes.</p>
+ *
+ * @see GyroDaemonClient
+ */
+class GyroDaemon {
+
+    static final String ENABLED_VARIABLE = "GYRO_DAEMON";
+    static final String SERVER_PROPERTY = "gyro.daemon.server";
+    static final String INFO_DIRECTORY = ".gyro/daemons";
+
+    // Frames sent by the daemon.
+    static final byte OUTPUT = 1;
+    static final byte ERROR = 2;
+    static final byte INPUT = 3;
+    static final byte PASSWORD = 4;
+    static final byte EXIT = 5;
+    static final byte DECLINE = 6;
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_TIMEOUT = TimeUnit.HOURS.toMillis(3);
+    private static final int ACCEPT_TIMEOUT = (int) TimeUnit.MINUTES.toMillis(1);
+    private static final int HANDSHAKE_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(5);
+    private static final long DISCONNECT_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    // Same as a process that was stopped with Ctrl-C.
+    static final int DISCONNECT_STATUS = 130;
+
+    // Options that keep the command running until the user stops it, which
+    // would keep the daemon busy for everyone else.
+    private static final List<String> LONG_RUNNING_OPTIONS = ImmutableList.of("--watch");
+
+    // Environment variables that can change how the commands run, such as
+    // the cloud provider credentials. The rest, such as the terminal size,
+    // often differ between shells without affecting the commands.
+    private static final List<String> KEY_VARIABLE_PREFIXES = ImmutableList.of(
+        "GYRO_",
+        "AWS_",
+        "AZURE_",
+        "GOOGLE_",
+        "JAVA_");
+
+    private final Path root;
+    private final String key;
+    private final String token = UUID.randomUUID().toString();
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile Thread worker;
+    private volatile ServerSocket server;
+    private volatile long lastUsed = System.currentTimeMillis();
+    private volatile boolean stopping;
+
+    GyroDaemon(Path root) throws IOException {
+        this.root = root;
+        this.key = getKey(root);
+    }
+
+    static boolean isEnabled() {
+        return "true".equalsIgnoreCase(System.getenv(ENABLED_VARIABLE));
+    }
+
+    /**
+     * Returns the key that identifies everything that affects how the
+     * commands run in the given {@code root}.
+     */
+    static boolean isLongRunning(List<String> arguments) {
+        return arguments.stream().anyMatch(a -> LONG_RUNNING_OPTIONS.stream().anyMatch(a::startsWith));
+    }
+
+    static String getKey(Path root) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher();
+
+        hasher.putString(VersionCommand.getCurrentVersion().toString(), StandardCharsets.UTF_8);
+        hasher.putBytes(Files.readAllBytes(root.resolve(GyroCore.INIT_FILE)));
+        hasher.putString(System.getProperty("java.class.path", ""), StandardCharsets.UTF_8);
+
+        for (Map.Entry<String, String> e : new TreeMap<>(System.getenv()).entrySet()) {
+            if (KEY_VARIABLE_PREFIXES.stream().noneMatch(e.getKey()::startsWith)) {
+                continue;
+            }
+
+            hasher.putString(e.getKey(), StandardCharsets.UTF_8);
+            hasher.putByte((byte) 0);
+            hasher.putString(e.getValue(), StandardCharsets.UTF_8);
+            hasher.putByte((byte) 0);
+        }
+
+        return hasher.hash().toString();
+    }
+
+    static Path getInfoFile(Path root, String key) {
+        return root.resolve(INFO_DIRECTORY).resolve(key);
+    }
+
+    /**
+     * @return {@code [port, token]} of the daemon with the given {@code key}
+     * or {@code null} if its info file doesn't exist or is invalid.
+     */
+    static String[] readInfo(Path root, String key) {
+        try {
+            String[] info = new String(Files.readAllBytes(getInfoFile(root, key)), StandardCharsets.UTF_8)
+                .trim()
+                .split(" ");
+
+            return info.length == 2 ? info : null;
+
+        } catch (IOException error) {
+            return null;
+        }
+    }
+
+    void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            this.server = server;
+
+            server.setSoTimeout(ACCEPT_TIMEOUT);
+            writeInfo(server.getLocalPort());
+            warmUp();
+
+            while (!stopping && isCurrent()) {
+                Socket socket;
+
+                try {
+                    socket = server.accept();
+
+                } catch (SocketTimeoutException error) {
+                    if (!busy.get() && System.currentTimeMillis() - lastUsed > IDLE_TIMEOUT) {
+                        break;
+                    }
+
+                    continue;
+
+                } catch (SocketException error) {
+                    if (stopping) {
+                        break;
+                    }
+
+                    throw error;
+                }
+
+                // Each connection is authenticated on its own thread so that
+                // a slow client can't hold up the others.
+                new DaemonThreadFactory("gyro-daemon-").newThread(() -> handle(socket)).start();
+            }
+
+            Thread lastWorker = worker;
+
+            if (lastWorker != null) {
+                try {
+                    lastWorker.join();
+
+                } catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+        } finally {
+            if (isCurrent()) {
+                Files.deleteIfExists(getInfoFile(root, key));
+            }
+        }
+    }
+
+    private void writeInfo(int port) throws IOException {
+        Path infoFile = getInfoFile(root, key);
+
+        Files.createDirectories(infoFile.getParent());
+
+        Path tempFile = Files.createTempFile(infoFile.getParent(), ".daemon-", ".tmp");
+
+        try {
+            Files.setPosixFilePermissions(tempFile, PosixFilePermissions.fromString("rw-------"));
+
+        } catch (UnsupportedOperationException error) {
+            // Not a POSIX file system.
+        }
+
+        Files.write(tempFile, (port + " " + token).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, infoFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Stops taking new commands, and lets the next client start a new daemon.
+    void stop() throws IOException {
+        stopping = true;
+
+        if (isCurrent()) {
+            Files.deleteIfExists(getInfoFile(root, key));
+        }
+
+        ServerSocket s = server;
+
+        if (s != null) {
+            s.close();
+        }
+    }
+
+    // Stops when another daemon replaced this one, or when init.gyro changed
+    // so that no client can match this one anymore.
+    private boolean isCurrent() {
+        String[] info = readInfo(root, key);
+
+        if (info == null || !info[1].equals(token)) {
+            return false;
+        }
+
+        try {
+            return key.equals(getKey(root));
+
+        } catch (IOException error) {
+            return false;
+        }
+    }
+
+    // Loads the plugins ahead of the first command.
+    private void warmUp() {
+        GyroCore.pushUi(new CliGyroUI());
+
+        try {
+            new RootScope(GyroCore.INIT_FILE, new LocalFileBackend(root), null, null).load();
+
+        } catch (RuntimeException error) {
+            // The command will show the error.
+
+        } finally {
+            GyroCore.popUi();
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket) {
+
+            // The daemon is only claimed after the client is authenticated, so
+            // a connection that doesn't send anything can't hold it.
+            s.setSoTimeout(HANDSHAKE_TIMEOUT);
+
+            DataInputStream input = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+
+            if (!token.equals(input.readUTF())) {
+                return;
+            }
+
+            List<String> arguments = new ArrayList<>();
+            boolean matches = key.equals(input.readUTF());
+
+            for (int i = 0, size = input.readInt(); i < size; ++i) {
+                arguments.add(input.readUTF());
+            }
+
+            // The client will run the command itself.
+            if (!matches || isLongRunning(arguments) || !busy.compareAndSet(false, true)) {
+                output.writeByte(DECLINE);
+                output.flush();
+                return;
+            }
+
+            try {
+                worker = Thread.currentThread();
+
+                s.setSoTimeout(0);
+
+                ClientInput clientInput = new ClientInput(input, worker);
+
+                new DaemonThreadFactory("gyro-daemon-input-").newThread(clientInput).start();
+
+                int status;
+
+                try {
+                    status = execute(arguments, clientInput, output);
+
+                } finally {
+                    clientInput.finished.countDown();
+                }
+
+                synchronized (output) {
+                    output.writeByte(EXIT);
+                    output.writeInt(status);
+                    output.flush();
+                }
+
+            } finally {
+                lastUsed = System.currentTimeMillis();
+                busy.set(false);
+            }
+
+        } catch (IOException error) {
+            // The client went away or took too long to authenticate.
+        }
+    }
+
+    // The standard streams are redirected to the client, which is safe since
+    // only one command runs at a time.
+    private int execute(List<String> arguments, ClientInput input, DataOutputStream output) {
+        PrintStream oldOut = System.out;
+        PrintStream oldErr = System.err;
+        InputStream oldIn = System.in;
+
+        try {
+            // DaemonGyroUI flushes the output periodically and before prompts.
+            System.setOut(new PrintStream(
+                new BufferedOutputStream(new FrameOutputStream(output, OUTPUT), OUTPUT_BUFFER_SIZE),
+                false,
+                "UTF-8"));
+            System.setErr(new PrintStream(new FrameOutputStream(output, ERROR), true, "UTF-8"));
+            System.setIn(new FrameInputStream(input, output));
+
+            // External queries may have different results by now, and
+            // workflows from the previous command must not leak into this one.
+            // The auditors are also started and finished once per command, so
+            // init.gyro must create them again.
+            FinderReferenceResolver.bustCache();
+            Workflow.getSuccessfullyExecutedWorkflows().clear();
+            GyroAuditor.AUDITOR_BY_NAME.clear();
+
+            DaemonGyroUI ui = new DaemonGyroUI(input, output);
+
+            GyroCore.pushUi(ui);
+
+            try {
+                return run(arguments);
+
+            } finally {
+                finishAuditors(ui);
+                GyroCore.popUi();
+            }
+
+        } catch (IOException error) {
+            return 1;
+
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            System.setOut(oldOut);
+            System.setErr(oldErr);
+            System.setIn(oldIn);
+        }
+    }
+
+    int run(List<String> arguments) {
+        return Gyro.execute(arguments);
+    }
+
+    // Finishes the auditors that the command left open, which the shutdown
+    // hook would do if the command ran in its own process.
+    private void finishAuditors(DaemonGyroUI ui) {
+
+        // The command may have been interrupted because the client went away.
+        Thread.interrupted();
+
+        try {
+            ui.finishAuditors();
+
+        } catch (RuntimeException error) {
+            ErrorWriter.write(ui, error);
+        }
+    }
+
+    // Stops the whole process if the command doesn't stop on its own after
+    // the client went away, same as Ctrl-C would have.
+    void exit(int status) {
+        System.exit(status);
+    }
+
+    // Reads everything that the client sends while the command runs, so that
+    // the command can be interrupted as soon as the client goes away.
+    private class ClientInput implements Runnable {
+
+        private final byte[] end = new byte[0];
+        private final DataInputStream input;
+        private final Thread worker;
+        private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        public ClientInput(DataInputStream input, Thread worker) {
+            this.input = input;
+            this.worker = worker;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    int size = input.readInt();
+
+                    if (size < 0) {
+                        frames.add(end);
+
+                    } else {
+                        byte[] bytes = new byte[size];
+
+                        input.readFully(bytes);
+                        frames.add(bytes);
+                    }
+                }
+
+            } catch (IOException error) {
+                if (finished.getCount() > 0) {
+                    disconnect();
+                }
+            }
+        }
+
+        private void disconnect() {
+            frames.add(end);
+            worker.interrupt();
+
+            try {
+                if (!finished.await(DISCONNECT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    exit(DISCONNECT_STATUS);
+                }
+
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * @return {@code null} if the client doesn't have any more input.
+         */
+        public byte[] take() throws IOException {
+            try {
+                byte[] bytes = frames.take();
+
+                return bytes != end ? bytes : null;
+
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private static class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream output;
+        private final byte type;
+
+        public FrameOutputStream(DataOutputStream output, byte type) {
+            this.output = output;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            synchronized (output) {
+                output.writeByte(type);
+                output.writeInt(length);
+                output.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (output) {
+                output.flush();
+            }
+        }
+    }
+
+    // Asks the client for more input whenever the previous input runs out.
+    private static class FrameInputStream extends InputStream {
+
+        private final ClientInput input;
+        private final DataOutputStream output;
+        private byte[] buffer = new byte[0];
+        private int position;
+        private boolean closed;
+
+        public FrameInputStream(ClientInput input, DataOutputStream output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= buffer.length) {
+                if (closed) {
+                    return -1;
+                }
+
+                synchronized (output) {
+                    output.writeByte(INPUT);
+                    output.flush();
+                }
+
+                byte[] frame = input.take();
+
+                if (frame == null) {
+                    closed = true;
+                    return -1;
+                }
+
+                buffer = frame;
+                position = 0;
+            }
+
+            int read = Math.min(length, buffer.length - position);
+
+            System.arraycopy(buffer, position, bytes, offset, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.length - position;
+        }
+    }
+
+    private static class DaemonGyroUI extends CliGyroUI {
+
+        private final ClientInput input;
+        private final DataOutputStream output;
+
+        public DaemonGyroUI(ClientInput input, DataOutputStream output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        @Override
+        protected char[] readPasswordFromConsole() {
+            try {
+                synchronized (output) {
+                    output.writeByte(PASSWORD);
+                    output.flush();
+                }
+
+                byte[] password = input.take();
+
+                if (password == null) {
+                    throw new GyroException("Can't read the password because the client went away!");
+                }
+
+                return new String(password, StandardCharsets.UTF_8).toCharArray();
+
+            } catch (IOException error) {
+                throw new GyroException(error);
+            }
+        }
+    }
+}
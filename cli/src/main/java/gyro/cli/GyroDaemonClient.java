@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import gyro.core.GyroCore;
+
+/**
+ * Forwards a command to the {@link GyroDaemon} for the current project
+ * root and relays its output and prompts.
+ */
+class GyroDaemonClient {
+
+    private static final int CONNECT_TIMEOUT = 1000;
+
+    private final Path root;
+    private final InputStream in;
+    private final PrintStream out;
+    private final PrintStream err;
+    private boolean declined;
+
+    GyroDaemonClient(Path root) {
+        this(root, System.in, System.out, System.err);
+    }
+
+    GyroDaemonClient(Path root, InputStream in, PrintStream out, PrintStream err) {
+        this.root = root;
+        this.in = in;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Returns a client if the daemon is enabled and the command runs from
+     * the project root, since the daemon resolves files relative to it.
+     * Commands that keep running until the user stops them always run in
+     * their own process.
+     */
+    static GyroDaemonClient create(List<String> arguments) {
+        if (!GyroDaemon.isEnabled() || GyroDaemon.isLongRunning(arguments)) {
+            return null;
+        }
+
+        Path root = GyroCore.getRootDirectory();
+
+        return root != null && root.equals(Paths.get("").toAbsolutePath())
+            ? new GyroDaemonClient(root)
+            : null;
+    }
+
+    /**
+     * Runs the given {@code arguments} in the daemon.
+     *
+     * @return {@code null} if the daemon isn't running or declined to run
+     * the command.
+     */
+    Integer execute(List<String> arguments) {
+        try {
+            String key = GyroDaemon.getKey(root);
+            String[] info = GyroDaemon.readInfo(root, key);
+
+            if (info == null) {
+                return null;
+            }
+
+            return execute(arguments, key, info);
+
+        } catch (IOException | NumberFormatException error) {
+            return null;
+        }
+    }
+
+    private Integer execute(List<String> arguments, String key, String[] info) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(info[0])),
+                CONNECT_TIMEOUT);
+
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            output.writeUTF(info[1]);
+            output.writeUTF(key);
+            output.writeInt(arguments.size());
+
+            for (String argument : arguments) {
+                output.writeUTF(argument);
+            }
+
+            output.flush();
+
+            while (true) {
+                byte type = input.readByte();
+
+                switch (type) {
+                    case GyroDaemon.OUTPUT:
+                        copy(input, out);
+                        break;
+
+                    case GyroDaemon.ERROR:
+                        copy(input, err);
+                        break;
+
+                    case GyroDaemon.INPUT:
+                        sendInput(output);
+                        break;
+
+                    case GyroDaemon.PASSWORD:
+                        sendPassword(output);
+                        break;
+
+                    case GyroDaemon.EXIT:
+                        return input.readInt();
+
+                    case GyroDaemon.DECLINE:
+                        declined = true;
+                        return null;
+
+                    default:
+                        return null;
+                }
+            }
+        }
+    }
+
+    private void copy(DataInputStream input, PrintStream output) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+
+        input.readFully(bytes);
+        output.write(bytes);
+        output.flush();
+    }
+
+    private void sendInput(DataOutputStream output) throws IOException {
+        byte[] bytes = new byte[8192];
+        int read = in.read(bytes);
+
+        output.writeInt(read);
+
+        if (read > 0) {
+            output.write(bytes, 0, read);
+        }
+
+        output.flush();
+    }
+
+    private void sendPassword(DataOutputStream output) throws IOException {
+        char[] password = System.console() != null ? System.console().readPassword() : new char[0];
+        byte[] bytes = new String(password).getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.flush();
+    }
+
+    /**
+     * Starts a new daemon in the background unless a matching one is
+     * already running and only busy with another command.
+     */
+    void startDaemon() {
+        if (declined) {
+            return;
+        }
+
+        String javaCommand = System.getProperty("sun.java.command", "");
+        String main = javaCommand.split(" ")[0];
+        List<String> command = new ArrayList<>();
+
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-D" + GyroDaemon.SERVER_PROPERTY + "=true");
+
+        // Executable jars are started the same way to go through their own
+        // launcher.
+        if (main.endsWith(".jar") || new File(main).isFile()) {
+            command.add("-jar");
+            command.add(main);
+
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Gyro.class.getName());
+        }
+
+        File log = root.resolve(".gyro/daemon.log").toFile();
+
+        try {
+            new ProcessBuilder(command)
+                .directory(root.toFile())
+                .redirectOutput(log)
+                .redirectErrorStream(true)
+                .start();
+
+        } catch (IOException error) {
+            // The daemon is only an optimization.
+        }
+    }
+}
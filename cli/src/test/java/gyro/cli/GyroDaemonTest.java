@@ -0,0 +1,342 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import gyro.core.GyroCore;
+import gyro.core.GyroUI;
+import gyro.core.audit.GyroAuditor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GyroDaemonTest {
+
+    Path root;
+    TestDaemon daemon;
+    Thread server;
+    ByteArrayOutputStream out;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        root = Files.createTempDirectory("gyro-daemon");
+        out = new ByteArrayOutputStream();
+
+        Files.createDirectories(root.resolve(GyroCore.INIT_FILE).getParent());
+        Files.createFile(root.resolve(GyroCore.INIT_FILE));
+
+        daemon = new TestDaemon(root);
+
+        server = new Thread(() -> {
+            try {
+                daemon.serve();
+
+            } catch (IOException error) {
+                throw new RuntimeException(error);
+            }
+        });
+
+        server.start();
+
+        Path infoFile = GyroDaemon.getInfoFile(root, GyroDaemon.getKey(root));
+
+        for (int i = 0; i < 100 && !Files.exists(infoFile); ++i) {
+            Thread.sleep(100);
+        }
+
+        assertThat(infoFile).exists();
+    }
+
+    @AfterEach
+    void afterEach() throws Exception {
+        daemon.release.countDown();
+        daemon.stop();
+        server.join(TimeUnit.SECONDS.toMillis(10));
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    GyroDaemonClient client(String input) throws IOException {
+        PrintStream print = new PrintStream(out, true, "UTF-8");
+
+        return new GyroDaemonClient(
+            root,
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+            print,
+            print);
+    }
+
+    Socket connect() throws IOException {
+        String[] info = GyroDaemon.readInfo(root, GyroDaemon.getKey(root));
+
+        return new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(info[0]));
+    }
+
+    @Test
+    void execute() throws Exception {
+        assertThat(client("").execute(Arrays.asList("echo", "foo"))).isEqualTo(0);
+        assertThat(out.toString("UTF-8")).contains("foo");
+        assertThat(daemon.arguments).containsExactly("echo", "foo");
+    }
+
+    @Test
+    void executeWithInput() throws Exception {
+        assertThat(client("bar\n").execute(Arrays.asList("ask"))).isEqualTo(0);
+        assertThat(out.toString("UTF-8")).contains("Name?").contains("Hello bar");
+    }
+
+    @Test
+    void wrongToken() throws Exception {
+        try (Socket socket = connect()) {
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+
+            output.writeUTF("wrong");
+            output.flush();
+
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+
+        assertThat(daemon.arguments).isNull();
+    }
+
+    @Test
+    void wrongKey() throws Exception {
+        try (Socket socket = connect()) {
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+
+            output.writeUTF(GyroDaemon.readInfo(root, GyroDaemon.getKey(root))[1]);
+            output.writeUTF("wrong");
+            output.writeInt(1);
+            output.writeUTF("echo");
+            output.flush();
+
+            assertThat(new DataInputStream(socket.getInputStream()).readByte()).isEqualTo(GyroDaemon.DECLINE);
+        }
+
+        assertThat(daemon.arguments).isNull();
+
+        // The daemon keeps serving the clients that match.
+        assertThat(client("").execute(Arrays.asList("echo", "foo"))).isEqualTo(0);
+    }
+
+    @Test
+    void busy() throws Exception {
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client("").execute(Arrays.asList("block"));
+
+            } catch (IOException error) {
+                throw new RuntimeException(error);
+            }
+        });
+
+        assertThat(daemon.started.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(client("").execute(Arrays.asList("echo", "foo"))).isNull();
+
+        daemon.release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(client("").execute(Arrays.asList("echo", "foo"))).isEqualTo(0);
+    }
+
+    @Test
+    void longRunning() throws Exception {
+        assertThat(client("").execute(Arrays.asList("diff", "--watch"))).isNull();
+        assertThat(daemon.arguments).isNull();
+    }
+
+    @Test
+    void disconnect() throws Exception {
+        try (Socket socket = connect()) {
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+
+            output.writeUTF(GyroDaemon.readInfo(root, GyroDaemon.getKey(root))[1]);
+            output.writeUTF(GyroDaemon.getKey(root));
+            output.writeInt(1);
+            output.writeUTF("block");
+            output.flush();
+
+            assertThat(daemon.started.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(daemon.interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // The daemon is released shortly after the command stops.
+        Integer status = null;
+
+        for (int i = 0; i < 100 && status == null; ++i) {
+            status = client("").execute(Arrays.asList("echo", "foo"));
+            Thread.sleep(100);
+        }
+
+        assertThat(status).isEqualTo(0);
+        assertThat(daemon.exitStatus).isNull();
+    }
+
+    @Test
+    void auditEachCommand() throws Exception {
+        assertThat(client("").execute(Arrays.asList("audit", "foo"))).isEqualTo(0);
+        assertThat(client("").execute(Arrays.asList("audit", "bar"))).isEqualTo(0);
+        assertThat(daemon.auditors).hasSize(2);
+
+        TestAuditor first = daemon.auditors.get(0);
+        TestAuditor second = daemon.auditors.get(1);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(first.finished).isTrue();
+        assertThat(String.join("", first.outputs)).contains("foo");
+        assertThat(second.finished).isTrue();
+        assertThat(String.join("", second.outputs)).contains("bar").doesNotContain("foo");
+    }
+
+    @Test
+    void auditFailedCommand() throws Exception {
+        assertThat(client("").execute(Arrays.asList("audit", "foo", "fail"))).isEqualTo(1);
+        assertThat(daemon.auditors).hasSize(1);
+
+        TestAuditor auditor = daemon.auditors.get(0);
+
+        assertThat(auditor.finished).isTrue();
+        assertThat(auditor.success).isFalse();
+    }
+
+    static class TestDaemon extends GyroDaemon {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final List<TestAuditor> auditors = new CopyOnWriteArrayList<>();
+        volatile List<String> arguments;
+        volatile Integer exitStatus;
+
+        TestDaemon(Path root) throws IOException {
+            super(root);
+        }
+
+        @Override
+        int run(List<String> arguments) {
+            this.arguments = arguments;
+
+            switch (arguments.get(0)) {
+                case "echo":
+                    GyroCore.ui().write("%s\n", String.join(" ", arguments.subList(1, arguments.size())));
+                    return 0;
+
+                case "ask":
+                    GyroCore.ui().write("Hello %s\n", GyroCore.ui().readText("Name? "));
+                    return 0;
+
+                case "block":
+                    started.countDown();
+
+                    try {
+                        release.await();
+
+                    } catch (InterruptedException error) {
+                        interrupted.countDown();
+                        Thread.currentThread().interrupt();
+                    }
+
+                    return 2;
+
+                case "audit":
+                    GyroUI ui = GyroCore.ui();
+                    TestAuditor auditor = (TestAuditor) GyroAuditor.AUDITOR_BY_NAME.computeIfAbsent(
+                        "test::default",
+                        k -> new TestAuditor());
+
+                    auditors.add(auditor);
+                    ui.startAuditors(new HashMap<>());
+                    ui.write("%s\n", arguments.get(1));
+
+                    if (arguments.size() > 2) {
+                        return 1;
+                    }
+
+                    ui.finishAuditors(null, true);
+                    return 0;
+
+                default:
+                    return 1;
+            }
+        }
+
+        @Override
+        void exit(int status) {
+            exitStatus = status;
+        }
+    }
+
+    static class TestAuditor implements GyroAuditor {
+
+        final List<String> outputs = new CopyOnWriteArrayList<>();
+        volatile boolean started;
+        volatile boolean finished;
+        volatile boolean success;
+
+        @Override
+        public void start(Map<String, Object> log) {
+            started = true;
+        }
+
+        @Override
+        public void append(String output, boolean replace) {
+            outputs.add(output);
+        }
+
+        @Override
+        public void finish(Map<String, Object> log, boolean success) {
+            this.finished = true;
+            this.success = success;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return started;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Collects everything written to it and replays it onto the delegate as one
+ * block when {@link #flush()} is called, so that the output of tasks running
+ * concurrently doesn't interleave. Prompts flush the pending output first and
+ * then go straight to the delegate.
+ */
+public class BufferedGyroUI implements GyroUI {
+
+    private final GyroUI delegate;
+    private final List<Consumer<GyroUI>> writes = new ArrayList<>();
+    private int indentLevel;
+
+    public BufferedGyroUI(GyroUI delegate) {
+        this.delegate = delegate;
+    }
+
+    public GyroUI getDelegate() {
+        return delegate;
+    }
+
+    public void flush() {
+        synchronized (delegate) {
+            writes.forEach(w -> w.accept(delegate));
+            writes.clear();
+        }
+    }
+
+    @Override
+    public boolean isVerbose() {
+        return delegate.isVerbose();
+    }
+
+    @Override
+    public void setVerbose(boolean verbose) {
+        delegate.setVerbose(verbose);
+    }
+
+    @Override
+    public boolean readBoolean(Boolean defaultValue, String message, Object... arguments) {
+        synchronized (delegate) {
+            flush();
+            return delegate.readBoolean(defaultValue, message, arguments);
+        }
+    }
+
+    @Override
+    public void readEnter(String message, Object... arguments) {
+        synchronized (delegate) {
+            flush();
+            delegate.readEnter(message, arguments);
+        }
+    }
+
+    @Override
+    public <E extends Enum<E>> E readNamedOption(E options) {
+        synchronized (delegate) {
+            flush();
+            return delegate.readNamedOption(options);
+        }
+    }
+
+    @Override
+    public String readPassword(String message, Object... arguments) {
+        synchronized (delegate) {
+            flush();
+            return delegate.readPassword(message, arguments);
+        }
+    }
+
+    @Override
+    public String readText(String message, Object... arguments) {
+        synchronized (delegate) {
+            flush();
+            return delegate.readText(message, arguments);
+        }
+    }
+
+    @Override
+    public void indent() {
+        ++indentLevel;
+        writes.add(GyroUI::indent);
+    }
+
+    @Override
+    public void unindent() {
+        --indentLevel;
+        writes.add(GyroUI::unindent);
+    }
+
+    @Override
+    public boolean isIndented() {
+        return indentLevel != 0 || delegate.isIndented();
+    }
+
+    @Override
+    public void write(String message, Object... arguments) {
+        String text = format(message, arguments);
+
+        writes.add(ui -> ui.write("%s", text));
+    }
+
+    @Override
+    public void replace(String message, Object... arguments) {
+        String text = format(message, arguments);
+
+        writes.add(ui -> ui.replace("%s", text));
+    }
+
+    // Format right away since the arguments may change before the flush.
+    private String format(String message, Object... arguments) {
+        return arguments != null && arguments.length > 0
+            ? String.format(message, arguments)
+            : message;
+    }
+
+    @Override
+    public boolean auditPending() {
+        return delegate.auditPending();
+    }
+
+    @Override
+    public void setAuditPending(boolean auditPending) {
+        delegate.setAuditPending(auditPending);
+    }
+
+    @Override
+    public void startAuditors(Map<String, Object> log) {
+        synchronized (delegate) {
+            flush();
+            delegate.startAuditors(log);
+        }
+    }
+
+    @Override
+    public void finishAuditors(Map<String, Object> log, boolean success) {
+        synchronized (delegate) {
+            flush();
+            delegate.finishAuditors(log, success);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package gyro.core;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 import gyro.core.resource.Resource;
@@ -9,8 +11,16 @@ import gyro.core.scope.Settings;
 public class DependsOnSettings extends Settings {
 
     private final Set<Resource> dependencies = new HashSet<>();
+    private final Set<Resource> references = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public Set<Resource> getDependencies() {
         return dependencies;
     }
+
+    /**
+     * @return Resources that were referenced while evaluating the scope.
+     */
+    public Set<Resource> getReferences() {
+        return references;
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import gyro.core.scope.Defer;
+import gyro.core.validation.ValidationErrorException;
+import gyro.lang.Locatable;
+import gyro.lang.SyntaxError;
+import gyro.lang.SyntaxErrorException;
+import gyro.lang.SyntaxErrorsException;
+import gyro.util.Bug;
+
+/**
+ * Writes the errors that stop a command in a way that points the user to
+ * the configuration that caused them.
+ */
+public class ErrorWriter {
+
+    public static void write(GyroUI ui, Throwable error) {
+        if (error instanceof Defer) {
+            ((Defer) error).write(ui);
+
+        } else if (error instanceof GyroException) {
+            ui.write("@|red Error:|@ %s\n", error.getMessage());
+
+            Locatable locatable = ((GyroException) error).getLocatable();
+
+            if (locatable != null) {
+                ui.write("\nIn @|bold %s|@ %s:\n", locatable.getFile(), locatable.toLocation());
+                ui.write("%s", locatable.toCodeSnippet());
+            }
+
+            Throwable cause = error.getCause();
+
+            if (cause != null) {
+                ui.write("\n@|red Caused by:|@ ");
+                write(ui, cause);
+            }
+
+        } else if (error instanceof SyntaxErrorException) {
+            writeSyntaxErrors(ui, (SyntaxErrorException) error);
+
+        } else if (error instanceof SyntaxErrorsException) {
+            List<SyntaxErrorException> errors = ((SyntaxErrorsException) error).getErrors();
+
+            writeSyntaxErrors(ui, errors.get(0));
+
+            errors.subList(1, errors.size()).forEach(e -> {
+                ui.write("\n@|red ---|@\n\n");
+                writeSyntaxErrors(ui, e);
+            });
+
+        } else if (error instanceof ValidationErrorException) {
+            ((ValidationErrorException) error).write(ui);
+
+        } else {
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+
+            error.printStackTrace(pw);
+
+            if (error instanceof Bug) {
+                ui.write(
+                    "@|red This should've never happened. "
+                        + "Please report this as a bug with the following stack trace:|@ %s\n",
+                    sw.toString());
+
+            } else {
+                ui.write("@|red Unexpected error:|@ %s\n", sw.toString());
+            }
+        }
+    }
+
+    private static void writeSyntaxErrors(GyroUI ui, SyntaxErrorException error) {
+        List<SyntaxError> errors = error.getErrors();
+
+        ui.write("@|red %d syntax errors in %s!|@\n", errors.size(), error.getFile());
+
+        for (SyntaxError e : errors) {
+            ui.write("\n%s %s:\n", e.getMessage(), e.toLocation());
+            ui.write("%s", e.toCodeSnippet());
+        }
+    }
+
+}
@@ -28,6 +28,10 @@ public class Wait {
         return new Waiter().checkEvery(duration, unit);
     }
 
+    public static Waiter maxCheckEvery(long duration, TimeUnit unit) {
+        return new Waiter().maxCheckEvery(duration, unit);
+    }
+
     public static Waiter prompt(boolean prompt) {
         return new Waiter().prompt(prompt);
     }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls the checks of every pending wait on one shared scheduled executor,
+ * instead of blocking a thread per wait.
+ *
+ * <p>The interval between checks starts at {@code checkEvery} and doubles
+ * after each failed check up to {@code maxCheckEvery}. A random jitter is
+ * applied on top so that concurrent waits don't poll in lockstep.</p>
+ */
+public class WaitScheduler {
+
+    private static final WaitScheduler INSTANCE = new WaitScheduler(
+        Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public static WaitScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param threads Maximum number of checks that can run at the same time.
+     */
+    public WaitScheduler(int threads) {
+        this.executor = new ScheduledThreadPoolExecutor(threads, new DaemonThreadFactory("gyro-wait-"));
+
+        this.executor.setKeepAliveTime(1L, TimeUnit.MINUTES);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @return Number of waits that haven't completed yet.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Polls the given {@code check} until it passes or until {@code atMost}
+     * milliseconds elapse.
+     *
+     * @return Never {@code null}. Completes with {@code true} if the check
+     * passed, with {@code false} if it timed out, or exceptionally with a
+     * {@link GyroException} if the check threw an exception or with the
+     * {@link Error} that it threw. Cancelling it stops the polling.
+     */
+    public CompletableFuture<Boolean> submit(WaitCheck check, long atMost, long checkEvery, long maxCheckEvery) {
+        Poll poll = new Poll(
+            check,
+            GyroCore.ui(),
+            System.currentTimeMillis() + atMost,
+            Math.max(1L, checkEvery),
+            Math.max(checkEvery, maxCheckEvery));
+
+        pending.incrementAndGet();
+
+        poll.result.whenComplete((r, e) -> {
+            pending.decrementAndGet();
+
+            ScheduledFuture<?> next = poll.next;
+
+            if (next != null) {
+                next.cancel(false);
+            }
+        });
+
+        poll.schedule(0L);
+        return poll.result;
+    }
+
+    private class Poll implements Runnable {
+
+        public final WaitCheck check;
+        public final GyroUI ui;
+        public final long deadline;
+        public final long checkEvery;
+        public final long maxCheckEvery;
+        public final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        public volatile ScheduledFuture<?> next;
+        public int attempts;
+
+        public Poll(WaitCheck check, GyroUI ui, long deadline, long checkEvery, long maxCheckEvery) {
+            this.check = check;
+            this.ui = ui;
+            this.deadline = deadline;
+            this.checkEvery = checkEvery;
+            this.maxCheckEvery = maxCheckEvery;
+        }
+
+        public void schedule(long delay) {
+            if (!result.isDone()) {
+                next = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return;
+            }
+
+            boolean passed;
+
+            if (ui != null) {
+                GyroCore.pushUi(ui);
+            }
+
+            try {
+                passed = check.check();
+
+            } catch (Exception error) {
+                result.completeExceptionally(new GyroException("Failed wait check!", error));
+                return;
+
+            } catch (Throwable error) {
+                result.completeExceptionally(error);
+                return;
+
+            } finally {
+                if (ui != null) {
+                    GyroCore.popUi();
+                }
+            }
+
+            if (passed) {
+                result.complete(Boolean.TRUE);
+                return;
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+
+            if (remaining <= 0) {
+                result.complete(Boolean.FALSE);
+
+            } else {
+                schedule(Math.min(nextDelay(), remaining));
+            }
+        }
+
+        private long nextDelay() {
+            long ceiling = (long) Math.min(maxCheckEvery, checkEvery * Math.pow(2, attempts));
+
+            ++attempts;
+
+            return ceiling > checkEvery
+                ? ThreadLocalRandom.current().nextLong(checkEvery, ceiling + 1)
+                : checkEvery;
+        }
+    }
+
+}
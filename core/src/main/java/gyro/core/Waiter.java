@@ -16,6 +16,8 @@
 
 package gyro.core;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import gyro.core.resource.Diffable;
@@ -29,12 +31,14 @@ public class Waiter {
 
     private long atMost;
     private long checkEvery;
+    private long maxCheckEvery;
     private boolean prompt;
     private boolean skip;
 
     public Waiter() {
         atMost(10, TimeUnit.SECONDS);
         checkEvery(1, TimeUnit.SECONDS);
+        maxCheckEvery(30, TimeUnit.SECONDS);
         prompt(true);
     }
 
@@ -53,7 +57,7 @@ public class Waiter {
         }
 
         if (timeout.getCheckEveryDuration() != null) {
-            checkEvery(timeout.getAtMostDuration(), TimeUnit.SECONDS);
+            checkEvery(timeout.getCheckEveryDuration(), TimeUnit.SECONDS);
         }
 
         if (timeout.isPrompt() != null) {
@@ -79,6 +83,16 @@ public class Waiter {
         return this;
     }
 
+    /**
+     * Sets the longest interval between checks that the backoff can grow to.
+     * It never goes below {@link #checkEvery}.
+     */
+    public Waiter maxCheckEvery(long duration, TimeUnit unit) {
+        this.maxCheckEvery = unit.toMillis(duration);
+
+        return this;
+    }
+
     public Waiter prompt(boolean prompt) {
         this.prompt = prompt;
 
@@ -91,35 +105,49 @@ public class Waiter {
         return this;
     }
 
+    /**
+     * Polls the given {@code check} on the shared {@link WaitScheduler}
+     * without prompting.
+     *
+     * @return Never {@code null}. Completes with {@code true} if the check
+     * passed and with {@code false} if it timed out.
+     */
+    public CompletableFuture<Boolean> untilAsync(WaitCheck check) {
+        if (skip) {
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+
+        return WaitScheduler.getInstance().submit(check, atMost, checkEvery, maxCheckEvery);
+    }
+
     public boolean until(WaitCheck check) {
         if (skip) {
             return true;
         }
 
         do {
-            long startTime = System.currentTimeMillis();
+            CompletableFuture<Boolean> result = untilAsync(check);
 
-            while (true) {
-                try {
-                    if (check.check()) {
-                        return true;
-                    }
-
-                } catch (Exception error) {
-                    throw new GyroException("Failed wait check!", error);
+            try {
+                if (result.get()) {
+                    return true;
                 }
 
-                try {
-                    Thread.sleep(checkEvery);
+            } catch (InterruptedException error) {
+                result.cancel(true);
+                Thread.currentThread().interrupt();
 
-                } catch (InterruptedException error) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+            } catch (ExecutionException error) {
+                Throwable cause = error.getCause();
 
-                if (atMost < System.currentTimeMillis() - startTime) {
-                    break;
+                // Errors such as Defer must reach the caller unchanged.
+                if (cause instanceof Error) {
+                    throw (Error) cause;
                 }
+
+                throw cause instanceof GyroException
+                    ? (GyroException) cause
+                    : new GyroException("Failed wait check!", cause);
             }
         } while (prompt && GyroCore.ui().readBoolean(Boolean.TRUE, "\nWait for completion?"));
 
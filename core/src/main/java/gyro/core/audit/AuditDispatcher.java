@@ -0,0 +1,366 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.audit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import gyro.core.DaemonThreadFactory;
+import gyro.core.GyroException;
+import gyro.util.Bug;
+
+/**
+ * Sends the output to the auditors from a separate thread so that slow
+ * auditors don't hold up the UI.
+ *
+ * <p>The output is queued in a bounded buffer and sent in batches. When the
+ * buffer stays full, the output is spilled to a temporary file instead, which
+ * is sent in order once the buffer drains.</p>
+ */
+class AuditDispatcher {
+
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final long BATCH_MILLIS = 100L;
+    private static final long BACK_PRESSURE_MILLIS = 500L;
+    private static final long IDLE_MILLIS = 60000L;
+    private static final ThreadFactory THREAD_FACTORY = new DaemonThreadFactory("gyro-auditor-");
+
+    private final Supplier<Collection<GyroAuditor>> auditors;
+    private final BlockingQueue<Entry> queue;
+
+    // Everything below is guarded by the queue.
+    private Thread thread;
+    private boolean paused;
+    private long pending;
+    private Path spillFile;
+    private DataOutputStream spillOutput;
+    private Exception error;
+
+    public AuditDispatcher(Supplier<Collection<GyroAuditor>> auditors, int capacity) {
+        this.auditors = auditors;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queues the given {@code output} to be sent to the auditors.
+     */
+    public void submit(String output, boolean replace) {
+        Entry entry = new Entry(output, replace);
+
+        synchronized (queue) {
+            throwError();
+            ++pending;
+
+            if (spillOutput == null) {
+                if (queue.offer(entry)) {
+                    start();
+                    return;
+                }
+
+                // Nothing is drained while paused, so waiting is pointless.
+                if (!paused) {
+                    start();
+
+                    try {
+                        if (queue.offer(entry, BACK_PRESSURE_MILLIS, TimeUnit.MILLISECONDS)) {
+                            return;
+                        }
+
+                    } catch (InterruptedException interrupted) {
+                        throw new Bug(interrupted);
+                    }
+                }
+            }
+
+            spill(entry);
+        }
+    }
+
+    /**
+     * Holds on to the output instead of sending it while paused.
+     */
+    public void setPaused(boolean paused) {
+        synchronized (queue) {
+            this.paused = paused;
+
+            if (!paused && pending > 0) {
+                start();
+            }
+
+            queue.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until all output, except what's held while paused, is sent to
+     * the auditors.
+     */
+    public void flush() {
+        synchronized (queue) {
+            try {
+                while (!paused && pending > 0) {
+                    queue.wait();
+                }
+
+            } catch (InterruptedException interrupted) {
+                throw new Bug(interrupted);
+            }
+
+            throwError();
+        }
+    }
+
+    // The failures happen on the drain thread, so they're reported on the
+    // next call from the UI instead.
+    private void throwError() {
+        if (error != null) {
+            Exception e = error;
+
+            error = null;
+            throw new GyroException(e.getMessage());
+        }
+    }
+
+    private void start() {
+        if (thread == null && !paused) {
+            thread = THREAD_FACTORY.newThread(this::drain);
+            thread.start();
+        }
+    }
+
+    private void spill(Entry entry) {
+        try {
+            if (spillOutput == null) {
+                spillFile = Files.createTempFile("gyro-audit-", ".spill");
+
+                // Held output may never be sent if the audit doesn't start.
+                spillFile.toFile().deleteOnExit();
+                spillOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+            }
+
+            entry.write(spillOutput);
+
+        } catch (IOException e) {
+            throw new Bug(e);
+        }
+    }
+
+    private void drain() {
+        Batch batch = new Batch();
+        long idleSince = System.currentTimeMillis();
+
+        try {
+            while (true) {
+                boolean wasPaused;
+
+                synchronized (queue) {
+                    wasPaused = paused;
+                }
+
+                if (wasPaused) {
+                    batch.send();
+
+                    synchronized (queue) {
+                        while (paused) {
+                            queue.wait(BATCH_MILLIS);
+
+                            if (System.currentTimeMillis() - idleSince > IDLE_MILLIS) {
+                                thread = null;
+                                return;
+                            }
+                        }
+                    }
+                }
+
+                Entry entry = queue.poll(BATCH_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (entry != null) {
+                    batch.add(entry);
+                    idleSince = System.currentTimeMillis();
+                    continue;
+                }
+
+                batch.send();
+
+                Path file;
+
+                synchronized (queue) {
+                    if (!queue.isEmpty()) {
+                        continue;
+
+                    } else if (spillOutput != null) {
+                        spillOutput.close();
+
+                        file = spillFile;
+                        spillOutput = null;
+                        spillFile = null;
+
+                    } else if (System.currentTimeMillis() - idleSince > IDLE_MILLIS) {
+                        thread = null;
+                        return;
+
+                    } else {
+                        continue;
+                    }
+                }
+
+                // Everything spilled was submitted after what was in the
+                // queue and before anything that's in it now.
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    while (true) {
+                        try {
+                            batch.add(Entry.read(input));
+
+                        } catch (EOFException eof) {
+                            break;
+                        }
+                    }
+
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+
+                batch.send();
+                idleSince = System.currentTimeMillis();
+            }
+
+        } catch (InterruptedException | IOException e) {
+            // The output can't be sent in order anymore, so drop it instead
+            // of leaving the writers waiting.
+            synchronized (queue) {
+                thread = null;
+                pending = 0;
+
+                queue.clear();
+
+                if (error == null) {
+                    error = e;
+                }
+
+                queue.notifyAll();
+            }
+        }
+    }
+
+    // Only accessed from the drain thread.
+    private class Batch {
+
+        private final StringBuilder output = new StringBuilder();
+        private int entries;
+        private long startTime;
+
+        public void add(Entry entry) {
+            if (entry.replace) {
+                send();
+                output.append(entry.output);
+                entries = 1;
+                sendNow(true);
+
+            } else {
+                if (entries == 0) {
+                    startTime = System.currentTimeMillis();
+                }
+
+                output.append(entry.output);
+                ++entries;
+
+                if (output.length() >= BATCH_SIZE || System.currentTimeMillis() - startTime >= BATCH_MILLIS) {
+                    send();
+                }
+            }
+        }
+
+        public void send() {
+            if (entries > 0) {
+                sendNow(false);
+            }
+        }
+
+        private void sendNow(boolean replace) {
+            String text = output.toString();
+
+            output.setLength(0);
+
+            auditors.get().stream()
+                .parallel()
+                .filter(GyroAuditor::isStarted)
+                .filter(auditor -> !auditor.isFinished())
+                .forEach(auditor -> {
+                    try {
+                        auditor.append(text, replace);
+
+                    } catch (Exception e) {
+                        synchronized (queue) {
+                            if (error == null) {
+                                error = e;
+                            }
+                        }
+                    }
+                });
+
+            synchronized (queue) {
+                pending -= entries;
+                entries = 0;
+
+                queue.notifyAll();
+            }
+        }
+    }
+
+    private static class Entry {
+
+        public final String output;
+        public final boolean replace;
+
+        public Entry(String output, boolean replace) {
+            this.output = output;
+            this.replace = replace;
+        }
+
+        public static Entry read(DataInputStream input) throws IOException {
+            boolean replace = input.readBoolean();
+            byte[] bytes = new byte[input.readInt()];
+
+            input.readFully(bytes);
+            return new Entry(new String(bytes, StandardCharsets.UTF_8), replace);
+        }
+
+        public void write(DataOutputStream output) throws IOException {
+            byte[] bytes = this.output.getBytes(StandardCharsets.UTF_8);
+
+            output.writeBoolean(replace);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+}
@@ -16,12 +16,20 @@
 
 package gyro.core.audit;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.Reflections;
 import gyro.core.plugin.Plugin;
 import gyro.core.scope.RootScope;
 
 public class AuditorPlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(GyroAuditor.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) throws Exception {
         if (GyroAuditor.class.isAssignableFrom(aClass)) {
@@ -24,10 +24,13 @@ import gyro.core.GyroUI;
 
 public abstract class GyroAuditableUI implements GyroUI {
 
-    // TODO: pending replaces?
-    private final StringBuilder pendingWrites = new StringBuilder();
+    // Also holds on to the writes while the audit is pending.
+    private final AuditDispatcher dispatcher = new AuditDispatcher(
+        GyroAuditor.AUDITOR_BY_NAME::values,
+        AuditDispatcher.DEFAULT_CAPACITY);
 
-    private boolean auditPending;
+    private volatile boolean auditPending;
+    private Thread shutdownHook;
 
     public abstract String doWrite(String message, Object... arguments);
 
@@ -45,23 +48,25 @@ public abstract class GyroAuditableUI implements GyroUI {
     @Override
     public void setAuditPending(boolean auditPending) {
         this.auditPending = auditPending;
+        dispatcher.setPaused(auditPending);
     }
 
     @Override
     public void write(String message, Object... arguments) {
         String output = doWrite(message, arguments);
 
-        if (auditPending()) {
-            pendingWrites.append(output);
-        } else {
-            sendToAuditors(output, false);
+        if ((auditPending() && !GyroAuditor.AUDITOR_BY_NAME.isEmpty()) || isAuditing()) {
+            dispatcher.submit(output, false);
         }
-
     }
 
     @Override
     public void replace(String message, Object... arguments) {
-        sendToAuditors(doReplace(message, arguments), true);
+        String output = doReplace(message, arguments);
+
+        if (isAuditing()) {
+            dispatcher.submit(output, true);
+        }
     }
 
     @Override
@@ -76,12 +81,40 @@ public abstract class GyroAuditableUI implements GyroUI {
                     throw new GyroException(ex.getMessage());
                 }
             });
-        Runtime.getRuntime().addShutdownHook(new Thread(this::finishAuditors));
-        flushPendingWrites();
+        // Finishes the auditors if the process exits in the middle of the
+        // command, e.g. on Ctrl-C.
+        synchronized (this) {
+            if (shutdownHook == null) {
+                shutdownHook = new Thread(this::finishAuditors);
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+        }
+
+        setAuditPending(false);
     }
 
     @Override
     public void finishAuditors(Map<String, Object> log, boolean success) {
+        try {
+            doFinishAuditors(log, success);
+
+        } finally {
+            removeShutdownHook();
+        }
+    }
+
+    private void doFinishAuditors(Map<String, Object> log, boolean success) {
+        RuntimeException flushError = null;
+
+        // The auditors must still be finished even if some of the earlier
+        // output couldn't be sent to them.
+        try {
+            dispatcher.flush();
+
+        } catch (RuntimeException error) {
+            flushError = error;
+        }
+
         if (log == null) {
             log = new HashMap<>();
         }
@@ -99,27 +132,31 @@ public abstract class GyroAuditableUI implements GyroUI {
                     throw new GyroException(ex.getMessage());
                 }
             });
-    }
 
-    private void sendToAuditors(String output, boolean isReplace) {
-        GyroAuditor.AUDITOR_BY_NAME.values().stream()
-            .parallel()
-            .filter(GyroAuditor::isStarted)
-            .filter(auditor -> !auditor.isFinished())
-            .forEach(auditor -> {
-                try {
-                    auditor.append(output, isReplace);
-                } catch (Exception ex) {
-                    throw new GyroException(ex.getMessage());
-                }
-            });
+        if (flushError != null) {
+            throw flushError;
+        }
     }
 
-    private void flushPendingWrites() {
-        if (pendingWrites.length() > 0) {
-            sendToAuditors(pendingWrites.toString(), false);
-            pendingWrites.setLength(0);
-            setAuditPending(false);
+    // Long-running processes, such as the daemon, would otherwise hold on to
+    // every UI that ever started the auditors.
+    private synchronized void removeShutdownHook() {
+        if (shutdownHook == null) {
+            return;
+        }
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+
+        } catch (IllegalStateException error) {
+            // Already running as the shutdown hook.
         }
+
+        shutdownHook = null;
+    }
+
+    private boolean isAuditing() {
+        return GyroAuditor.AUDITOR_BY_NAME.values().stream()
+            .anyMatch(auditor -> auditor.isStarted() && !auditor.isFinished());
     }
 }
@@ -16,12 +16,20 @@
 
 package gyro.core.auth;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.Reflections;
 import gyro.core.plugin.Plugin;
 import gyro.core.scope.RootScope;
 
 public class CredentialsPlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(Credentials.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) {
         if (Credentials.class.isAssignableFrom(aClass)) {
@@ -16,6 +16,9 @@
 
 package gyro.core.backend;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.FileBackend;
 import gyro.core.Reflections;
 import gyro.core.plugin.Plugin;
@@ -23,6 +26,11 @@ import gyro.core.scope.RootScope;
 
 public class FileBackendPlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(FileBackend.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) {
         if (FileBackend.class.isAssignableFrom(aClass)) {
@@ -16,6 +16,9 @@
 
 package gyro.core.backend;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.LockBackend;
 import gyro.core.Reflections;
 import gyro.core.plugin.Plugin;
@@ -23,6 +26,11 @@ import gyro.core.scope.RootScope;
 
 public class LockBackendPlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(LockBackend.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) {
         if (LockBackend.class.isAssignableFrom(aClass)) {
@@ -21,9 +21,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -46,11 +49,15 @@ import gyro.core.auth.Credentials;
 import gyro.core.auth.CredentialsSettings;
 import gyro.core.diff.ChangeProcessor;
 import gyro.core.diff.ChangeSettings;
+import gyro.core.reference.FinderReferenceResolver;
+import gyro.core.reference.QueryCache;
 import gyro.core.resource.DiffableInternals;
 import gyro.core.resource.DiffableType;
 import gyro.core.resource.RefreshException;
 import gyro.core.resource.Resource;
 import gyro.core.scope.FileScope;
+import gyro.core.scope.NodeCache;
+import gyro.core.scope.RefreshCache;
 import gyro.core.scope.RootScope;
 import gyro.core.scope.Scope;
 import gyro.core.scope.State;
@@ -66,6 +73,9 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
     @Option(names = "--local-refresh", description = "Only refresh resources found in the current working directory.")
     public boolean localRefresh;
 
+    @Option(names = "--refresh-max-age", description = "Reuse cached refresh results that are younger than the given duration (e.g. 10m or 1h) instead of refreshing those resources again.")
+    public String refreshMaxAge;
+
     @Option(names = "--test", description = "Use for internal testing only. This flag will mock cloud provider API calls.")
     private boolean test;
 
@@ -83,6 +93,12 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
                 "Not a gyro project directory, use 'gyro init <plugins>...' to create one. See 'gyro help init' for detailed usage.");
         }
 
+        Duration maxAge = parseRefreshMaxAge();
+        NodeCache nodeCache = NodeCache.getInstance();
+
+        nodeCache.resetCounts();
+        nodeCache.prune();
+
         Set<String> loadFiles;
 
         if (files == null) {
@@ -175,7 +191,13 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
                     .forEach(Credentials::refresh);
 
                 if (!skipRefresh) {
-                    refreshResources(current);
+                    RefreshCache refreshCache = new RefreshCache(rootDir.resolve(".gyro/cache/refresh"), current);
+
+                    if (maxAge != null) {
+                        refreshCache.prune(maxAge);
+                    }
+
+                    refreshResources(current, refreshCache, maxAge);
                 }
             }
             GyroCore.ui().setAuditPending(true);
@@ -183,21 +205,73 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
             pending.evaluate();
             pending.validate();
 
-            doExecute(current, pending, new State(current, pending, test));
-        } finally {
-            if (lockBackend != null) {
-                if (!lockBackend.stayLocked()) {
-                    lockBackend.unlock();
-                    lockBackend.deleteTempLockFile();
+            if (GyroCore.ui().isVerbose()) {
+                GyroCore.ui().write(
+                    "@|bold,white Parsed files:|@ %d in memory, %d cached, %d parsed\n",
+                    nodeCache.getMemoryHits(),
+                    nodeCache.getHits(),
+                    nodeCache.getMisses());
+
+                if (nodeCache.getWriteFailures() > 0) {
+                    GyroCore.ui().write(
+                        "@|yellow Couldn't write %d parsed files to the cache.|@\n",
+                        nodeCache.getWriteFailures());
+                }
+
+                QueryCache<?> queryCache = FinderReferenceResolver.getQueryCache();
+
+                if (queryCache.getMisses() > 0) {
+                    GyroCore.ui().write(
+                        "@|bold,white External queries:|@ %d cached, %d loaded in %dms\n",
+                        queryCache.getHits(),
+                        queryCache.getMisses(),
+                        queryCache.getLoadTime());
                 }
             }
+
+            doExecute(current, pending, new State(current, pending, test));
+        } finally {
+            releaseLock();
+        }
+    }
+
+    /**
+     * Releases the state lock before the command finishes, for commands that
+     * don't change the state and keep running afterwards.
+     */
+    protected void releaseLock() throws Exception {
+        LockBackend lockBackend = GyroCore.getLockBackend();
+
+        if (lockBackend != null && lockBackend.getLockId() != null && !lockBackend.stayLocked()) {
+            lockBackend.unlock();
+            lockBackend.deleteTempLockFile();
+            lockBackend.setLockId(null);
         }
     }
 
-    private void refreshResources(RootScope scope) {
+    private Duration parseRefreshMaxAge() {
+        if (refreshMaxAge == null) {
+            return null;
+        }
+
+        String duration = (refreshMaxAge.startsWith("PT") ? refreshMaxAge : "PT" + refreshMaxAge).toUpperCase();
+
+        try {
+            return Duration.parse(duration);
+
+        } catch (DateTimeParseException error) {
+            throw new GyroException(String.format(
+                "@|bold --refresh-max-age|@ value @|bold %s|@ isn't a valid duration!",
+                refreshMaxAge));
+        }
+    }
+
+    private void refreshResources(RootScope scope, RefreshCache cache, Duration maxAge) {
         GyroUI ui = GyroCore.ui();
 
-        ExecutorService refreshService = Executors.newWorkStealingPool();
+        // Only coordinates each type. The refreshes themselves run on the
+        // shared RefreshScheduler through Resource#batchRefresh.
+        ExecutorService refreshService = Executors.newCachedThreadPool();
         List<Refresh> refreshes = new ArrayList<>();
         Map<DiffableType, List<Resource>> refreshQueues = new HashMap<>();
 
@@ -228,6 +302,20 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
             }
         }
 
+        // Restore the resources that were refreshed recently enough. This
+        // runs before the groups since the evaluator isn't thread-safe.
+        Set<Resource> cached = new HashSet<>();
+
+        if (maxAge != null) {
+            for (List<Resource> refreshQueue : refreshQueues.values()) {
+                for (Resource resource : refreshQueue) {
+                    if (cache.load(resource, maxAge)) {
+                        cached.add(resource);
+                    }
+                }
+            }
+        }
+
         // Refresh each type as a group.
         for (DiffableType type : refreshQueues.keySet()) {
             List<Resource> refreshQueue = refreshQueues.get(type);
@@ -255,7 +343,28 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
                     }
                 }
 
-                Map<? extends Resource, Boolean> refreshResults = peek.batchRefresh(refreshQueue);
+                List<Resource> staleQueue = refreshQueue.stream()
+                    .filter(r -> !cached.contains(r))
+                    .collect(Collectors.toList());
+
+                Map<Resource, Boolean> refreshResults = new LinkedHashMap<>();
+
+                if (!staleQueue.isEmpty()) {
+                    refreshResults.putAll(peek.batchRefresh(staleQueue));
+                }
+
+                // The cache is only written when it's used.
+                if (maxAge != null) {
+                    for (Resource resource : staleQueue) {
+                        if (Boolean.TRUE.equals(refreshResults.get(resource))) {
+                            cache.store(resource);
+                        }
+                    }
+                }
+
+                refreshQueue.stream()
+                    .filter(cached::contains)
+                    .forEach(r -> refreshResults.put(r, Boolean.TRUE));
 
                 // Run afterRefresh processors
                 for (Resource resource : refreshQueue) {
@@ -285,11 +394,14 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
                     time = String.format("%dm%ds", duration.toMinutes(), (duration.getSeconds() - (duration.toMinutes() * 60)));
                 }
 
-                ui.write("Refreshing @|magenta,bold %s|@: @|green %s|@ %s refreshed in @|green %s|@ elapsed\n",
+                int cachedSize = refreshQueue.size() - staleQueue.size();
+
+                ui.write("Refreshing @|magenta,bold %s|@: @|green %s|@ %s refreshed in @|green %s|@ elapsed%s\n",
                     DiffableType.getInstance(peek).getName(),
-                    refreshResults.size(),
-                    refreshResults.size() == 1 ? "resource" : "resources",
-                    time);
+                    staleQueue.size(),
+                    staleQueue.size() == 1 ? "resource" : "resources",
+                    time,
+                    cachedSize > 0 ? String.format(", @|green %s|@ cached", cachedSize) : "");
 
                 for (Resource resource : refreshResults.keySet()) {
                     boolean refreshed = refreshResults.get(resource);
@@ -298,14 +410,22 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
                     String name = DiffableInternals.getName(resource);
 
                     if (!refreshed) {
+                        if (maxAge != null) {
+                            cache.invalidate(resource);
+                        }
+
                         ui.replace("@|magenta - Removing from state:|@ %s %s\n", typeName, name);
-                        scope.getFileScopes().forEach(s -> s.remove(resource.primaryKey()));
+                        synchronized (scope) {
+                            scope.getFileScopes().forEach(s -> s.remove(resource.primaryKey()));
+                        }
                     }
                 }
 
                 return null;
             })));
+        }
 
+        try {
             for (Refresh refresh : refreshes) {
                 try {
                     refresh.future.get();
@@ -334,9 +454,12 @@ public abstract class AbstractConfigCommand extends AbstractCommand {
                     }
                 }
             }
-        }
 
-        refreshService.shutdown();
+        } finally {
+
+            // Stops the other types if one of them failed.
+            refreshService.shutdownNow();
+        }
     }
 
     private static class Refresh {
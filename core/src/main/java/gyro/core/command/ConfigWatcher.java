@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.command;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches the config files under a directory, except the ones in
+ * {@code .gyro}, for changes.
+ */
+class ConfigWatcher implements Closeable {
+
+    // Editors usually touch a file several times when saving it, so wait
+    // until things settle down before reporting the changes.
+    private static final long QUIET_MILLIS = 100L;
+
+    private final Path directory;
+    private final WatchService service;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    public ConfigWatcher(Path directory) throws IOException {
+        this.directory = directory;
+        this.service = directory.getFileSystem().newWatchService();
+
+        register(directory);
+    }
+
+    /**
+     * Waits for config files to change.
+     *
+     * @return Names of the changed, created, or deleted files, relative to
+     * the directory. Never empty.
+     */
+    public Set<String> take() throws IOException, InterruptedException {
+        Set<String> files = new TreeSet<>();
+
+        while (files.isEmpty()) {
+            for (WatchKey key = service.take(); key != null; key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) {
+                Path parent = directories.get(key);
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        files.addAll(findConfigs(directory));
+                        continue;
+                    }
+
+                    Path path = parent.resolve((Path) event.context());
+
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+
+                        register(path);
+                        files.addAll(findConfigs(path));
+
+                    } else if (isConfig(path)) {
+                        files.add(directory.relativize(path).toString());
+                    }
+                }
+
+                if (!key.reset()) {
+                    directories.remove(key);
+                }
+            }
+        }
+
+        return files;
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    private void register(Path start) throws IOException {
+        Path gyroDirectory = directory.resolve(".gyro");
+
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                if (dir.equals(gyroDirectory)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                directories.put(
+                    dir.register(
+                        service,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY),
+                    dir);
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private Set<String> findConfigs(Path start) throws IOException {
+        try (Stream<Path> s = Files.walk(start)) {
+            return s.filter(Files::isRegularFile)
+                .filter(this::isConfig)
+                .map(f -> directory.relativize(f).toString())
+                .collect(Collectors.toSet());
+        }
+    }
+
+    // Same as the files listed by LocalFileBackend.
+    private boolean isConfig(Path path) {
+        String file = directory.relativize(path).toString();
+
+        return !file.startsWith(".gyro" + File.separator) && file.endsWith(".gyro");
+    }
+
+}
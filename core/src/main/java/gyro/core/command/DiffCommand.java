@@ -16,12 +16,21 @@
 
 package gyro.core.command;
 
+import java.util.Set;
+
+import gyro.core.ErrorWriter;
 import gyro.core.GyroCore;
+import gyro.core.GyroException;
 import gyro.core.GyroUI;
 import gyro.core.diff.Diff;
+import gyro.core.scope.Defer;
 import gyro.core.scope.RootScope;
 import gyro.core.scope.State;
+import gyro.core.validation.ValidationErrorException;
+import gyro.lang.SyntaxErrorException;
+import gyro.lang.SyntaxErrorsException;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 
 @Command(name = "diff",
     header = "Shows differences between the configuration and the cloud.",
@@ -36,12 +45,25 @@ import picocli.CommandLine.Command;
 )
 public class DiffCommand extends AbstractConfigCommand {
 
+    @Option(names = "--watch", description = "Show the differences again whenever a configuration file changes.")
+    public boolean watch;
+
     @Override
     public void doExecute(RootScope current, RootScope pending, State state) throws Exception {
         GyroUI ui = GyroCore.ui();
 
         ui.write("\n@|bold,white Looking for changes...\n\n|@");
+        writeDiff(ui, current, pending);
 
+        if (watch) {
+            // Nothing is written to the state while watching, so don't keep
+            // it locked until the user stops.
+            releaseLock();
+            watch(ui, current, pending);
+        }
+    }
+
+    private void writeDiff(GyroUI ui, RootScope current, RootScope pending) {
         Diff diff = new Diff(
             current.findSortedResourcesIn(current.getLoadFiles()),
             pending.findSortedResourcesIn(pending.getLoadFiles()));
@@ -52,4 +74,40 @@ public class DiffCommand extends AbstractConfigCommand {
             ui.write("\n@|bold,green No changes.|@\n\n");
         }
     }
+
+    // The current root scope, along with the refreshed resources, is kept as
+    // is, and only the changed files are read and parsed again. Everything
+    // else comes from the previous pending root scope and the node cache.
+    private void watch(GyroUI ui, RootScope current, RootScope pending) throws Exception {
+        try (ConfigWatcher watcher = new ConfigWatcher(GyroCore.getRootDirectory())) {
+            while (true) {
+                ui.write("@|bold,white Watching for changes... (Ctrl-C to stop)|@\n");
+
+                Set<String> changedFiles = watcher.take();
+
+                ui.write(
+                    "\n@|bold,white Relooking for changes after editing %s...\n\n|@",
+                    String.join(", ", changedFiles));
+
+                pending = pending.reload(current, changedFiles);
+
+                try {
+                    pending.evaluate();
+                    pending.validate();
+                    writeDiff(ui, current, pending);
+
+                } catch (Defer
+                    | GyroException
+                    | SyntaxErrorException
+                    | SyntaxErrorsException
+                    | ValidationErrorException error) {
+
+                    // Mistakes in the configs are expected while editing
+                    // them, so they're shown without stopping.
+                    ErrorWriter.write(ui, error);
+                    ui.write("\n");
+                }
+            }
+        }
+    }
 }
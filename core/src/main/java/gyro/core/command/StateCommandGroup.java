@@ -22,10 +22,11 @@ import picocli.CommandLine;
     header = "Commands to manage state backends.",
     synopsisHeading = "%n",
     descriptionHeading = "%nDescription:%n%n",
-    description = "Copy between state backends or unlock a state backend.",
+    description = "Copy between state backends, convert state files or unlock a state backend.",
     optionListHeading = "%nOptions:%n%n",
     commandListHeading = "%nCommands:%n%n",
     subcommands = {
+        StateConvertCommand.class,
         StateCopyCommand.class,
         StateForceUnlockCommand.class
     })
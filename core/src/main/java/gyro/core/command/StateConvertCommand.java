@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.command;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import gyro.core.GyroCore;
+import gyro.core.GyroException;
+import gyro.core.GyroUI;
+import gyro.core.LocalFileBackend;
+import gyro.core.LockBackend;
+import gyro.core.RemoteStateBackend;
+import gyro.core.scope.RootScope;
+import gyro.core.scope.State;
+import gyro.core.scope.StateFormat;
+import gyro.core.scope.StateFormatSettings;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "convert",
+    header = "Convert state files between the text and binary formats.",
+    synopsisHeading = "%n",
+    descriptionHeading = "%nDescription:%n%n",
+    description = "Rewrites all state files in the given format. Add '@state-format: binary' to your 'init.gyro' to keep writing state files in the binary format.",
+    optionListHeading = "%nOptions:%n%n"
+)
+public class StateConvertCommand implements GyroCommand {
+
+    @Option(names = "--to", description = "Specifies the format to convert the state files to: text or binary", required = true)
+    private String to;
+
+    public String getTo() {
+        return to;
+    }
+
+    @Override
+    public void execute() throws Exception {
+        StateFormat format = StateFormat.fromString(getTo());
+        Path rootDir = GyroCore.getRootDirectory();
+
+        if (rootDir == null) {
+            throw new GyroException(
+                "Not a gyro project directory, use 'gyro init <plugins>...' to create one. See 'gyro help init' for detailed usage.");
+        }
+
+        LockBackend lockBackend = GyroCore.getLockBackend();
+
+        if (lockBackend != null) {
+            lockBackend.setLockId(UUID.randomUUID().toString());
+            lockBackend.lock();
+        }
+
+        GyroUI ui = GyroCore.ui();
+
+        try {
+            LocalFileBackend localTempBackend = new LocalFileBackend(rootDir.resolve(".gyro/.temp-state"));
+
+            RemoteStateBackend remoteStateBackend = Optional.ofNullable(GyroCore.getStateBackend("default"))
+                .map(sb -> new RemoteStateBackend(sb, localTempBackend))
+                .orElse(null);
+
+            RootScope current = new RootScope(
+                "../../" + GyroCore.INIT_FILE,
+                new LocalFileBackend(rootDir.resolve(".gyro/state")),
+                remoteStateBackend,
+                null,
+                null);
+
+            current.evaluate();
+
+            ui.write("\n@|bold,white Converting state files to the %s format...|@\n\n", getTo());
+
+            State state = new State(current, current, false);
+
+            state.convert(format);
+
+            if (remoteStateBackend != null && !remoteStateBackend.isLocalBackendEmpty()) {
+                remoteStateBackend.copyToRemote(true, false);
+            }
+
+            ui.write("@|bold,green Converted %d state files.|@\n", state.getSavedFiles());
+
+            if (current.getSettings(StateFormatSettings.class).getFormat() != format) {
+                ui.write(
+                    "\nAdd @|bold @state-format: %s|@ to your 'init.gyro' to keep writing state files"
+                        + " in this format.\n",
+                    getTo());
+            }
+
+        } finally {
+            if (lockBackend != null) {
+                lockBackend.unlock();
+            }
+        }
+    }
+
+}
@@ -16,10 +16,12 @@
 
 package gyro.core.command;
 
+import java.util.Collections;
 import java.util.Optional;
 
 import gyro.core.Abort;
 import gyro.core.GyroCore;
+import gyro.core.GyroException;
 import gyro.core.GyroUI;
 import gyro.core.RemoteStateBackend;
 import gyro.core.diff.Diff;
@@ -45,10 +47,18 @@ public class UpCommand extends AbstractConfigCommand {
 
     @Option(names = "--skip-version-check", description = "Skips checking for the latest version.")
     public boolean skipVersionCheck;
+
+    @Option(names = "--parallelism", description = "Maximum number of independent changes to execute at the same time.")
+    public int parallelism = 1;
+
     private boolean auditStarted;
 
     @Override
     public void doExecute(RootScope current, RootScope pending, State state) throws Exception {
+        if (parallelism < 1) {
+            throw new GyroException("@|bold --parallelism|@ must be at least 1!");
+        }
+
         if (!skipVersionCheck) {
             VersionCommand.printUpdateVersion();
         }
@@ -81,26 +91,19 @@ public class UpCommand extends AbstractConfigCommand {
             ui.write("\n");
 
             try {
-                diff.execute(ui, state);
+                diff.execute(ui, state, parallelism);
                 break;
 
             } catch (Retry error) {
                 ui.write("\n@|bold,white Relooking for changes after workflow...\n\n|@");
 
-                current = new RootScope(
-                    current.getFile(),
-                    current.getBackend(),
-                    current.getRemoteStateBackend(),
-                    null,
-                    current.getLoadFiles());
-
+                // Only the state files written during the workflow need to
+                // be read again. Configs are kept as they were when the
+                // command started.
+                current = current.reload(null, state.getWrittenFiles());
                 current.evaluate();
 
-                pending = new RootScope(
-                    pending.getFile(),
-                    pending.getBackend(),
-                    current,
-                    pending.getLoadFiles());
+                pending = pending.reload(current, Collections.emptySet());
 
                 pending.evaluate();
                 pending.validate();
@@ -114,6 +117,14 @@ public class UpCommand extends AbstractConfigCommand {
             }
         }
 
+        if (ui.isVerbose() && state.getSavedFiles() > 0) {
+            ui.write(
+                "@|bold,white Saved %d state %s (%d bytes)|@\n\n",
+                state.getSavedFiles(),
+                state.getSavedFiles() == 1 ? "file" : "files",
+                state.getSavedBytes());
+        }
+
         pushToRemote(current, ui);
 
         ui.finishAuditors(null, true);
@@ -145,11 +145,7 @@ public class Diff {
 
         DiffableInternals.setChange(diffable, create);
 
-        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
-            if (!field.shouldBeDiffed()) {
-                continue;
-            }
-
+        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getDiffedFields()) {
             Object value = field.getValue(diffable);
             Diff diff;
 
@@ -179,11 +175,7 @@ public class Diff {
         Set<String> currentConfiguredFields = DiffableInternals.getConfiguredFields(currentDiffable);
         Set<String> pendingConfiguredFields = DiffableInternals.getConfiguredFields(pendingDiffable);
 
-        for (DiffableField field : type.getFields()) {
-            if (!field.shouldBeDiffed()) {
-                continue;
-            }
-
+        for (DiffableField field : type.getDiffedFields()) {
             String name = field.getName();
 
             if (!currentConfiguredFields.contains(name) && !pendingConfiguredFields.contains(name)) {
@@ -297,11 +289,7 @@ public class Diff {
 
         DiffableInternals.setChange(diffable, delete);
 
-        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
-            if (!field.shouldBeDiffed()) {
-                continue;
-            }
-
+        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getDiffedFields()) {
             Object value = field.getValue(diffable);
             Diff diff;
 
@@ -407,21 +395,44 @@ public class Diff {
     }
 
     public void execute(GyroUI ui, State state) {
-        executeCreateKeepUpdate(ui, state);
-        executeReplace(ui, state);
-        executeReplaceActions(ui, state);
-        executeDelete(ui, state);
+        execute(ui, state, 1);
+    }
+
+    /**
+     * @param parallelism Maximum number of changes to execute at the same
+     * time. Replacements are always executed one at a time since they may
+     * trigger workflows.
+     */
+    public void execute(GyroUI ui, State state, int parallelism) {
+        if (parallelism > 1) {
+            ParallelExecutor executor = new ParallelExecutor(ui, parallelism);
+
+            executor.execute(getChanges(), false, (u, c) -> executeCreateKeepUpdate(u, state, c));
+            executeReplace(ui, state);
+            executeReplaceActions(ui, state);
+            executor.execute(getChanges(), true, (u, c) -> executeDelete(u, state, c));
+
+        } else {
+            executeCreateKeepUpdate(ui, state);
+            executeReplace(ui, state);
+            executeReplaceActions(ui, state);
+            executeDelete(ui, state);
+        }
     }
 
     private void executeCreateKeepUpdate(GyroUI ui, State state) {
         for (Change change : getChanges()) {
-            if (change instanceof Create || change instanceof Keep || change instanceof Update) {
-                executeChange(ui, state, change);
-            }
+            executeCreateKeepUpdate(ui, state, change);
+        }
+    }
 
-            for (Diff d : change.getDiffs()) {
-                d.executeCreateKeepUpdate(ui, state);
-            }
+    private void executeCreateKeepUpdate(GyroUI ui, State state, Change change) {
+        if (change instanceof Create || change instanceof Keep || change instanceof Update) {
+            executeChange(ui, state, change);
+        }
+
+        for (Diff d : change.getDiffs()) {
+            d.executeCreateKeepUpdate(ui, state);
         }
     }
 
@@ -448,15 +459,17 @@ public class Diff {
 
     private void executeDelete(GyroUI ui, State state) {
         for (ListIterator<Change> j = getChanges().listIterator(getChanges().size()); j.hasPrevious(); ) {
-            Change change = j.previous();
+            executeDelete(ui, state, j.previous());
+        }
+    }
 
-            for (Diff d : change.getDiffs()) {
-                d.executeDelete(ui, state);
-            }
+    private void executeDelete(GyroUI ui, State state, Change change) {
+        for (Diff d : change.getDiffs()) {
+            d.executeDelete(ui, state);
+        }
 
-            if (change instanceof Delete) {
-                executeChange(ui, state, change);
-            }
+        if (change instanceof Delete) {
+            executeChange(ui, state, change);
         }
     }
 
@@ -468,7 +481,11 @@ public class Diff {
         }
 
         if (change.changed.compareAndSet(false, true)) {
-            DiffableInternals.reevaluate(diffable);
+
+            // Evaluation isn't thread-safe so serialize it along with the state updates.
+            synchronized (state) {
+                DiffableInternals.reevaluate(diffable);
+            }
 
             if (!diffable.writeExecution(ui, change)) {
                 change.writeExecution(ui);
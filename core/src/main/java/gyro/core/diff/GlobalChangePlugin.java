@@ -16,12 +16,20 @@
 
 package gyro.core.diff;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.Reflections;
 import gyro.core.plugin.Plugin;
 import gyro.core.scope.RootScope;
 
 public class GlobalChangePlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(GlobalChangeProcessor.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) {
         if (GlobalChangeProcessor.class.isAssignableFrom(aClass)) {
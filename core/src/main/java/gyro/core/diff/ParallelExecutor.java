@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.diff;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+import gyro.core.BufferedGyroUI;
+import gyro.core.DependsOnSettings;
+import gyro.core.GyroCore;
+import gyro.core.GyroException;
+import gyro.core.GyroUI;
+import gyro.core.resource.Diffable;
+import gyro.core.resource.DiffableField;
+import gyro.core.resource.DiffableInternals;
+import gyro.core.resource.DiffableType;
+import gyro.core.resource.Resource;
+import gyro.core.scope.DiffableScope;
+
+/**
+ * Executes the top level changes of a diff on a bounded pool, running a
+ * change only after the changes of the resources that it depends on, either
+ * through {@code @depends-on} or through references, have finished.
+ */
+class ParallelExecutor {
+
+    private final GyroUI ui;
+    private final int parallelism;
+
+    public ParallelExecutor(GyroUI ui, int parallelism) {
+        this.ui = ui;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param reverse {@code true} to run a change only after the changes
+     * that depend on it have finished, e.g. for deletes.
+     */
+    public void execute(List<Change> changes, boolean reverse, BiConsumer<GyroUI, Change> action) {
+        Map<Change, Set<Change>> waiting = new HashMap<>();
+        Map<Change, List<Change>> dependents = new HashMap<>();
+
+        findDependencies(changes).forEach((change, dependencies) -> {
+            for (Change dependency : dependencies) {
+                Change before = reverse ? change : dependency;
+                Change after = reverse ? dependency : change;
+
+                waiting.computeIfAbsent(after, c -> new LinkedHashSet<>()).add(before);
+                dependents.computeIfAbsent(before, c -> new ArrayList<>()).add(after);
+            }
+        });
+
+        List<Change> pending = new ArrayList<>(changes);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        CompletionService<Change> completion = new ExecutorCompletionService<>(executor);
+        int running = 0;
+        Throwable failure = null;
+
+        try {
+            while (true) {
+                if (failure == null) {
+                    for (int i = 0; i < pending.size(); ) {
+                        Change change = pending.get(i);
+
+                        if (waiting.getOrDefault(change, Collections.emptySet()).isEmpty()) {
+                            pending.remove(i);
+                            submit(completion, change, action);
+                            ++running;
+
+                        } else {
+                            ++i;
+                        }
+                    }
+
+                    // Break dependency cycles in the original order.
+                    if (running == 0 && !pending.isEmpty()) {
+                        submit(completion, pending.remove(0), action);
+                        ++running;
+                    }
+                }
+
+                if (running == 0) {
+                    break;
+                }
+
+                try {
+                    Change done = completion.take().get();
+
+                    for (Change dependent : dependents.getOrDefault(done, Collections.emptyList())) {
+                        waiting.get(dependent).remove(done);
+                    }
+
+                } catch (ExecutionException error) {
+                    if (failure == null) {
+                        failure = error.getCause();
+                    }
+
+                } finally {
+                    --running;
+                }
+            }
+
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new GyroException("Interrupted while executing changes!", error);
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+
+        } else if (failure != null) {
+            throw new GyroException(failure);
+        }
+    }
+
+    private void submit(CompletionService<Change> completion, Change change, BiConsumer<GyroUI, Change> action) {
+        completion.submit(() -> {
+            BufferedGyroUI bufferedUi = new BufferedGyroUI(ui);
+
+            GyroCore.pushUi(bufferedUi);
+
+            try {
+                action.accept(bufferedUi, change);
+                return change;
+
+            } finally {
+                GyroCore.popUi();
+                bufferedUi.flush();
+            }
+        });
+    }
+
+    // Changes are matched by identity instead of by primary key, since a
+    // replace or a delete and a create can share one.
+    Map<Change, Set<Change>> findDependencies(List<Change> changes) {
+        Set<Change> changeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        changeSet.addAll(changes);
+
+        Map<Change, Set<Change>> dependenciesByChange = new HashMap<>();
+
+        for (Change change : changes) {
+            Set<Resource> resources = new LinkedHashSet<>();
+
+            addDependencies(resources, change.getDiffable());
+
+            for (Resource resource : resources) {
+                Change dependency = findChange(changeSet, resource);
+
+                if (dependency != null && dependency != change) {
+                    dependenciesByChange.computeIfAbsent(change, c -> new LinkedHashSet<>()).add(dependency);
+                }
+            }
+        }
+
+        return dependenciesByChange;
+    }
+
+    // Subresources are changed along with their parents.
+    private Change findChange(Set<Change> changes, Diffable diffable) {
+        for (Diffable d = diffable; d != null; d = d.parent()) {
+            Change change = DiffableInternals.getChange(d);
+
+            if (change != null && changes.contains(change)) {
+                return change;
+            }
+        }
+
+        return null;
+    }
+
+    private void addDependencies(Set<Resource> resources, Diffable diffable) {
+        DiffableScope scope = DiffableInternals.getScope(diffable);
+
+        if (scope != null) {
+            DependsOnSettings settings = scope.getSettings(DependsOnSettings.class);
+
+            resources.addAll(settings.getDependencies());
+            resources.addAll(settings.getReferences());
+        }
+
+        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
+            addDependencies(resources, field.getValue(diffable));
+        }
+    }
+
+    private void addDependencies(Set<Resource> resources, Object value) {
+        if (value instanceof Resource) {
+            resources.add((Resource) value);
+
+        } else if (value instanceof Diffable) {
+            addDependencies(resources, (Diffable) value);
+
+        } else if (value instanceof Collection) {
+            ((Collection<?>) value).forEach(v -> addDependencies(resources, v));
+
+        } else if (value instanceof Map) {
+            ((Map<?, ?>) value).values().forEach(v -> addDependencies(resources, v));
+        }
+    }
+}
@@ -16,12 +16,20 @@
 
 package gyro.core.directive;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.plugin.Plugin;
 import gyro.core.scope.RootScope;
 import gyro.core.scope.Scope;
 
 public class DirectivePlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(DirectiveProcessor.class);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void onEachClass(RootScope root, Class<?> aClass) {
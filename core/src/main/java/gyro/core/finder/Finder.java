@@ -16,8 +16,10 @@
 
 package gyro.core.finder;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import com.psddev.dari.util.TypeDefinition;
 import gyro.core.auth.Credentials;
@@ -38,16 +40,82 @@ public abstract class Finder<R extends Resource> {
 
     public abstract List<R> find(Map<String, Object> filters);
 
+    /**
+     * Finds the resources matching each of the given {@code filters}.
+     *
+     * <p>If there are more filters than {@link #getBatchThreshold()} and all
+     * of them can be evaluated against the resource fields, the default
+     * implementation calls {@link #findAll()} once and filters the results
+     * locally. Otherwise, it calls {@link #find(Map)} for each filter.
+     * Override this if the provider can look up many filters at once.</p>
+     *
+     * @param filters Each is the same as the argument to {@link #find(Map)}.
+     * @return Never {@code null}. Resources found for each filter, in the
+     * same order.
+     */
+    public List<List<R>> findBatch(List<Map<String, Object>> filters) {
+        List<List<R>> results = new ArrayList<>();
+
+        if (filters.size() > getBatchThreshold()) {
+            FinderType<?> finderType = FinderType.getInstance(getClass());
+            DiffableType<R> resourceType = DiffableType.getInstance(getResourceClass());
+
+            List<LocalFilter> localFilters = filters.stream()
+                .map(f -> LocalFilter.create(finderType, resourceType, f))
+                .collect(Collectors.toList());
+
+            if (!localFilters.contains(null)) {
+                List<R> all = findAll();
+
+                for (LocalFilter localFilter : localFilters) {
+                    results.add(all.stream().filter(localFilter::matches).collect(Collectors.toList()));
+                }
+
+                return results;
+            }
+        }
+
+        List<R> all = null;
+
+        for (Map<String, Object> filter : filters) {
+            List<R> found = find(filter);
+
+            if (found == null) {
+                if (all == null) {
+                    all = findAll();
+                }
+
+                found = all;
+            }
+
+            results.add(found);
+        }
+
+        return results;
+    }
+
+    /**
+     * @return Maximum number of filters that {@link #findBatch(List)} looks
+     * up one at a time before switching to a single {@link #findAll()}.
+     * External queries aren't batched ahead of the evaluation unless there
+     * are more of them than this.
+     */
+    public int getBatchThreshold() {
+        return 4;
+    }
+
     public <C extends Credentials> C credentials(Class<C> credentialsClass) {
         return Credentials.getInstance(credentialsClass, getClass(), scope, credentials);
     }
 
     public R newResource() {
-        @SuppressWarnings("unchecked")
-        Class<R> resourceClass = (Class<R>) TypeDefinition.getInstance(getClass())
-            .getInferredGenericTypeArgumentClass(Finder.class, 0);
+        return DiffableType.getInstance(getResourceClass())
+            .newExternalWithCredentials(scope.getRootScope(), null, credentials);
+    }
 
-        return DiffableType.getInstance(resourceClass).newExternalWithCredentials(scope.getRootScope(), null, credentials);
+    @SuppressWarnings("unchecked")
+    private Class<R> getResourceClass() {
+        return (Class<R>) TypeDefinition.getInstance(getClass()).getInferredGenericTypeArgumentClass(Finder.class, 0);
     }
 
 }
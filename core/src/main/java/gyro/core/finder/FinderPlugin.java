@@ -16,12 +16,20 @@
 
 package gyro.core.finder;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.plugin.Plugin;
 import gyro.core.resource.Resource;
 import gyro.core.scope.RootScope;
 
 public class FinderPlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(Finder.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) {
         if (Finder.class.isAssignableFrom(aClass)) {
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.finder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import gyro.core.resource.DiffableField;
+import gyro.core.resource.DiffableType;
+import gyro.core.resource.Resource;
+
+/**
+ * Evaluates a finder filter against the fields of already found resources,
+ * so that {@link Finder#findBatch} can answer many filters with one
+ * {@link Finder#findAll()}.
+ */
+class LocalFilter {
+
+    private final Map<DiffableField, Object> values;
+
+    private LocalFilter(Map<DiffableField, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * @return {@code null} if any of the given {@code filters} can't be
+     * evaluated locally, such as a filter without a matching resource field
+     * or a value with wildcards.
+     */
+    public static LocalFilter create(
+        FinderType<?> finderType,
+        DiffableType<?> resourceType,
+        Map<String, Object> filters) {
+
+        Map<DiffableField, Object> values = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Object> entry : filters.entrySet()) {
+            String filterName = entry.getKey();
+
+            String gyroName = finderType.getFields()
+                .stream()
+                .filter(f -> f.getFilterName().equals(filterName))
+                .map(FinderField::getGyroName)
+                .findFirst()
+                .orElse(filterName);
+
+            DiffableField field = resourceType.getField(gyroName);
+            Object value = entry.getValue();
+
+            if (field == null || !isScalarClass(field.getItemClass()) || !isPlainValue(value)) {
+                return null;
+            }
+
+            values.put(field, value);
+        }
+
+        return new LocalFilter(values);
+    }
+
+    private static boolean isScalarClass(Class<?> c) {
+        return CharSequence.class.isAssignableFrom(c)
+            || Number.class.isAssignableFrom(c)
+            || Boolean.class.isAssignableFrom(c)
+            || Enum.class.isAssignableFrom(c)
+            || c.isPrimitive();
+    }
+
+    private static boolean isPlainValue(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().allMatch(LocalFilter::isPlainValue);
+
+        } else if (value instanceof String) {
+            String string = (String) value;
+
+            return string.indexOf('*') < 0 && string.indexOf('?') < 0;
+
+        } else {
+            return value instanceof Number || value instanceof Boolean;
+        }
+    }
+
+    public boolean matches(Resource resource) {
+        for (Map.Entry<DiffableField, Object> entry : values.entrySet()) {
+            if (!matches(entry.getValue(), entry.getKey().getValue(resource))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Matches if any of the filter values equals any of the field values.
+    private boolean matches(Object expected, Object actual) {
+        for (Object e : toCollection(expected)) {
+            for (Object a : toCollection(actual)) {
+                if (e instanceof Number && a instanceof Number
+                    ? ((Number) e).doubleValue() == ((Number) a).doubleValue()
+                    : Objects.equals(String.valueOf(e), String.valueOf(a))) {
+
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private Collection<?> toCollection(Object value) {
+        if (value instanceof Collection) {
+            return (Collection<?>) value;
+
+        } else if (value == null) {
+            return Collections.emptyList();
+
+        } else {
+            return Collections.singletonList(value);
+        }
+    }
+
+}
@@ -16,10 +16,25 @@
 
 package gyro.core.plugin;
 
+import java.util.Set;
+
 import gyro.core.scope.RootScope;
 
 public abstract class Plugin {
 
+    /**
+     * Returns the types that {@link #onEachClass} acts on, so that other
+     * classes in the plugin jars don't need to be loaded.
+     *
+     * <p>Classes match if they extend, implement or are annotated with any
+     * of the types.</p>
+     *
+     * @return {@code null} if this plugin needs to see every class.
+     */
+    public Set<Class<?>> getAcceptedTypes() {
+        return null;
+    }
+
     public abstract void onEachClass(RootScope root, Class<?> aClass) throws Exception;
 
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+import com.google.common.hash.Hashing;
+import gyro.core.command.VersionCommand;
+
+/**
+ * Index of the concrete classes in a plugin jar along with the names of
+ * their supertypes and annotations, so that only the classes that the
+ * plugins care about need to be loaded.
+ *
+ * <p>The index is built by loading every class once and is then kept under
+ * {@code ~/.gyro/cache/<key>/classes}, keyed by the SHA-256 of the jar.</p>
+ */
+class PluginClassIndex {
+
+    private static final String VERSION_PREFIX = "# ";
+
+    private final Map<String, Set<String>> typesByClass;
+
+    private PluginClassIndex(Map<String, Set<String>> typesByClass) {
+        this.typesByClass = typesByClass;
+    }
+
+    /**
+     * Reads the index for the given {@code jar} from the given
+     * {@code directory}, or builds and writes it if it doesn't exist yet.
+     */
+    public static PluginClassIndex load(Path directory, File jar, ClassLoader loader)
+        throws IOException, ClassNotFoundException {
+
+        String version = getVersion();
+        Path indexFile = directory.resolve(com.google.common.io.Files.asByteSource(jar)
+            .hash(Hashing.sha256())
+            .toString());
+
+        if (Files.exists(indexFile)) {
+            PluginClassIndex index = read(indexFile, version);
+
+            if (index != null) {
+                return index;
+            }
+        }
+
+        PluginClassIndex index = build(jar, loader);
+
+        index.write(directory, indexFile, version);
+        return index;
+    }
+
+    // The supertypes of the classes include the gyro classes, so the index
+    // is also built again for every new gyro version.
+    private static String getVersion() {
+        try {
+            return VersionCommand.getCurrentVersion().toString();
+
+        } catch (IOException | RuntimeException error) {
+            return "";
+        }
+    }
+
+    private static PluginClassIndex read(Path indexFile, String version) {
+        try {
+            List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+
+            if (lines.isEmpty() || !lines.get(0).equals(VERSION_PREFIX + version)) {
+                return null;
+            }
+
+            Map<String, Set<String>> typesByClass = new LinkedHashMap<>();
+
+            for (String line : lines.subList(1, lines.size())) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                List<String> names = Arrays.asList(line.split(" "));
+
+                typesByClass.put(names.get(0), new LinkedHashSet<>(names.subList(1, names.size())));
+            }
+
+            return new PluginClassIndex(typesByClass);
+
+        } catch (IOException error) {
+            return null;
+        }
+    }
+
+    private static PluginClassIndex build(File jar, ClassLoader loader) throws IOException, ClassNotFoundException {
+        List<String> names;
+
+        try (JarFile jarFile = new JarFile(jar)) {
+            names = jarFile.stream()
+                // Filter out directories and non-class files.
+                .filter(entry -> !entry.isDirectory())
+                .filter(entry -> entry.getName().endsWith(".class"))
+                .filter(entry -> entry.getName().startsWith("gyro/"))
+
+                // Map path/filename to Class name.
+                .map(entry -> {
+                    String name = entry.getName();
+
+                    name = name.substring(0, name.length() - 6);
+                    name = name.replace('/', '.');
+
+                    return name;
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+
+        Map<String, Set<String>> typesByClass = new LinkedHashMap<>();
+
+        for (String name : names) {
+            Class<?> c = Class.forName(name, false, loader);
+
+            // Ignore abstract classes and interfaces.
+            if (Modifier.isAbstract(c.getModifiers()) || Modifier.isInterface(c.getModifiers())) {
+                continue;
+            }
+
+            Set<String> types = new LinkedHashSet<>();
+
+            addTypes(types, c);
+            types.remove(name);
+            types.remove(Object.class.getName());
+
+            for (Annotation annotation : c.getAnnotations()) {
+                types.add(annotation.annotationType().getName());
+            }
+
+            typesByClass.put(name, types);
+        }
+
+        return new PluginClassIndex(typesByClass);
+    }
+
+    private static void addTypes(Set<String> types, Class<?> c) {
+        if (c != null && types.add(c.getName())) {
+            addTypes(types, c.getSuperclass());
+
+            for (Class<?> i : c.getInterfaces()) {
+                addTypes(types, i);
+            }
+        }
+    }
+
+    // Failing to write is ignored since the index is only an optimization.
+    private void write(Path directory, Path indexFile, String version) {
+        Path tempFile = null;
+
+        try {
+            Files.createDirectories(directory);
+
+            tempFile = Files.createTempFile(directory, ".plugin-class-index-", ".tmp");
+
+            List<String> lines = new ArrayList<>();
+
+            lines.add(VERSION_PREFIX + version);
+
+            typesByClass.forEach((name, types) -> {
+                List<String> names = new ArrayList<>();
+
+                names.add(name);
+                names.addAll(types);
+                lines.add(String.join(" ", names));
+            });
+
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (IOException error) {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+
+                } catch (IOException deleteError) {
+                    // Ignore.
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the classes whose supertypes or annotations match
+     * the given {@code filter}.
+     */
+    public Set<String> findClassNames(Predicate<Set<String>> filter) {
+        return typesByClass.entrySet()
+            .stream()
+            .filter(e -> filter.test(e.getValue()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+}
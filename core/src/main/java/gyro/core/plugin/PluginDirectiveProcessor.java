@@ -20,17 +20,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.lang.reflect.Modifier;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.jar.JarFile;
-import java.util.stream.Collectors;
 
 import gyro.core.GyroException;
 import gyro.core.Type;
@@ -41,8 +35,6 @@ import gyro.lang.ast.block.DirectiveNode;
 @Type("plugin")
 public class PluginDirectiveProcessor extends DirectiveProcessor<RootScope> {
 
-    private static final ConcurrentMap<String, Set<Class<?>>> CLASSES_BY_ARTIFACT_COORDS = new ConcurrentHashMap<>();
-
     @Override
     public void process(RootScope scope, DirectiveNode node) {
         validateArguments(node, 1, 1);
@@ -56,6 +48,53 @@ public class PluginDirectiveProcessor extends DirectiveProcessor<RootScope> {
         Path cachePath = settings.getCachePath();
         Path cachedArtifactInfoPath = cachePath.resolve("info");
 
+        // The cache info is only needed the first time a plugin is loaded.
+        PluginClassIndex index = settings.getClassIndex(artifactCoords, ac -> {
+            Map<String, File> artifactFiles = readArtifactFiles(cachedArtifactInfoPath);
+
+            try {
+                return PluginClassIndex.load(cachePath.resolve("classes"), artifactFiles.get(ac), pluginClassLoader);
+
+            } catch (Exception error) {
+                if (error instanceof NoSuchFileException) {
+                    deleteIfExists(cachedArtifactInfoPath);
+
+                } else if (error instanceof ClassNotFoundException) {
+                    deleteIfExists(cachePath.resolve("deps"));
+                }
+
+                throw new GyroException(
+                    String.format("Can't load the @|bold %s|@ plugin!", ac),
+                    error);
+            }
+        });
+
+        settings.addClasses(index, name -> loadClass(settings, artifactCoords, name));
+    }
+
+    private Class<?> loadClass(PluginSettings settings, String artifactCoords, String name) {
+        try {
+            return Class.forName(name, false, settings.getPluginClassLoader());
+
+        } catch (ClassNotFoundException error) {
+            deleteIfExists(settings.getCachePath().resolve("deps"));
+
+            throw new GyroException(
+                String.format("Can't load the @|bold %s|@ plugin!", artifactCoords),
+                error);
+        }
+    }
+
+    private void deleteIfExists(Path file) {
+        try {
+            Files.deleteIfExists(file);
+
+        } catch (IOException error) {
+            // Ignore
+        }
+    }
+
+    private Map<String, File> readArtifactFiles(Path cachedArtifactInfoPath) {
         Map<String, File> artifactFiles = new HashMap<>();
         try {
             try (BufferedReader br = new BufferedReader(new FileReader(cachedArtifactInfoPath.toFile()))) {
@@ -73,56 +112,6 @@ public class PluginDirectiveProcessor extends DirectiveProcessor<RootScope> {
             throw new GyroException("Can't load the cache info!");
         }
 
-        settings.addClasses(CLASSES_BY_ARTIFACT_COORDS.computeIfAbsent(artifactCoords, ac -> {
-            try {
-                try (JarFile jar = new JarFile(artifactFiles.get(ac))) {
-                    return jar.stream().parallel()
-                        // Filter out directories and non-class files.
-                        .filter(entry -> !entry.isDirectory())
-                        .filter(entry -> entry.getName().endsWith(".class"))
-                        .filter(entry -> entry.getName().startsWith("gyro/"))
-
-                        // Map path/filename to Class name.
-                        .map(entry -> {
-                            String name = entry.getName();
-
-                            name = name.substring(0, name.length() - 6);
-                            name = name.replace('/', '.');
-
-                            return name;
-                        })
-
-                        // Look up class to for it to load.
-                        .map(name -> {
-                            try {
-                                return Class.forName(name, false, pluginClassLoader);
-                            } catch (ClassNotFoundException e) {
-                                try {
-                                    Files.deleteIfExists(cachePath.resolve("deps"));
-                                } catch (IOException er) {
-                                    // Ignore
-                                }
-                                throw new RuntimeException(e);
-                            }
-                        })
-
-                        // Ignore abstract classes and interfaces.
-                        .filter(c -> !Modifier.isAbstract(c.getModifiers()) && !Modifier.isInterface(c.getModifiers()))
-                        .collect(Collectors.toSet());
-                }
-            } catch (Exception error) {
-                if (error instanceof NoSuchFileException) {
-                    try {
-                        Files.deleteIfExists(cachedArtifactInfoPath);
-                    } catch (IOException ex) {
-                        // Ignore
-                    }
-                }
-
-                throw new GyroException(
-                    String.format("Can't load the @|bold %s|@ plugin!", ac),
-                    error);
-            }
-        }));
+        return artifactFiles;
     }
 }
@@ -1,19 +1,25 @@
 package gyro.core.plugin;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import com.psddev.dari.util.StringUtils;
+import gyro.core.DaemonThreadFactory;
 import gyro.core.GyroCore;
 import gyro.core.GyroException;
 import gyro.core.preprocessor.Preprocessor;
@@ -23,11 +29,12 @@ import gyro.core.scope.RootScope;
 import gyro.core.scope.Scope;
 import gyro.lang.ast.Node;
 import gyro.lang.ast.block.DirectiveNode;
+import gyro.util.Bug;
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
 import org.eclipse.aether.DefaultRepositoryCache;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
-import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.collection.CollectRequest;
 import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
@@ -39,6 +46,7 @@ import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
 import org.eclipse.aether.resolution.DependencyResult;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.transport.TransporterFactory;
@@ -49,6 +57,8 @@ import org.eclipse.aether.util.filter.DependencyFilterUtils;
 
 public class PluginPreprocessor extends Preprocessor {
 
+    private static final int RESOLVE_THREADS = 8;
+
     @Override
     public List<Node> preprocess(List<Node> nodes, RootScope scope) {
         PluginSettings settings = scope.getSettings(PluginSettings.class);
@@ -72,7 +82,9 @@ public class PluginPreprocessor extends Preprocessor {
         Path cachedArtifactInfoPath = cachePath.resolve("info");
         settings.setCachePath(cachePath);
 
-        if (artifactCoords.stream().allMatch(settings::pluginInitialized)) {
+        // Root scopes that are created again, such as after a workflow, share
+        // the plugins that were already loaded by this process.
+        if (settings.cacheLoaded(cachePath) || artifactCoords.stream().allMatch(settings::pluginInitialized)) {
             return nodes;
         }
 
@@ -102,6 +114,7 @@ public class PluginPreprocessor extends Preprocessor {
 
                 if (!refreshDependencies) {
                     classLoader.add(jars);
+                    settings.putCacheLoaded(cachePath);
                     return nodes;
                 }
             }
@@ -131,36 +144,34 @@ public class PluginPreprocessor extends Preprocessor {
         session.setLocalRepositoryManager(manager);
         session.setCache(new DefaultRepositoryCache());
 
-        for (String ac : artifactCoords) {
-            if (settings.pluginInitialized(ac)) {
-                continue;
-            }
+        session.setReadOnly();
 
-            try {
-                GyroCore.ui().write("@|magenta ↓ Loading plugin:|@ %s\n", ac);
+        List<RemoteRepository> repositories = scope.getSettings(RepositorySettings.class).getRepositories();
 
-                Artifact pluginArtifact = new DefaultArtifact(ac);
-                Dependency dependency = new Dependency(pluginArtifact, JavaScopes.RUNTIME);
-                DependencyFilter filter = DependencyFilterUtils.classpathFilter(JavaScopes.RUNTIME);
-                List<RemoteRepository> repositories = scope.getSettings(RepositorySettings.class).getRepositories();
-                CollectRequest collectRequest = new CollectRequest(dependency, repositories);
-                DependencyRequest request = new DependencyRequest(collectRequest, filter);
-                DependencyResult result = system.resolveDependencies(session, request);
+        List<String> unresolvedCoords = artifactCoords.stream()
+            .filter(ac -> !settings.pluginInitialized(ac))
+            .distinct()
+            .collect(Collectors.toList());
 
-                settings.putDependencyResult(ac, result);
+        unresolvedCoords.forEach(ac -> GyroCore.ui().write("@|magenta ↓ Loading plugin:|@ %s\n", ac));
 
-                // Write file to map ac to a file for later loading.
-                Path file = result.getRoot().getArtifact().getFile().toPath();
+        // Plugins are resolved at the same time, but the results are merged
+        // in the declared order so that the chosen artifact versions don't
+        // depend on which resolution finishes first.
+        List<DependencyResult> results = resolveDependencies(system, session, repositories, unresolvedCoords);
 
-                BufferedWriter writer = new BufferedWriter(new FileWriter(cachedArtifactInfoPath.toFile(), true));
-                writer.newLine();
-                writer.write(ac + " " + file.toString());
-                writer.close();
+        for (int i = 0, size = unresolvedCoords.size(); i < size; ++i) {
+            String ac = unresolvedCoords.get(i);
+            DependencyResult result = results.get(i);
 
+            settings.putDependencyResult(ac, result);
+
+            try {
                 for (ArtifactResult artifactResult : result.getArtifactResults()) {
                     settings.putArtifactIfNewer(artifactResult.getArtifact());
                 }
-            } catch (Exception error) {
+
+            } catch (MalformedURLException error) {
                 throw new GyroException(
                     String.format("Can't load the @|bold %s|@ plugin!", ac),
                     error);
@@ -169,22 +180,93 @@ public class PluginPreprocessor extends Preprocessor {
 
         settings.addAllUrls();
 
-        // -- Build local cache of dependency data.
+        // -- Build local cache of artifact and dependency data.
         try {
+            List<String> artifactLines = new ArrayList<>();
+
+            for (String ac : artifactCoords) {
+                artifactLines.add(ac + " " + settings.getDependencyResult(ac).getRoot().getArtifact().getFile());
+            }
+
+            List<String> dependencyLines = new ArrayList<>();
 
-            BufferedWriter writer = new BufferedWriter(new FileWriter(cachedDependencyInfoPath.toFile(), true));
             for (URL url : settings.getPluginClassLoader().getPluginUrls()) {
-                writer.write(url.toURI().getPath());
-                writer.newLine();
+                dependencyLines.add(url.toURI().getPath());
             }
-            writer.close();
+
+            Files.write(cachedArtifactInfoPath, artifactLines);
+            Files.write(cachedDependencyInfoPath, dependencyLines);
+
         } catch (Exception ex) {
             throw new GyroException("Failed to write plugin cache file!", ex);
         }
 
+        settings.putCacheLoaded(cachePath);
+
         return nodes;
     }
 
+    private List<DependencyResult> resolveDependencies(
+        RepositorySystem system,
+        RepositorySystemSession session,
+        List<RemoteRepository> repositories,
+        List<String> artifactCoords) {
+
+        int size = artifactCoords.size();
+
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+
+        // Resolution mostly waits on the repositories, so use more threads
+        // than there are processors.
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(size, RESOLVE_THREADS),
+            new DaemonThreadFactory("gyro-plugin-resolver-"));
+
+        try {
+            List<Future<DependencyResult>> futures = artifactCoords.stream()
+                .map(ac -> executor.submit(() -> resolveDependencies(system, session, repositories, ac)))
+                .collect(Collectors.toList());
+
+            List<DependencyResult> results = new ArrayList<>();
+
+            for (int i = 0; i < size; ++i) {
+                try {
+                    results.add(futures.get(i).get());
+
+                } catch (ExecutionException error) {
+                    throw new GyroException(
+                        String.format("Can't load the @|bold %s|@ plugin!", artifactCoords.get(i)),
+                        error.getCause());
+
+                } catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                    throw new Bug(error);
+                }
+            }
+
+            return results;
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DependencyResult resolveDependencies(
+        RepositorySystem system,
+        RepositorySystemSession session,
+        List<RemoteRepository> repositories,
+        String artifactCoords) throws DependencyResolutionException {
+
+        Dependency dependency = new Dependency(new DefaultArtifact(artifactCoords), JavaScopes.RUNTIME);
+        DependencyFilter filter = DependencyFilterUtils.classpathFilter(JavaScopes.RUNTIME);
+        CollectRequest collectRequest = new CollectRequest(dependency, repositories);
+        DependencyRequest request = new DependencyRequest(collectRequest, filter);
+
+        return system.resolveDependencies(session, request);
+    }
+
     private String getArtifactCoord(DirectiveNode node) {
         NodeEvaluator evaluator = new NodeEvaluator();
         Scope scope = new Scope(null);
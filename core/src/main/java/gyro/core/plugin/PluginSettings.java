@@ -22,11 +22,18 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import com.google.common.cache.CacheBuilder;
@@ -46,12 +53,18 @@ public class PluginSettings extends Settings {
 
     private static final ConcurrentMap<String, VersionUrl> VERSIONED_URLS = new ConcurrentHashMap<>();
     private static final ConcurrentMap<String, DependencyResult> RESULT_BY_ARTIFACT_COORDS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, PluginClassIndex> CLASS_INDEXES = new ConcurrentHashMap<>();
+    private static final Set<Path> LOADED_CACHE_PATHS = ConcurrentHashMap.newKeySet();
     private static final PluginClassLoader PLUGIN_CLASS_LOADER = new PluginClassLoader();
 
     private List<Plugin> plugins;
     private List<Class<?>> otherClasses;
     private Path cachePath;
 
+    // Names of the classes loaded so far from each plugin jar, in the order
+    // that the jars were added.
+    private final Map<PluginClassIndex, Set<String>> loadedClassNamesByIndex = new LinkedHashMap<>();
+
     private final LoadingCache<Plugin, LoadingCache<Class<?>, Boolean>> call = CacheBuilder.newBuilder()
         .build(new CacheLoader<Plugin, LoadingCache<Class<?>, Boolean>>() {
 
@@ -133,6 +146,82 @@ public class PluginSettings extends Settings {
         }
     }
 
+    /**
+     * Adds the plugins in the given {@code index} of a plugin jar, and then
+     * the other classes that any of the plugins accept.
+     *
+     * <p>If the new plugins accept more types, the jars that were added
+     * earlier are checked again for the classes that no plugin accepted at
+     * the time.</p>
+     *
+     * @param loader Loads the class with the given name.
+     */
+    void addClasses(PluginClassIndex index, Function<String, Class<?>> loader) {
+        String pluginName = Plugin.class.getName();
+        Set<String> oldTypeNames = findAcceptedTypeNames();
+
+        loadedClassNamesByIndex.computeIfAbsent(index, i -> new HashSet<>());
+        addClasses(loadClasses(index, types -> types.contains(pluginName), loader));
+
+        Set<String> typeNames = findAcceptedTypeNames();
+        boolean widened = oldTypeNames != null && (typeNames == null || !oldTypeNames.containsAll(typeNames));
+
+        for (PluginClassIndex i : new ArrayList<>(loadedClassNamesByIndex.keySet())) {
+            if (i == index || widened) {
+                addClasses(loadClasses(
+                    i,
+                    types -> !types.contains(pluginName)
+                        && (typeNames == null || types.stream().anyMatch(typeNames::contains)),
+                    loader));
+            }
+        }
+    }
+
+    private Set<Class<?>> loadClasses(
+        PluginClassIndex index,
+        Predicate<Set<String>> filter,
+        Function<String, Class<?>> loader) {
+
+        Set<String> loadedClassNames = loadedClassNamesByIndex.get(index);
+        Set<Class<?>> classes = new LinkedHashSet<>();
+
+        for (String name : index.findClassNames(filter)) {
+            if (loadedClassNames.add(name)) {
+                classes.add(loader.apply(name));
+            }
+        }
+
+        return classes;
+    }
+
+    private Set<String> findAcceptedTypeNames() {
+        return Optional.ofNullable(findAcceptedTypes())
+            .map(types -> types.stream().map(Class::getName).collect(Collectors.toSet()))
+            .orElse(null);
+    }
+
+    /**
+     * Returns the types that the current plugins act on.
+     *
+     * @return {@code null} if any of the plugins needs to see every class.
+     * @see Plugin#getAcceptedTypes()
+     */
+    public Set<Class<?>> findAcceptedTypes() {
+        Set<Class<?>> types = new HashSet<>();
+
+        for (Plugin plugin : getPlugins()) {
+            Set<Class<?>> pluginTypes = plugin.getAcceptedTypes();
+
+            if (pluginTypes == null) {
+                return null;
+            }
+
+            types.addAll(pluginTypes);
+        }
+
+        return types;
+    }
+
     public Path getCachePath() {
         return cachePath;
     }
@@ -157,6 +246,40 @@ public class PluginSettings extends Settings {
         return RESULT_BY_ARTIFACT_COORDS.containsKey(artifactCoord);
     }
 
+    PluginClassIndex getClassIndex(String artifactCoords, Function<String, PluginClassIndex> load) {
+        return CLASS_INDEXES.computeIfAbsent(artifactCoords, load);
+    }
+
+    /**
+     * Finds the classes in all plugins loaded so far that extend or implement
+     * the given {@code type}, whether or not any plugin accepts them.
+     */
+    public static List<Class<?>> findPluginClasses(Class<?> type) {
+        String typeName = type.getName();
+        List<Class<?>> classes = new ArrayList<>();
+
+        for (PluginClassIndex index : CLASS_INDEXES.values()) {
+            for (String name : index.findClassNames(types -> types.contains(typeName))) {
+                try {
+                    classes.add(Class.forName(name, false, PLUGIN_CLASS_LOADER));
+
+                } catch (ClassNotFoundException error) {
+                    throw new GyroException(String.format("Can't load @|bold %s|@ from the plugins!", name), error);
+                }
+            }
+        }
+
+        return classes;
+    }
+
+    public boolean cacheLoaded(Path cachePath) {
+        return LOADED_CACHE_PATHS.contains(cachePath);
+    }
+
+    public void putCacheLoaded(Path cachePath) {
+        LOADED_CACHE_PATHS.add(cachePath);
+    }
+
     public void putArtifactIfNewer(Artifact artifact) throws MalformedURLException {
         String id = artifact.getGroupId() + "/" + artifact.getArtifactId();
         VersionUrl versionUrl = new VersionUrl(artifact.getVersion(), artifact.getFile().toURI().toURL());
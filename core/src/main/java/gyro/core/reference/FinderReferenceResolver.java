@@ -16,16 +16,20 @@
 
 package gyro.core.reference;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.psddev.dari.util.ObjectUtils;
 import com.psddev.dari.util.StringUtils;
 import gyro.core.GyroException;
+import gyro.core.Reflections;
 import gyro.core.Type;
 import gyro.core.finder.Finder;
 import gyro.core.finder.FinderField;
@@ -35,12 +39,24 @@ import gyro.core.resource.DiffableInternals;
 import gyro.core.resource.Resource;
 import gyro.core.scope.RootScope;
 import gyro.core.scope.Scope;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.OptionArgumentNode;
+import gyro.lang.ast.PairNode;
+import gyro.lang.ast.block.BlockNode;
+import gyro.lang.ast.block.DirectiveNode;
+import gyro.lang.ast.value.BinaryNode;
+import gyro.lang.ast.value.IndexedNode;
+import gyro.lang.ast.value.InterpolatedStringNode;
+import gyro.lang.ast.value.ListNode;
+import gyro.lang.ast.value.MapNode;
+import gyro.lang.ast.value.Option;
 import gyro.lang.ast.value.ReferenceNode;
+import gyro.lang.ast.value.ValueNode;
 
 @Type("external-query")
 public class FinderReferenceResolver extends ReferenceResolver {
 
-    private static final Map<String, List<Resource>> QUERY_CACHE = new HashMap<>();
+    private static final QueryCache<List<Resource>> QUERY_CACHE = new QueryCache<>(1000, 10, TimeUnit.MINUTES);
 
     @Override
     public Object resolve(ReferenceNode node, Scope scope) {
@@ -51,22 +67,183 @@ public class FinderReferenceResolver extends ReferenceResolver {
         String credentials = getOptionArgument(scope, node, "credentials", String.class, 0);
 
         boolean cache = Optional.ofNullable(getOptionArgument(scope, node, "cache", Boolean.class, 0)).orElse(true);
-        String cacheKey = StringUtils.join(Arrays.asList(ObjectUtils.toJson(arguments), credentials), " ");
+        String cacheKey = getCacheKey(arguments, credentials);
+        String type = (String) arguments.remove(0);
 
-        List<Resource> resources = null;
-        if (cache) {
-            resources = QUERY_CACHE.get(cacheKey);
+        List<Resource> resources = cache
+            ? QUERY_CACHE.get(type, cacheKey, () -> find(type, arguments, credentials, scope))
+            : find(type, arguments, credentials, scope);
+
+        resources.forEach(r -> DiffableInternals.update(r));
+
+        return resources;
+    }
+
+    /**
+     * Runs the external queries in the given {@code nodes} whose arguments
+     * are all literals ahead of the evaluation, so that the ones for the same
+     * type can be looked up together using {@link Finder#findBatch(List)}.
+     *
+     * <p>Only the queries outside of directives are run, since the ones in
+     * {@code @if}, {@code @for} or {@code @workflow} may never be evaluated.
+     * A group is only sent if there are more queries than
+     * {@link Finder#getBatchThreshold()}. Finders that don't override
+     * {@link Finder#findBatch(List)} then answer the whole group with one
+     * {@link Finder#findAll()} when the filters can be matched locally.</p>
+     *
+     * <p>Any failure is ignored here since the queries are resolved again,
+     * with the proper error location, during the evaluation.</p>
+     */
+    public static void prefetch(RootScope root, List<Node> nodes) {
+        String resolverType = Reflections.getType(FinderReferenceResolver.class);
+
+        if (!(root.getSettings(ReferenceSettings.class).getResolver(resolverType) instanceof FinderReferenceResolver)) {
+            return;
+        }
+
+        List<ReferenceNode> references = new ArrayList<>();
+
+        nodes.forEach(n -> findQueries(n, resolverType, references));
+
+        // Type and credentials to cache key to filters.
+        Map<List<String>, Map<String, Map<String, Object>>> batches = new LinkedHashMap<>();
+
+        for (ReferenceNode reference : references) {
+            try {
+                validateArguments(reference, 2, 2);
+
+                if (Boolean.FALSE.equals(getOptionArgument(root, reference, "cache", Boolean.class, 0))) {
+                    continue;
+                }
+
+                List<Object> arguments = getArguments(root, reference, Object.class);
+                String credentials = getOptionArgument(root, reference, "credentials", String.class, 0);
+                String cacheKey = getCacheKey(arguments, credentials);
+                String type = (String) arguments.get(0);
+
+                @SuppressWarnings("unchecked")
+                Map<String, Object> filters = (Map<String, Object>) arguments.get(1);
+
+                if (!filters.isEmpty()) {
+                    batches.computeIfAbsent(Arrays.asList(type, credentials), k -> new LinkedHashMap<>())
+                        .put(cacheKey, filters);
+                }
+
+            } catch (RuntimeException error) {
+                // Resolved during the evaluation instead.
+            }
+        }
+
+        for (Map.Entry<List<String>, Map<String, Map<String, Object>>> entry : batches.entrySet()) {
+            Map<String, Map<String, Object>> batch = entry.getValue();
+
+            // Nothing to coalesce.
+            if (batch.size() < 2) {
+                continue;
+            }
+
+            String type = entry.getKey().get(0);
+
+            try {
+                FinderType<? extends Finder<Resource>> finderType = getFinderType(root, type);
+                Finder<Resource> finder = newFinder(finderType, entry.getKey().get(1), root);
+
+                if (batch.size() <= finder.getBatchThreshold()) {
+                    continue;
+                }
+
+                List<String> cacheKeys = new ArrayList<>(batch.keySet());
+
+                List<List<Resource>> results = finder.findBatch(batch.values()
+                    .stream()
+                    .map(f -> getTranslatedFilters(f, finderType))
+                    .collect(Collectors.toList()));
+
+                for (int i = 0, size = cacheKeys.size(); i < size; ++i) {
+                    QUERY_CACHE.put(type, cacheKeys.get(i), results.get(i));
+                }
+
+            } catch (RuntimeException error) {
+                // Resolved during the evaluation instead.
+            }
         }
+    }
 
-        if (resources != null) {
-            resources.forEach(r -> DiffableInternals.update(r));
-            return resources;
+    private static void findQueries(Node node, String resolverType, List<ReferenceNode> references) {
+        if (node instanceof ReferenceNode && isLiteralQuery((ReferenceNode) node, resolverType)) {
+            references.add((ReferenceNode) node);
+            return;
         }
 
-        String type = (String) arguments.remove(0);
+        if (node instanceof OptionArgumentNode) {
+            ((OptionArgumentNode) node).getArguments().forEach(n -> findQueries(n, resolverType, references));
+        }
 
-        RootScope rootScope = scope.getRootScope();
+        // Directives can skip or repeat their bodies, e.g. @if and @for, or
+        // evaluate them later, e.g. @workflow.
+        if (node instanceof DirectiveNode) {
+            return;
 
+        } else if (node instanceof BlockNode) {
+            ((BlockNode) node).getBody().forEach(n -> findQueries(n, resolverType, references));
+
+        } else if (node instanceof PairNode) {
+            findQueries(((PairNode) node).getValue(), resolverType, references);
+
+        } else if (node instanceof ListNode) {
+            ((ListNode) node).getItems().forEach(n -> findQueries(n, resolverType, references));
+
+        } else if (node instanceof MapNode) {
+            ((MapNode) node).getEntries().forEach(n -> findQueries(n, resolverType, references));
+
+        } else if (node instanceof BinaryNode) {
+            findQueries(((BinaryNode) node).getLeft(), resolverType, references);
+            findQueries(((BinaryNode) node).getRight(), resolverType, references);
+
+        } else if (node instanceof IndexedNode) {
+            findQueries(((IndexedNode) node).getValue(), resolverType, references);
+
+        } else if (node instanceof InterpolatedStringNode) {
+            ((InterpolatedStringNode) node).getItems().forEach(n -> findQueries(n, resolverType, references));
+        }
+    }
+
+    private static boolean isLiteralQuery(ReferenceNode reference, String resolverType) {
+        List<Node> arguments = reference.getArguments();
+
+        return !arguments.isEmpty()
+            && arguments.get(0) instanceof ValueNode
+            && resolverType.equals(((ValueNode) arguments.get(0)).getValue())
+            && arguments.stream().allMatch(FinderReferenceResolver::isLiteral)
+            && reference.getOptions()
+                .stream()
+                .map(Option::getArguments)
+                .flatMap(List::stream)
+                .allMatch(FinderReferenceResolver::isLiteral);
+    }
+
+    private static boolean isLiteral(Node node) {
+        if (node instanceof ValueNode) {
+            return true;
+
+        } else if (node instanceof ListNode) {
+            return ((ListNode) node).getItems().stream().allMatch(FinderReferenceResolver::isLiteral);
+
+        } else if (node instanceof MapNode) {
+            return ((MapNode) node).getEntries()
+                .stream()
+                .allMatch(e -> isLiteral(e.getKey()) && isLiteral(e.getValue()));
+
+        } else {
+            return false;
+        }
+    }
+
+    private static String getCacheKey(List<Object> arguments, String credentials) {
+        return StringUtils.join(Arrays.asList(ObjectUtils.toJson(arguments), credentials), " ");
+    }
+
+    private static FinderType<? extends Finder<Resource>> getFinderType(RootScope rootScope, String type) {
         Class<? extends Finder<Resource>> finderClass = rootScope
             .getSettings(FinderSettings.class)
             .getFinderClasses()
@@ -78,14 +255,30 @@ public class FinderReferenceResolver extends ReferenceResolver {
                 type));
         }
 
-        FinderType<? extends Finder<Resource>> finderType = FinderType.getInstance(finderClass);
+        return FinderType.getInstance(finderClass);
+    }
+
+    private static Finder<Resource> newFinder(
+        FinderType<? extends Finder<Resource>> finderType,
+        String credentials,
+        Scope scope) {
+
+        RootScope rootScope = scope.getRootScope();
         Finder<Resource> finder =
             finderType.newInstance(rootScope.getCurrent() != null ? rootScope.getCurrent() : scope);
         Optional.ofNullable(credentials).ifPresent(finder::setCredentials);
 
+        return finder;
+    }
+
+    private List<Resource> find(String type, List<Object> arguments, String credentials, Scope scope) {
+        FinderType<? extends Finder<Resource>> finderType = getFinderType(scope.getRootScope(), type);
+        Finder<Resource> finder = newFinder(finderType, credentials, scope);
+        List<Resource> resources = null;
+
         if (!arguments.isEmpty()) {
             @SuppressWarnings("unchecked")
-            Map<String, Object> filters = (Map<String, Object>) arguments.remove(0);
+            Map<String, Object> filters = (Map<String, Object>) arguments.get(0);
 
             if (!filters.isEmpty()) {
                 filters = getTranslatedFilters(filters, finderType);
@@ -97,17 +290,11 @@ public class FinderReferenceResolver extends ReferenceResolver {
             resources = finder.findAll();
         }
 
-        resources.forEach(r -> DiffableInternals.update(r));
-
-        if (cache) {
-            QUERY_CACHE.put(cacheKey, resources);
-        }
-
         return resources;
     }
 
     // Translates the filter keys from the query into custom key names If @Filter() annotation present on the key in its finder implementation.
-    private Map<String, Object> getTranslatedFilters(
+    private static Map<String, Object> getTranslatedFilters(
         Map<String, Object> argumentFilters,
         FinderType<? extends Finder<Resource>> finderType) {
         Map<String, String> fieldNameMap = finderType.getFields()
@@ -124,7 +311,19 @@ public class FinderReferenceResolver extends ReferenceResolver {
         return filter;
     }
 
+    public static QueryCache<List<Resource>> getQueryCache() {
+        return QUERY_CACHE;
+    }
+
     public static void bustCache() {
-        QUERY_CACHE.clear();
+        QUERY_CACHE.bustAll();
+    }
+
+    /**
+     * Removes the cached queries for the given {@code type}, for example,
+     * after resources of that type were changed.
+     */
+    public static void bustCache(String type) {
+        QUERY_CACHE.bust(type);
     }
 }
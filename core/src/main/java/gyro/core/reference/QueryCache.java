@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.reference;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import gyro.core.GyroException;
+
+/**
+ * Thread-safe cache of query results that holds at most the given number of
+ * entries, evicting the least recently used ones first, and expires them
+ * after the given time to live.
+ *
+ * <p>Concurrent lookups of the same query share a single load. Entries are
+ * grouped by type so that they can be busted selectively after resources of
+ * that type change.</p>
+ */
+public class QueryCache<V> {
+
+    private final int maximumSize;
+    private final long timeToLive;
+
+    // Guarded by this.
+    private final Map<Key, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loadTime = new AtomicLong();
+
+    public QueryCache(int maximumSize, long timeToLive, TimeUnit unit) {
+        this.maximumSize = maximumSize;
+        this.timeToLive = unit.toNanos(timeToLive);
+
+        this.entries = new LinkedHashMap<Key, Entry<V>>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry<V>> eldest) {
+                return size() > QueryCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result of the given {@code query} for the given
+     * {@code type}, or loads it using the given {@code loader} if it's
+     * missing or expired.
+     */
+    public V get(String type, String query, Supplier<V> loader) {
+        Key key = new Key(type, query);
+        Entry<V> entry;
+        boolean load = false;
+
+        synchronized (this) {
+            entry = entries.get(key);
+
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                entry = null;
+            }
+
+            if (entry == null) {
+                entry = new Entry<>();
+                load = true;
+
+                entries.put(key, entry);
+            }
+        }
+
+        if (!load) {
+            hits.incrementAndGet();
+
+            try {
+                return entry.result.join();
+
+            } catch (CompletionException error) {
+                Throwable cause = error.getCause();
+
+                throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new GyroException(cause);
+            }
+        }
+
+        misses.incrementAndGet();
+
+        long start = System.nanoTime();
+
+        try {
+            V value = loader.get();
+
+            entry.expiresAt = System.nanoTime() + timeToLive;
+            entry.result.complete(value);
+            return value;
+
+        } catch (RuntimeException | Error error) {
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+
+            entry.result.completeExceptionally(error);
+            throw error;
+
+        } finally {
+            loadTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stores the given {@code value} as the result of the given
+     * {@code query}, unless it's already cached or being loaded.
+     */
+    public void put(String type, String query, V value) {
+        Key key = new Key(type, query);
+
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+
+            if (entry == null || entry.isExpired(System.nanoTime())) {
+                entry = new Entry<>();
+                entry.expiresAt = System.nanoTime() + timeToLive;
+
+                entry.result.complete(value);
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries for the given {@code type}.
+     */
+    public synchronized void bust(String type) {
+        entries.keySet().removeIf(k -> k.type.equals(type));
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void bustAll() {
+        entries.clear();
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Total time spent loading the missing entries in milliseconds.
+     */
+    public long getLoadTime() {
+        return TimeUnit.NANOSECONDS.toMillis(loadTime.get());
+    }
+
+    private static class Key {
+
+        public final String type;
+        public final String query;
+
+        public Key(String type, String query) {
+            this.type = type;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key otherKey = (Key) other;
+
+            return type.equals(otherKey.type) && query.equals(otherKey.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, query);
+        }
+    }
+
+    private static class Entry<V> {
+
+        public final CompletableFuture<V> result = new CompletableFuture<>();
+
+        // Only set once the result is loaded so that loads never expire.
+        public volatile long expiresAt;
+
+        public boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt > 0;
+        }
+    }
+
+}
@@ -16,11 +16,19 @@
 
 package gyro.core.reference;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.plugin.Plugin;
 import gyro.core.scope.RootScope;
 
 public class ReferencePlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(ReferenceResolver.class);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void onEachClass(RootScope root, Class<?> aClass) {
@@ -60,7 +60,9 @@ public class DiffableField {
     private final String name;
     private Object rawValue;
     private final Method getter;
-    private final Method setter;
+    private final FieldAccessor accessor;
+    private final Type setterType;
+    private final boolean setterCollection;
     private final boolean updatable;
     private final boolean calculated;
     private final boolean immutable;
@@ -72,7 +74,9 @@ public class DiffableField {
     protected DiffableField(String javaName, Method getter, Method setter, Type type) {
         this.name = CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_HYPHEN, javaName);
         this.getter = getter;
-        this.setter = setter;
+        this.accessor = FieldAccessor.create(name, getter, setter);
+        this.setterType = setter.getGenericParameterTypes()[0];
+        this.setterCollection = Collection.class.isAssignableFrom(setter.getParameterTypes()[0]);
         this.updatable = isAnnotationPresent(getter, Updatable.class);
         this.calculated = isAnnotationPresent(getter, Calculated.class);
         this.immutable = isAnnotationPresent(getter, Immutable.class);
@@ -105,7 +109,9 @@ public class DiffableField {
         name = field.name;
         rawValue = field.rawValue;
         getter = field.getter;
-        setter = field.setter;
+        accessor = field.accessor;
+        setterType = field.setterType;
+        setterCollection = field.setterCollection;
         updatable = field.updatable;
         calculated = field.calculated;
         immutable = field.immutable;
@@ -154,16 +160,14 @@ public class DiffableField {
     }
 
     public Object getValue(Diffable diffable) {
-        return Reflections.invoke(getter, diffable);
+        return accessor.get(diffable);
     }
 
     public void setValue(Diffable diffable, Object value) {
         Scope scope = diffable.scope;
-        Type type = setter.getGenericParameterTypes()[0];
 
         try {
-            if (value instanceof Collection
-                && !Collection.class.isAssignableFrom(setter.getParameterTypes()[0])) {
+            if (value instanceof Collection && !setterCollection) {
 
                 value = ((Collection<?>) value).stream()
                     .filter(Objects::nonNull)
@@ -172,7 +176,7 @@ public class DiffableField {
             }
 
             rawValue = value;
-            Reflections.invoke(setter, diffable, scope.getRootScope().convertValue(type, value));
+            accessor.set(diffable, scope.getRootScope().convertValue(setterType, value));
 
         } catch (ConversionException error) {
             throw new GyroException(
@@ -181,7 +185,7 @@ public class DiffableField {
                     "Can't set @|bold %s|@ to @|bold %s|@ because it can't be converted to an instance of @|bold %s|@!",
                     name,
                     value,
-                    type.getTypeName()));
+                    setterType.getTypeName()));
         }
     }
 
@@ -216,11 +220,10 @@ public class DiffableField {
 
             if (validatorClass != null) {
                 Validator<Annotation> validator = VALIDATORS.getUnchecked(validatorClass.value());
-                Type type = setter.getGenericParameterTypes()[0];
                 Object valueToTest = value;
 
                 if ((annotation.annotationType().equals(ValidStrings.class) || annotation.annotationType()
-                    .equals(Required.class)) && type instanceof Class && ((Class<?>) type).isEnum()) {
+                    .equals(Required.class)) && setterType instanceof Class && ((Class<?>) setterType).isEnum()) {
                     valueToTest = rawValue;
                 }
 
@@ -156,19 +156,17 @@ public final class DiffableInternals {
     }
 
     private static void disconnectChildren(Diffable diffable) {
-        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
-            if (field.shouldBeDiffed()) {
-                Object value = field.getValue(diffable);
-
-                (value instanceof Collection ? ((Collection<?>) value).stream() : Stream.of(value))
-                    .filter(Diffable.class::isInstance)
-                    .map(Diffable.class::cast)
-                    .forEach(d -> {
-                        d.scope = new DiffableScope(diffable.scope, null);
-
-                        disconnectChildren(d);
-                    });
-            }
+        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getDiffedFields()) {
+            Object value = field.getValue(diffable);
+
+            (value instanceof Collection ? ((Collection<?>) value).stream() : Stream.of(value))
+                .filter(Diffable.class::isInstance)
+                .map(Diffable.class::cast)
+                .forEach(d -> {
+                    d.scope = new DiffableScope(diffable.scope, null);
+
+                    disconnectChildren(d);
+                });
         }
     }
 
@@ -182,21 +180,19 @@ public final class DiffableInternals {
     }
 
     private static void updateChildren(Diffable diffable) {
-        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
-            if (field.shouldBeDiffed()) {
-                String fieldName = field.getName();
-                Object value = field.getValue(diffable);
-
-                (value instanceof Collection ? ((Collection<?>) value).stream() : Stream.of(value))
-                    .filter(Diffable.class::isInstance)
-                    .map(Diffable.class::cast)
-                    .forEach(d -> {
-                        d.parent = diffable;
-                        d.name = fieldName;
-
-                        updateChildren(d);
-                    });
-            }
+        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getDiffedFields()) {
+            String fieldName = field.getName();
+            Object value = field.getValue(diffable);
+
+            (value instanceof Collection ? ((Collection<?>) value).stream() : Stream.of(value))
+                .filter(Diffable.class::isInstance)
+                .map(Diffable.class::cast)
+                .forEach(d -> {
+                    d.parent = diffable;
+                    d.name = fieldName;
+
+                    updateChildren(d);
+                });
         }
     }
 }
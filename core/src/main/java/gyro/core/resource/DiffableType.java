@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import gyro.core.GyroException;
 import gyro.core.Reflections;
 import gyro.core.auth.CredentialsSettings;
@@ -65,6 +67,7 @@ public class DiffableType<D extends Diffable> {
     private final List<DiffableField> fields;
     private final Set<Class<? extends Modification<D>>> modificationClasses = new HashSet<>();
     private final List<ModificationField> modificationFields = new ArrayList<>();
+    private volatile FieldTable fieldTable;
 
     @SuppressWarnings("unchecked")
     public static <T extends Diffable> DiffableType<T> getInstance(Class<T> diffableClass) {
@@ -119,6 +122,7 @@ public class DiffableType<D extends Diffable> {
 
         this.idField = idField;
         this.fields = fields.build();
+        this.fieldTable = new FieldTable(this.fields);
     }
 
     public boolean isRoot() {
@@ -134,22 +138,19 @@ public class DiffableType<D extends Diffable> {
     }
 
     public List<DiffableField> getFields() {
-        ImmutableList.Builder<DiffableField> fields = ImmutableList.builder();
-
-        fields.addAll(this.fields);
-        fields.addAll(this.modificationFields);
+        return fieldTable.fields;
+    }
 
-        return fields.build();
+    /**
+     * @return Never {@code null}. The fields that contain nested diffables,
+     * in the same order as {@link #getFields()}.
+     */
+    public List<DiffableField> getDiffedFields() {
+        return fieldTable.getDiffedFields();
     }
 
     public DiffableField getField(String name) {
-        for (DiffableField field : getFields()) {
-            if (field.getName().equals(name)) {
-                return field;
-            }
-        }
-
-        return null;
+        return fieldTable.fieldsByName.get(name);
     }
 
     public D newExternal(RootScope root, Object id) {
@@ -272,7 +273,7 @@ public class DiffableType<D extends Diffable> {
         return errors;
     }
 
-    void modify(Class<? extends Modification<D>> modificationClass) {
+    synchronized void modify(Class<? extends Modification<D>> modificationClass) {
         if (modificationClasses.add(modificationClass)) {
             DiffableType<? extends Modification<D>> modificationType = DiffableType.getInstance(modificationClass);
 
@@ -282,6 +283,11 @@ public class DiffableType<D extends Diffable> {
                     .map(ModificationField::new)
                     .collect(Collectors.toSet())
             );
+
+            fieldTable = new FieldTable(ImmutableList.<DiffableField>builder()
+                .addAll(fields)
+                .addAll(modificationFields)
+                .build());
         }
     }
 
@@ -322,4 +328,41 @@ public class DiffableType<D extends Diffable> {
         }
     }
 
+    // Rebuilt as a whole whenever a modification adds fields, so that
+    // readers never see a partial update.
+    private static class FieldTable {
+
+        private final List<DiffableField> fields;
+        private final Map<String, DiffableField> fieldsByName;
+        private volatile List<DiffableField> diffedFields;
+
+        public FieldTable(List<DiffableField> fields) {
+            Map<String, DiffableField> fieldsByName = new LinkedHashMap<>();
+
+            for (DiffableField field : fields) {
+                fieldsByName.putIfAbsent(field.getName(), field);
+            }
+
+            this.fields = fields;
+            this.fieldsByName = ImmutableMap.copyOf(fieldsByName);
+        }
+
+        // Computed on first use instead of in the constructor, because
+        // checking a field requires the DiffableType of its item class,
+        // which may be the type that is being created.
+        public List<DiffableField> getDiffedFields() {
+            List<DiffableField> diffed = diffedFields;
+
+            if (diffed == null) {
+                diffed = ImmutableList.copyOf(fields.stream()
+                    .filter(DiffableField::shouldBeDiffed)
+                    .collect(Collectors.toList()));
+
+                diffedFields = diffed;
+            }
+
+            return diffed;
+        }
+    }
+
 }
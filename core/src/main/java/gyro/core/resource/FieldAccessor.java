@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import gyro.core.GyroException;
+import gyro.util.Bug;
+
+/**
+ * Calls a getter and a setter without going through reflection on every
+ * call. Both are bound once, to lambdas generated by {@link LambdaMetafactory}
+ * when possible and to {@link MethodHandle}s otherwise, such as for classes
+ * loaded by a plugin class loader that can't be seen from here.
+ */
+abstract class FieldAccessor {
+
+    private final String name;
+
+    /**
+     * @param name Field name used in the errors thrown by the getter or the
+     * setter.
+     */
+    public static FieldAccessor create(String name, Method getter, Method setter) {
+        if (isLinkable(getter) && isLinkable(setter)) {
+            try {
+                return new LambdaFieldAccessor(name, getter, setter);
+
+            } catch (Throwable error) {
+                // Fall back to the method handles below.
+            }
+        }
+
+        return new HandleFieldAccessor(name, getter, setter);
+    }
+
+    protected FieldAccessor(String name) {
+        this.name = name;
+    }
+
+    // Generated lambdas resolve classes through the class loader of this
+    // class, so everything they touch must be public and visible from it.
+    private static boolean isLinkable(Method method) {
+        if (!Modifier.isPublic(method.getModifiers())) {
+            return false;
+        }
+
+        Class<?> declaringClass = method.getDeclaringClass();
+
+        if (!isVisible(declaringClass)) {
+            return false;
+        }
+
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isVisible(parameterType)) {
+                return false;
+            }
+        }
+
+        return isVisible(method.getReturnType());
+    }
+
+    private static boolean isVisible(Class<?> aClass) {
+        while (aClass.isArray()) {
+            aClass = aClass.getComponentType();
+        }
+
+        if (aClass.isPrimitive()) {
+            return true;
+        }
+
+        if (!Modifier.isPublic(aClass.getModifiers())) {
+            return false;
+        }
+
+        try {
+            return Class.forName(aClass.getName(), false, FieldAccessor.class.getClassLoader()) == aClass;
+
+        } catch (ClassNotFoundException error) {
+            return false;
+        }
+    }
+
+    // Same as Reflections#invoke, but checked exceptions name the field.
+    protected RuntimeException rethrow(Throwable error, String action, Object object) {
+        if (error instanceof RuntimeException) {
+            return (RuntimeException) error;
+
+        } else if (error instanceof Error) {
+            throw (Error) error;
+
+        } else {
+            return new GyroException(
+                String.format(
+                    "Can't %s @|bold %s|@ on @|bold %s|@!",
+                    action,
+                    name,
+                    object.getClass().getName()),
+                error);
+        }
+    }
+
+    public abstract Object get(Object object);
+
+    public abstract void set(Object object, Object value);
+
+    private static class LambdaFieldAccessor extends FieldAccessor {
+
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+
+        @SuppressWarnings("unchecked")
+        public LambdaFieldAccessor(String name, Method getter, Method setter) throws Throwable {
+            super(name);
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle getterHandle = lookup.unreflect(getter);
+            MethodHandle setterHandle = lookup.unreflect(setter);
+
+            CallSite getterSite = LambdaMetafactory.metafactory(
+                lookup,
+                "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                getterHandle,
+                getterHandle.type().wrap());
+
+            CallSite setterSite = LambdaMetafactory.metafactory(
+                lookup,
+                "accept",
+                MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class),
+                setterHandle,
+                setterHandle.type().wrap().changeReturnType(void.class));
+
+            this.getter = (Function<Object, Object>) getterSite.getTarget().invoke();
+            this.setter = (BiConsumer<Object, Object>) setterSite.getTarget().invoke();
+        }
+
+        @Override
+        public Object get(Object object) {
+            try {
+                return getter.apply(object);
+
+            } catch (Exception error) {
+                throw rethrow(error, "get", object);
+            }
+        }
+
+        @Override
+        public void set(Object object, Object value) {
+            try {
+                setter.accept(object, value);
+
+            } catch (Exception error) {
+                throw rethrow(error, "set", object);
+            }
+        }
+    }
+
+    private static class HandleFieldAccessor extends FieldAccessor {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        public HandleFieldAccessor(String name, Method getter, Method setter) {
+            super(name);
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            getter.setAccessible(true);
+            setter.setAccessible(true);
+
+            try {
+                this.getter = lookup.unreflect(getter)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+
+                this.setter = lookup.unreflect(setter)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+            } catch (IllegalAccessException error) {
+                throw new Bug(error);
+            }
+        }
+
+        @Override
+        public Object get(Object object) {
+            try {
+                return getter.invokeExact(object);
+
+            } catch (Throwable error) {
+                throw rethrow(error, "get", object);
+            }
+        }
+
+        @Override
+        public void set(Object object, Object value) {
+            try {
+                setter.invokeExact(object, value);
+
+            } catch (Throwable error) {
+                throw rethrow(error, "set", object);
+            }
+        }
+    }
+
+}
@@ -16,12 +16,20 @@
 
 package gyro.core.resource;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.plugin.Plugin;
 import gyro.core.scope.RootScope;
 import net.jodah.typetools.TypeResolver;
 
 public class ModificationPlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(Modification.class);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void onEachClass(RootScope root, Class<?> aClass) {
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.psddev.dari.util.ObjectUtils;
+import gyro.core.GyroException;
+import gyro.core.Type;
+import gyro.core.directive.DirectiveProcessor;
+import gyro.core.scope.RootScope;
+import gyro.core.scope.Scope;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.block.DirectiveNode;
+
+@Type("refresh")
+public class RefreshDirectiveProcessor extends DirectiveProcessor<RootScope> {
+
+    private static final Set<String> OPTIONS = ImmutableSet.of("burst", "concurrency", "limits", "rate", "retries");
+
+    @Override
+    public void process(RootScope scope, DirectiveNode node) {
+        validateArguments(node, 0, 0);
+
+        Scope bodyScope = evaluateBody(scope, node);
+        RefreshSettings settings = scope.getSettings(RefreshSettings.class);
+
+        for (String key : bodyScope.keySet()) {
+            if (!OPTIONS.contains(key)) {
+                Node location = bodyScope.getLocation(key);
+
+                throw new GyroException(
+                    location != null ? location : node,
+                    String.format("@|bold %s|@ isn't a valid option in @|bold @refresh|@!", key));
+            }
+        }
+
+        if (bodyScope.containsKey("concurrency")) {
+            settings.setConcurrency(toPositive(node, bodyScope, "concurrency"));
+        }
+
+        if (bodyScope.containsKey("rate")) {
+            Double rate = ObjectUtils.to(Double.class, bodyScope.get("rate"));
+
+            if (rate == null || rate <= 0) {
+                throw new GyroException(node, "@|bold rate|@ must be greater than 0 in @|bold @refresh|@!");
+            }
+
+            settings.setRate(rate);
+        }
+
+        if (bodyScope.containsKey("burst")) {
+            settings.setBurst(toPositive(node, bodyScope, "burst"));
+        }
+
+        if (bodyScope.containsKey("retries")) {
+            Integer retries = ObjectUtils.to(Integer.class, bodyScope.get("retries"));
+
+            if (retries == null || retries < 0) {
+                throw new GyroException(node, "@|bold retries|@ can't be negative in @|bold @refresh|@!");
+            }
+
+            settings.setRetries(retries);
+        }
+
+        Object limits = bodyScope.get("limits");
+
+        if (limits instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) limits).entrySet()) {
+                Integer limit = ObjectUtils.to(Integer.class, entry.getValue());
+
+                if (limit == null || limit < 1) {
+                    throw new GyroException(node, String.format(
+                        "Limit for @|bold %s|@ must be at least 1 in @|bold @refresh|@!",
+                        entry.getKey()));
+                }
+
+                settings.getLimits().put(entry.getKey().toString(), limit);
+            }
+
+        } else if (limits != null) {
+            throw new GyroException(node, "@|bold limits|@ must be a map in @|bold @refresh|@!");
+        }
+    }
+
+    private int toPositive(DirectiveNode node, Scope bodyScope, String key) {
+        Integer value = ObjectUtils.to(Integer.class, bodyScope.get(key));
+
+        if (value == null || value < 1) {
+            throw new GyroException(node, String.format("@|bold %s|@ must be at least 1 in @|bold @refresh|@!", key));
+        }
+
+        return value;
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+import gyro.core.DaemonThreadFactory;
+
+/**
+ * Runs resource refreshes on one bounded pool shared by all types.
+ *
+ * <p>At most {@link RefreshSettings#getConcurrency()} refreshes run at the
+ * same time, further limited per namespace or type by
+ * {@link RefreshSettings#getLimits()}. Waiting refreshes are started in the
+ * order they were submitted, taking turns between the types so that one
+ * large type doesn't hold up the others. If {@link RefreshSettings#getRate()}
+ * is set, refreshes are also rate limited with a token bucket.
+ *
+ * <p>A refresh that fails because the cloud provider throttled it, as
+ * decided by {@link Resource#isThrottled(Throwable)}, is retried up to
+ * {@link RefreshSettings#getRetries()} times with exponential backoff and
+ * jitter. It gives up its slot while waiting to be retried.
+ *
+ * <p>{@link Resource#batchRefresh(java.util.List)} implementations can get
+ * the scheduler through {@link Resource#refreshScheduler()}.
+ */
+public class RefreshScheduler {
+
+    private static final long MIN_RETRY_DELAY = 500L;
+    private static final long MAX_RETRY_DELAY = 30000L;
+
+    private final int concurrency;
+    private final Map<String, Integer> limits;
+    private final int retries;
+    private final TokenBucket bucket;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledThreadPoolExecutor timer;
+
+    // Guarded by this.
+    private final Map<String, Deque<Task<?>>> queues = new LinkedHashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    private int runningTotal;
+
+    public RefreshScheduler(RefreshSettings settings) {
+        this.concurrency = settings.getConcurrency();
+        this.limits = ImmutableMap.copyOf(settings.getLimits());
+        this.retries = settings.getRetries();
+
+        this.bucket = settings.getRate() != null
+            ? new TokenBucket(settings.getRate(), settings.getBurst())
+            : null;
+
+        this.workers = new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            1L,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new DaemonThreadFactory("gyro-refresh-"));
+
+        this.workers.allowCoreThreadTimeOut(true);
+
+        this.timer = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("gyro-refresh-retry-"));
+
+        this.timer.setKeepAliveTime(1L, TimeUnit.MINUTES);
+        this.timer.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Refreshes the given {@code resource}.
+     *
+     * @return Never {@code null}. Result of {@link Resource#refresh()}.
+     */
+    public Future<Boolean> submit(Resource resource) {
+        return submit(resource, resource::refresh);
+    }
+
+    /**
+     * Runs the given {@code task}, such as a call that refreshes many
+     * resources at once, under the limits of the given {@code resource}'s
+     * type.
+     *
+     * @return Never {@code null}. Result of the task.
+     */
+    public <T> Future<T> submit(Resource resource, Callable<T> task) {
+        String type = DiffableType.getInstance(resource).getName();
+        Task<T> t = new Task<>(resource, type, task);
+
+        synchronized (this) {
+            queues.computeIfAbsent(type, k -> new ArrayDeque<>()).addLast(t);
+            dispatch();
+        }
+
+        return t.result;
+    }
+
+    /**
+     * @return Number of refreshes that are running right now.
+     */
+    public synchronized int getRunning() {
+        return runningTotal;
+    }
+
+    // Starts as many waiting tasks as the limits allow, taking at most one
+    // from each type per pass.
+    private synchronized void dispatch() {
+        boolean started = true;
+
+        while (started && runningTotal < concurrency) {
+            started = false;
+
+            for (Iterator<Deque<Task<?>>> i = queues.values().iterator(); i.hasNext() && runningTotal < concurrency; ) {
+                Deque<Task<?>> queue = i.next();
+                Task<?> task = queue.peekFirst();
+
+                if (task == null) {
+                    i.remove();
+                    continue;
+                }
+
+                // Cancelled while waiting.
+                if (task.result.isDone()) {
+                    queue.removeFirst();
+                    started = true;
+                    continue;
+                }
+
+                if (!isAvailable(task.type) || !isAvailable(task.namespace)) {
+                    continue;
+                }
+
+                queue.removeFirst();
+                increment(task.type, 1);
+                increment(task.namespace, 1);
+                ++runningTotal;
+                workers.execute(task);
+                started = true;
+            }
+        }
+    }
+
+    private boolean isAvailable(String key) {
+        Integer limit = limits.get(key);
+
+        return limit == null || running.getOrDefault(key, 0) < limit;
+    }
+
+    private void increment(String key, int delta) {
+        running.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private synchronized void finish(Task<?> task, boolean retry) {
+        increment(task.type, -1);
+        increment(task.namespace, -1);
+        --runningTotal;
+
+        if (retry) {
+            long delay = Math.min(MAX_RETRY_DELAY, MIN_RETRY_DELAY << Math.min(task.attempts, 16));
+
+            delay = ThreadLocalRandom.current().nextLong(delay / 2, delay + 1);
+
+            timer.schedule(() -> retry(task), delay, TimeUnit.MILLISECONDS);
+        }
+
+        dispatch();
+    }
+
+    private synchronized void retry(Task<?> task) {
+        queues.computeIfAbsent(task.type, k -> new ArrayDeque<>()).addFirst(task);
+        dispatch();
+    }
+
+    private class Task<T> implements Runnable {
+
+        public final Resource resource;
+        public final String type;
+        public final String namespace;
+        public final Callable<T> callable;
+        public final CompletableFuture<T> result = new CompletableFuture<>();
+        public int attempts;
+
+        public Task(Resource resource, String type, Callable<T> callable) {
+            this.resource = resource;
+            this.type = type;
+            this.namespace = type.contains("::") ? type.substring(0, type.indexOf("::")) : type;
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            boolean retry = false;
+            boolean called = false;
+            T value = null;
+            Throwable failure = null;
+
+            try {
+                if (!result.isDone()) {
+                    if (bucket != null) {
+                        bucket.acquire();
+                    }
+
+                    value = callable.call();
+                    called = true;
+                }
+
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+                failure = error;
+
+            } catch (Throwable error) {
+                if (attempts < retries && resource.isThrottled(error)) {
+                    ++attempts;
+                    retry = true;
+
+                } else {
+                    failure = error;
+                }
+
+            } finally {
+                finish(this, retry);
+            }
+
+            // Completed only after giving up the slot so that the refresh
+            // isn't counted as running anymore once its result is available.
+            if (failure != null) {
+                result.completeExceptionally(failure);
+
+            } else if (called) {
+                result.complete(value);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import gyro.core.scope.Settings;
+
+public class RefreshSettings extends Settings {
+
+    // Refreshes mostly wait on the cloud provider, so this is sized for I/O
+    // instead of the number of processors.
+    private static final int DEFAULT_CONCURRENCY = 32;
+
+    private Integer concurrency;
+    private Map<String, Integer> limits;
+    private Double rate;
+    private Integer burst;
+    private Integer retries;
+    private RefreshScheduler scheduler;
+
+    /**
+     * @return Maximum number of refreshes to run at the same time across all
+     * types. Defaults to {@code 32}.
+     */
+    public int getConcurrency() {
+        return concurrency != null ? concurrency : DEFAULT_CONCURRENCY;
+    }
+
+    public void setConcurrency(Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @return Never {@code null}. Maximum number of refreshes to run at the
+     * same time, keyed by either a namespace, such as {@code aws}, or a type,
+     * such as {@code aws::instance}.
+     */
+    public Map<String, Integer> getLimits() {
+        if (limits == null) {
+            limits = new LinkedHashMap<>();
+        }
+
+        return limits;
+    }
+
+    public void setLimits(Map<String, Integer> limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * @return Maximum number of refreshes to start per second, or
+     * {@code null} for no limit.
+     */
+    public Double getRate() {
+        return rate;
+    }
+
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * @return Number of refreshes that can start at once before
+     * {@link #getRate()} applies. Defaults to the rate.
+     */
+    public int getBurst() {
+        if (burst != null) {
+            return burst;
+        }
+
+        return rate != null ? (int) Math.max(1, Math.ceil(rate)) : 1;
+    }
+
+    public void setBurst(Integer burst) {
+        this.burst = burst;
+    }
+
+    /**
+     * @return Number of times to retry a refresh that was throttled by the
+     * cloud provider. Defaults to {@code 3}.
+     */
+    public int getRetries() {
+        return retries != null ? retries : 3;
+    }
+
+    public void setRetries(Integer retries) {
+        this.retries = retries;
+    }
+
+    /**
+     * @return Never {@code null}. Created on first use from the current
+     * settings.
+     */
+    public synchronized RefreshScheduler getScheduler() {
+        if (scheduler == null) {
+            scheduler = new RefreshScheduler(this);
+        }
+
+        return scheduler;
+    }
+
+}
@@ -23,9 +23,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import gyro.core.GyroUI;
 import gyro.core.auth.Credentials;
@@ -33,33 +32,65 @@ import gyro.core.scope.State;
 
 public abstract class Resource extends Diffable {
 
+    private static final Pattern THROTTLED_PATTERN = Pattern.compile(
+        "throttl|rate exceeded|too many requests|requestlimitexceeded|slow ?down|\\b429\\b",
+        Pattern.CASE_INSENSITIVE);
+
     public abstract boolean refresh();
 
     public Map<? extends Resource, Boolean> batchRefresh(List<? extends Resource> resources) {
         Map<Resource, Boolean> refreshResults = new HashMap<>();
-
-        ExecutorService refreshService = Executors.newWorkStealingPool();
         List<Refresh> refreshes = new ArrayList<>();
 
         for (Resource resource : resources) {
-            refreshes.add(new Refresh(resource, refreshService.submit(resource::refresh)));
+            refreshes.add(new Refresh(resource, resource.refreshScheduler().submit(resource)));
         }
 
-        for (Refresh refresh : refreshes) {
-            try {
-                refreshResults.put(refresh.resource, refresh.future.get());
-            } catch (ExecutionException error) {
-                throw new RefreshException(error, refresh.resource);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-            } finally {
-                refreshService.shutdown();
+        try {
+            for (Refresh refresh : refreshes) {
+                try {
+                    refreshResults.put(refresh.resource, refresh.future.get());
+                } catch (ExecutionException error) {
+                    throw new RefreshException(error, refresh.resource);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
             }
+
+        } finally {
+            refreshes.forEach(r -> r.future.cancel(false));
         }
 
         return refreshResults;
     }
 
+    /**
+     * @return Never {@code null}. Scheduler that {@link #batchRefresh} should
+     * use instead of creating its own threads.
+     */
+    public RefreshScheduler refreshScheduler() {
+        return scope.getRootScope().getSettings(RefreshSettings.class).getScheduler();
+    }
+
+    /**
+     * Returns whether the given {@code error}, thrown while refreshing, means
+     * that the cloud provider throttled the request, in which case the
+     * {@link RefreshScheduler} retries it later. Providers should override
+     * this to check for their own exceptions. The default looks for common
+     * throttling messages in the error and its causes.
+     */
+    public boolean isThrottled(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() != e ? e.getCause() : null) {
+            String text = e.getClass().getSimpleName() + " " + e.getMessage();
+
+            if (THROTTLED_PATTERN.matcher(text).find()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public abstract void create(GyroUI ui, State state) throws Exception;
 
     public abstract void update(GyroUI ui, State state, Resource current, Set<String> changedFieldNames)
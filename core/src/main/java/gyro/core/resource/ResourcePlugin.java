@@ -16,11 +16,19 @@
 
 package gyro.core.resource;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.plugin.Plugin;
 import gyro.core.scope.RootScope;
 
 public class ResourcePlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(Resource.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) {
         if (Resource.class.isAssignableFrom(aClass)) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often something can happen to {@code rate} times per second on
+ * average, while allowing up to {@code capacity} at once after a quiet
+ * period.
+ */
+class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilled;
+
+    public TokenBucket(double rate, double capacity) {
+        this.ratePerNano = rate / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.refilled = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting until one is available.
+     */
+    public void acquire() throws InterruptedException {
+        long wait;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+
+            tokens = Math.min(capacity, tokens + (now - refilled) * ratePerNano);
+            refilled = now;
+
+            // Going below zero reserves a future token for this caller.
+            tokens -= 1;
+            wait = tokens < 0 ? (long) Math.ceil(-tokens / ratePerNano) : 0L;
+        }
+
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+}
@@ -38,6 +38,7 @@ public class WaitDirectiveProcessor extends DirectiveProcessor<DiffableScope> {
         validateOptionArguments(node, "unit", 0, 1);
         validateOptionArguments(node, "at-most", 0, 1);
         validateOptionArguments(node, "check-every", 0, 1);
+        validateOptionArguments(node, "max-check-every", 0, 1);
 
         Waiter waiter = new Waiter();
 
@@ -50,6 +51,9 @@ public class WaitDirectiveProcessor extends DirectiveProcessor<DiffableScope> {
         Optional.ofNullable(getOptionArgument(scope, node, "check-every", Long.class, 0))
             .ifPresent(d -> waiter.checkEvery(d, unit));
 
+        Optional.ofNullable(getOptionArgument(scope, node, "max-check-every", Long.class, 0))
+            .ifPresent(d -> waiter.maxCheckEvery(d, unit));
+
         boolean found = false;
         Node condition = node.getArguments().get(0);
         List<ChangeProcessor> processors = scope.getSettings(ChangeSettings.class).getProcessors();
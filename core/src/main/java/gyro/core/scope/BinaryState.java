@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+/**
+ * Constants for the binary state format, which looks like:
+ *
+ * <pre>
+ * file    = magic version types names count record*
+ * magic   = 0x00 'G' 'Y' 'S'
+ * version = int
+ * types   = count string*
+ * names   = count string*
+ * record  = length type name body
+ * type    = int (index into types)
+ * body    = count item*
+ * item    = PAIR key value | BLOCK key body | NODE length bytes
+ * key     = int (index into names)
+ * value   = NULL | TRUE | FALSE | LONG long | DOUBLE double | STRING string
+ *         | LIST count value* | MAP count (string value)* | REFERENCE type string | SELF
+ * string  = length UTF-8 bytes
+ * </pre>
+ *
+ * <p>All counts and lengths are ints. Records are length-prefixed so that
+ * they can be read one at a time, and {@code NODE} items are state nodes
+ * written with Java serialization.</p>
+ */
+final class BinaryState {
+
+    static final byte[] MAGIC = new byte[] {0x00, 'G', 'Y', 'S'};
+    static final int VERSION = 1;
+
+    static final byte PAIR = 1;
+    static final byte BLOCK = 2;
+    static final byte NODE = 3;
+
+    static final byte NULL = 1;
+    static final byte TRUE = 2;
+    static final byte FALSE = 3;
+    static final byte LONG = 4;
+    static final byte DOUBLE = 5;
+    static final byte STRING = 6;
+    static final byte LIST = 7;
+    static final byte MAP = 8;
+    static final byte REFERENCE = 9;
+    static final byte SELF = 10;
+
+    private BinaryState() {
+    }
+
+    public static boolean isBinary(byte[] content) {
+        if (content.length < MAGIC.length) {
+            return false;
+        }
+
+        for (int i = 0; i < MAGIC.length; ++i) {
+            if (content[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
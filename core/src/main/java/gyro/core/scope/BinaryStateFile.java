@@ -0,0 +1,377 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import gyro.core.DependsOnSettings;
+import gyro.core.GyroException;
+import gyro.core.resource.DiffableType;
+import gyro.core.resource.Resource;
+import gyro.core.resource.SelfSettings;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.NodeInputStream;
+import gyro.lang.ast.block.DirectiveNode;
+
+/**
+ * State file in the binary format that creates its resources directly using
+ * {@link DiffableType} instead of going through the parser and
+ * {@link NodeEvaluator}.
+ *
+ * @see BinaryState
+ */
+class BinaryStateFile {
+
+    private final String file;
+    private final List<String> types;
+    private final List<String> names;
+    private final Set<byte[]> pendingRecords;
+
+    private BinaryStateFile(String file, List<String> types, List<String> names, List<byte[]> records) {
+        this.file = file;
+        this.types = types;
+        this.names = names;
+        this.pendingRecords = new LinkedHashSet<>(records);
+    }
+
+    public static BinaryStateFile read(String file, byte[] content) {
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+
+            input.skipBytes(BinaryState.MAGIC.length);
+
+            int version = input.readInt();
+
+            if (version != BinaryState.VERSION) {
+                throw new GyroException(String.format(
+                    "Can't read version @|bold %s|@ of the binary state format in @|bold %s|@!",
+                    version,
+                    file));
+            }
+
+            List<String> types = readStrings(input);
+            List<String> names = readStrings(input);
+            List<byte[]> records = new ArrayList<>();
+
+            for (int i = 0, size = input.readInt(); i < size; ++i) {
+                byte[] record = new byte[input.readInt()];
+
+                input.readFully(record);
+                records.add(record);
+            }
+
+            return new BinaryStateFile(file, types, names, records);
+
+        } catch (IOException error) {
+            throw new GyroException(String.format("Can't read @|bold %s|@ as a binary state file!", file), error);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream input) throws IOException {
+        List<String> strings = new ArrayList<>();
+
+        for (int i = 0, size = input.readInt(); i < size; ++i) {
+            strings.add(readString(input));
+        }
+
+        return strings;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void evaluate(RootScope root) {
+        List<FileScope> fileScopes = root.getFileScopes();
+
+        FileScope fileScope = fileScopes.stream()
+            .filter(f -> f.getFile().equals(file))
+            .findFirst()
+            .orElse(null);
+
+        if (fileScope == null) {
+            fileScope = new FileScope(root, file);
+            fileScopes.add(fileScope);
+        }
+
+        FileScope finalFileScope = fileScope;
+
+        // Records that were already created successfully aren't evaluated
+        // again when the file is retried. Arrays are compared by identity so
+        // removing each one from the set is cheap.
+        Defer.execute(new ArrayList<>(pendingRecords), record -> {
+            evaluateRecord(finalFileScope, record);
+            pendingRecords.remove(record);
+        });
+    }
+
+    // Mirrors NodeEvaluator#visitResource.
+    @SuppressWarnings("unchecked")
+    private void evaluateRecord(FileScope file, byte[] record) {
+        RootScope root = file.getRootScope();
+        RecordReader reader = new RecordReader(record, root);
+        String type = reader.readType();
+        String name = reader.readString();
+        Object value = root.get(type);
+
+        if (value == null) {
+            throw new Defer(null, String.format(
+                "Can't create a resource of @|bold %s|@ type!",
+                type));
+
+        } else if (!(value instanceof Class) || !Resource.class.isAssignableFrom((Class<?>) value)) {
+            throw new GyroException(String.format(
+                "Can't create a resource of @|bold %s|@ type using @|bold %s|@!",
+                type,
+                value));
+        }
+
+        DiffableType<Resource> resourceType = DiffableType.getInstance((Class<Resource>) value);
+        DiffableScope bodyScope = new DiffableScope(file, null);
+        int bodyStart = reader.getPosition();
+
+        try {
+            reader.readBody(bodyScope);
+
+        } catch (Defer error) {
+            throw new CreateDefer(error, type, name);
+        }
+
+        Resource resource = resourceType.newInternal(bodyScope, name);
+
+        bodyScope.getSettings(SelfSettings.class).setSelf(resource);
+
+        // Values that refer to the resource itself can only be resolved
+        // once it exists, so read the body again like NodeEvaluator does.
+        if (reader.isSelfReferenced()) {
+            bodyScope = new DiffableScope(bodyScope);
+            reader = new RecordReader(record, root);
+
+            reader.skip(bodyStart);
+            reader.setSelf(resource);
+
+            try {
+                reader.readBody(bodyScope);
+
+            } catch (Defer error) {
+                throw new CreateDefer(error, type, name);
+            }
+
+            resourceType.setValues(resource, bodyScope);
+        }
+
+        bodyScope.process(resource);
+        file.put(type + "::" + name, resource);
+    }
+
+    private class RecordReader {
+
+        private final byte[] record;
+        private final RootScope root;
+        private final DataInputStream input;
+        private Resource self;
+        private boolean selfReferenced;
+
+        public RecordReader(byte[] record, RootScope root) {
+            this.record = record;
+            this.root = root;
+            this.input = new DataInputStream(new ByteArrayInputStream(record));
+        }
+
+        public int getPosition() {
+            try {
+                return record.length - input.available();
+
+            } catch (IOException error) {
+                throw malformed(error);
+            }
+        }
+
+        public void setSelf(Resource self) {
+            this.self = self;
+        }
+
+        public boolean isSelfReferenced() {
+            return selfReferenced;
+        }
+
+        public void skip(int length) {
+            try {
+                input.readFully(new byte[length]);
+
+            } catch (IOException error) {
+                throw malformed(error);
+            }
+        }
+
+        public String readType() {
+            try {
+                return types.get(input.readInt());
+
+            } catch (IOException error) {
+                throw malformed(error);
+            }
+        }
+
+        public String readString() {
+            try {
+                return BinaryStateFile.readString(input);
+
+            } catch (IOException error) {
+                throw malformed(error);
+            }
+        }
+
+        // Mirrors NodeEvaluator#evaluateDiffable.
+        public void readBody(DiffableScope scope) {
+            try {
+                List<Node> nodes = new ArrayList<>();
+
+                for (int i = 0, size = input.readInt(); i < size; ++i) {
+                    byte tag = input.readByte();
+
+                    if (tag == BinaryState.PAIR) {
+                        String key = names.get(input.readInt());
+
+                        scope.put(key, readValue(scope));
+
+                    } else if (tag == BinaryState.BLOCK) {
+                        String key = names.get(input.readInt());
+                        DiffableScope blockScope = new DiffableScope(scope, null);
+
+                        readBody(blockScope);
+                        scope.addValue(key, null, blockScope);
+
+                    } else if (tag == BinaryState.NODE) {
+                        byte[] bytes = new byte[input.readInt()];
+
+                        input.readFully(bytes);
+
+                        try (NodeInputStream nodeInput = new NodeInputStream(new ByteArrayInputStream(bytes), null)) {
+                            nodes.add(nodeInput.readNode());
+
+                        } catch (ClassNotFoundException error) {
+                            throw malformed(error);
+                        }
+
+                    } else {
+                        throw malformed(null);
+                    }
+                }
+
+                NodeEvaluator evaluator = root.getEvaluator();
+
+                nodes.stream()
+                    .filter(n -> !(n instanceof DirectiveNode))
+                    .collect(Collectors.toList())
+                    .forEach(n -> evaluator.visit(n, scope));
+
+                nodes.stream()
+                    .filter(DirectiveNode.class::isInstance)
+                    .collect(Collectors.toList())
+                    .forEach(n -> evaluator.visit(n, scope));
+
+            } catch (IOException error) {
+                throw malformed(error);
+            }
+        }
+
+        private Object readValue(DiffableScope scope) throws IOException {
+            byte tag = input.readByte();
+
+            switch (tag) {
+                case BinaryState.NULL:
+                    return null;
+
+                case BinaryState.TRUE:
+                    return Boolean.TRUE;
+
+                case BinaryState.FALSE:
+                    return Boolean.FALSE;
+
+                case BinaryState.LONG:
+                    return input.readLong();
+
+                case BinaryState.DOUBLE:
+                    return input.readDouble();
+
+                case BinaryState.STRING:
+                    return BinaryStateFile.readString(input);
+
+                case BinaryState.LIST:
+                    List<Object> list = new ArrayList<>();
+
+                    for (int i = 0, size = input.readInt(); i < size; ++i) {
+                        list.add(readValue(scope));
+                    }
+
+                    return list;
+
+                case BinaryState.MAP:
+                    Map<String, Object> map = new LinkedHashMap<>();
+
+                    for (int i = 0, size = input.readInt(); i < size; ++i) {
+                        map.put(BinaryStateFile.readString(input), readValue(scope));
+                    }
+
+                    return map;
+
+                case BinaryState.REFERENCE:
+                    String type = types.get(input.readInt());
+                    String name = BinaryStateFile.readString(input);
+                    Resource resource = root.findResource(type + "::" + name);
+
+                    if (resource == null) {
+                        throw new FindDefer(null, type, name);
+                    }
+
+                    scope.getSettings(DependsOnSettings.class).getReferences().add(resource);
+                    return resource;
+
+                case BinaryState.SELF:
+                    selfReferenced = true;
+                    return self;
+
+                default:
+                    throw malformed(null);
+            }
+        }
+
+        private GyroException malformed(Exception error) {
+            return new GyroException(String.format("Malformed record in @|bold %s|@ binary state file!", file), error);
+        }
+
+    }
+
+}
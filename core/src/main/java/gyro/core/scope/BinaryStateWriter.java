@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gyro.core.GyroException;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.PairNode;
+import gyro.lang.ast.block.KeyBlockNode;
+import gyro.lang.ast.block.ResourceNode;
+import gyro.lang.ast.value.ListNode;
+import gyro.lang.ast.value.MapNode;
+import gyro.lang.ast.value.ReferenceNode;
+import gyro.lang.ast.value.ValueNode;
+import gyro.util.Bug;
+
+/**
+ * Writes resource nodes created by {@link State} in the binary state format.
+ *
+ * @see BinaryState
+ */
+class BinaryStateWriter {
+
+    private final Map<String, Integer> types = new LinkedHashMap<>();
+    private final Map<String, Integer> names = new LinkedHashMap<>();
+    private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+    private int recordsCount;
+
+    public void write(ResourceNode node) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+        try {
+            DataOutputStream output = new DataOutputStream(record);
+
+            output.writeInt(intern(types, node.getType()));
+            writeString(output, (String) ((ValueNode) node.getName()).getValue());
+            writeBody(output, node.getBody());
+
+            DataOutputStream recordsOutput = new DataOutputStream(records);
+
+            recordsOutput.writeInt(record.size());
+            record.writeTo(recordsOutput);
+            ++recordsCount;
+
+        } catch (IOException error) {
+            throw new Bug(error);
+        }
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream output = new DataOutputStream(out);
+
+        output.write(BinaryState.MAGIC);
+        output.writeInt(BinaryState.VERSION);
+        writeStrings(output, types);
+        writeStrings(output, names);
+        output.writeInt(recordsCount);
+        records.writeTo(output);
+        output.flush();
+    }
+
+    private int intern(Map<String, Integer> table, String value) {
+        return table.computeIfAbsent(value, v -> table.size());
+    }
+
+    private void writeStrings(DataOutputStream output, Map<String, Integer> table) throws IOException {
+        output.writeInt(table.size());
+
+        for (String value : table.keySet()) {
+            writeString(output, value);
+        }
+    }
+
+    private void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private void writeBody(DataOutputStream output, List<Node> body) throws IOException {
+        output.writeInt(body.size());
+
+        for (Node item : body) {
+            if (item instanceof PairNode) {
+                PairNode pair = (PairNode) item;
+
+                output.writeByte(BinaryState.PAIR);
+                output.writeInt(intern(names, (String) ((ValueNode) pair.getKey()).getValue()));
+                writeValue(output, pair.getValue());
+
+            } else if (item instanceof KeyBlockNode) {
+                KeyBlockNode block = (KeyBlockNode) item;
+
+                output.writeByte(BinaryState.BLOCK);
+                output.writeInt(intern(names, block.getKey()));
+                writeBody(output, block.getBody());
+
+            } else {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+                try (ObjectOutputStream nodeOutput = new ObjectOutputStream(bytes)) {
+                    nodeOutput.writeObject(item);
+                }
+
+                output.writeByte(BinaryState.NODE);
+                output.writeInt(bytes.size());
+                bytes.writeTo(output);
+            }
+        }
+    }
+
+    private void writeValue(DataOutputStream output, Node node) throws IOException {
+        if (node instanceof ValueNode) {
+            Object value = ((ValueNode) node).getValue();
+
+            if (value == null) {
+                output.writeByte(BinaryState.NULL);
+
+            } else if (value instanceof Boolean) {
+                output.writeByte((Boolean) value ? BinaryState.TRUE : BinaryState.FALSE);
+
+            } else if (value instanceof Number) {
+                writeNumber(output, (Number) value);
+
+            } else if (value instanceof String) {
+                output.writeByte(BinaryState.STRING);
+                writeString(output, (String) value);
+
+            } else {
+                throw new GyroException(String.format(
+                    "Can't write @|bold %s|@, an instance of @|bold %s|@, into a binary state file!",
+                    value,
+                    value.getClass().getName()));
+            }
+
+        } else if (node instanceof ListNode) {
+            List<Node> items = ((ListNode) node).getItems();
+
+            output.writeByte(BinaryState.LIST);
+            output.writeInt(items.size());
+
+            for (Node item : items) {
+                writeValue(output, item);
+            }
+
+        } else if (node instanceof MapNode) {
+            List<PairNode> entries = ((MapNode) node).getEntries();
+
+            output.writeByte(BinaryState.MAP);
+            output.writeInt(entries.size());
+
+            for (PairNode entry : entries) {
+                writeString(output, String.valueOf(((ValueNode) entry.getKey()).getValue()));
+                writeValue(output, entry.getValue());
+            }
+
+        } else if (node instanceof ReferenceNode) {
+            List<Node> arguments = ((ReferenceNode) node).getArguments();
+
+            if (arguments.size() == 1) {
+                output.writeByte(BinaryState.SELF);
+
+            } else {
+                output.writeByte(BinaryState.REFERENCE);
+                output.writeInt(intern(types, (String) ((ValueNode) arguments.get(0)).getValue()));
+                writeString(output, (String) ((ValueNode) arguments.get(1)).getValue());
+            }
+
+        } else {
+            throw new GyroException(String.format(
+                "Can't write @|bold %s|@ into a binary state file!",
+                node));
+        }
+    }
+
+    // Numbers are read back the same way that the parser would read their
+    // text representation.
+    private void writeNumber(DataOutputStream output, Number number) throws IOException {
+        String text = number.toString();
+
+        if (!text.contains(".")) {
+            try {
+                long value = Long.parseLong(text);
+
+                output.writeByte(BinaryState.LONG);
+                output.writeLong(value);
+                return;
+
+            } catch (NumberFormatException error) {
+                // Not representable as a long, so fall through.
+            }
+        }
+
+        output.writeByte(BinaryState.DOUBLE);
+        output.writeDouble(number.doubleValue());
+    }
+
+}
@@ -16,7 +16,6 @@
 
 package gyro.core.scope;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
@@ -39,33 +38,7 @@ public class Defer extends Error {
     }
 
     public static <T> void execute(List<T> items, Consumer<T> consumer) {
-        int size = items.size();
-
-        while (true) {
-            List<Defer> errors = new ArrayList<>();
-            List<T> deferred = new ArrayList<>();
-
-            for (T item : items) {
-                try {
-                    consumer.accept(item);
-
-                } catch (Defer error) {
-                    errors.add(error);
-                    deferred.add(item);
-                }
-            }
-
-            if (deferred.isEmpty()) {
-                break;
-
-            } else if (size == deferred.size()) {
-                throw new ExecuteDefer(errors);
-
-            } else {
-                items = deferred;
-                size = items.size();
-            }
-        }
+        new DeferScheduler<>(items, consumer).execute();
     }
 
     public static void writeErrors(GyroUI ui, String message, Collection<? extends Defer> errors) {
@@ -95,6 +68,14 @@ public class Defer extends Error {
         }
     }
 
+    /**
+     * Returns the key that must be published before the deferred item can
+     * succeed, or {@code null} if it's not known.
+     */
+    String getAwaitedKey() {
+        return null;
+    }
+
     @Override
     public synchronized Defer getCause() {
         return (Defer) super.getCause();
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Runs items that may throw {@link Defer} until all of them succeed.
+ *
+ * <p>Instead of retrying every deferred item after each pass, an item that's
+ * waiting on a specific key (e.g. {@code aws::instance::web}) is parked until
+ * that key is published via {@link #publish(String)}. Items that aren't
+ * waiting on anything in particular are retried after any other item
+ * succeeds. Before giving up, all remaining items are retried once more so
+ * that the result is never worse than a plain fixed-point loop.</p>
+ */
+class DeferScheduler<T> {
+
+    private static final ThreadLocal<Deque<DeferScheduler<?>>> ACTIVE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final List<T> items;
+    private final Consumer<T> consumer;
+    private final Map<String, List<Integer>> parked = new HashMap<>();
+    private final List<Integer> waiting = new ArrayList<>();
+    private final Set<String> published = new HashSet<>();
+    private final Map<Integer, Defer> errors = new TreeMap<>();
+    private TreeMap<Integer, T> next = new TreeMap<>();
+
+    public DeferScheduler(List<T> items, Consumer<T> consumer) {
+        this.items = items;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Notifies all schedulers running on the current thread that the given
+     * {@code key} is now available.
+     */
+    public static void publish(String key) {
+        for (DeferScheduler<?> scheduler : ACTIVE.get()) {
+            scheduler.wake(key);
+        }
+    }
+
+    public void execute() {
+        Deque<DeferScheduler<?>> active = ACTIVE.get();
+
+        active.push(this);
+
+        try {
+            for (int i = 0, size = items.size(); i < size; ++i) {
+                next.put(i, items.get(i));
+            }
+
+            boolean progress = false;
+
+            while (true) {
+                while (!next.isEmpty()) {
+                    TreeMap<Integer, T> round = next;
+                    boolean roundProgress = false;
+
+                    next = new TreeMap<>();
+
+                    for (Map.Entry<Integer, T> entry : round.entrySet()) {
+                        if (run(entry.getKey(), entry.getValue())) {
+                            roundProgress = true;
+                        }
+                    }
+
+                    // Items that weren't waiting on a specific key may have
+                    // been unblocked by anything that succeeded.
+                    if (roundProgress) {
+                        progress = true;
+                        waiting.forEach(i -> next.put(i, items.get(i)));
+                        waiting.clear();
+                    }
+                }
+
+                if (errors.isEmpty()) {
+                    break;
+
+                } else if (!progress) {
+                    throw new ExecuteDefer(new ArrayList<>(errors.values()));
+                }
+
+                // Something may have been published without notifying this
+                // scheduler, so retry everything that's left once more.
+                progress = false;
+
+                errors.keySet().forEach(i -> next.put(i, items.get(i)));
+                parked.clear();
+                waiting.clear();
+            }
+
+        } finally {
+            active.pop();
+        }
+    }
+
+    private boolean run(int index, T item) {
+        try {
+            consumer.accept(item);
+            errors.remove(index);
+            return true;
+
+        } catch (Defer error) {
+            errors.put(index, error);
+
+            String key = findAwaitedKey(error);
+
+            if (key != null && !published.contains(key)) {
+                parked.computeIfAbsent(key, k -> new ArrayList<>()).add(index);
+
+            } else {
+                waiting.add(index);
+            }
+
+            return false;
+        }
+    }
+
+    private String findAwaitedKey(Defer error) {
+        Defer cause = error;
+
+        for (Defer c; (c = cause.getCause()) != null; ) {
+            cause = c;
+        }
+
+        return cause.getAwaitedKey();
+    }
+
+    private void wake(String key) {
+        published.add(key);
+
+        List<Integer> indexes = parked.remove(key);
+
+        if (indexes != null) {
+            indexes.forEach(i -> next.put(i, items.get(i)));
+        }
+    }
+
+}
@@ -44,7 +44,7 @@ public class FileScope extends Scope {
     @Override
     public void clear() {
         if (!(this instanceof RootScope) && getRootScope() != null) {
-            keySet().forEach(k -> getRootScope().getResources().remove(k));
+            keySet().forEach(k -> getRootScope().removeResource(k));
         }
 
         super.clear();
@@ -95,10 +95,16 @@ public class FileScope extends Scope {
     @Override
     public Object put(String key, Object value) {
         if (!(this instanceof RootScope) && getRootScope() != null && value instanceof Resource) {
-            getRootScope().getResources().put(key, (Resource) value);
+            getRootScope().putResource(key, (Resource) value);
         }
 
-        return super.put(key, value);
+        Object old = super.put(key, value);
+
+        if (value instanceof Resource) {
+            DeferScheduler.publish(key);
+        }
+
+        return old;
     }
 
     @Override
@@ -106,18 +112,24 @@ public class FileScope extends Scope {
         if (!(this instanceof RootScope) && getRootScope() != null) {
             other.forEach((key, value) -> {
                 if (value instanceof Resource) {
-                    getRootScope().getResources().put(key, (Resource) value);
+                    getRootScope().putResource(key, (Resource) value);
                 }
             });
         }
 
         super.putAll(other);
+
+        other.forEach((key, value) -> {
+            if (value instanceof Resource) {
+                DeferScheduler.publish(key);
+            }
+        });
     }
 
     @Override
     public Object remove(Object key) {
         if (!(this instanceof RootScope) && getRootScope() != null) {
-            getRootScope().getResources().remove(key);
+            getRootScope().removeResource(key);
         }
 
         return super.remove(key);
@@ -32,4 +32,9 @@ class FindDefer extends Defer {
         return key;
     }
 
+    @Override
+    String getAwaitedKey() {
+        return key;
+    }
+
 }
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.psddev.dari.util.Lazy;
+import gyro.core.GyroCore;
+import gyro.core.command.VersionCommand;
+import gyro.lang.GyroCharStream;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.NodeInputStream;
+import gyro.lang.ast.block.FileNode;
+import gyro.parser.antlr4.GyroParser;
+
+/**
+ * Caches parsed files under {@code .gyro/cache/ast}, keyed by the SHA-256 of
+ * the gyro version and the file content, so that unchanged files don't have
+ * to be parsed again.
+ *
+ * <p>Parsed files are also kept in memory for the rest of the process.
+ * Entries on disk that weren't used for {@link #MAX_AGE} are removed by
+ * {@link #prune()}, since every edit to a file leaves a new one behind.</p>
+ */
+public class NodeCache {
+
+    public static final Duration MAX_AGE = Duration.ofDays(7);
+
+    private static final Lazy<NodeCache> INSTANCE = new Lazy<NodeCache>() {
+
+        @Override
+        protected NodeCache create() {
+            Path rootDir = GyroCore.getRootDirectory();
+            String version;
+
+            try {
+                version = VersionCommand.getCurrentVersion().toString();
+
+            } catch (IOException | RuntimeException error) {
+                version = null;
+            }
+
+            return rootDir != null && version != null
+                ? new NodeCache(rootDir.resolve(".gyro/cache/ast"), version)
+                : new NodeCache(null, null);
+        }
+    };
+
+    private final Path directory;
+    private final String version;
+    private final AtomicInteger memoryHits = new AtomicInteger();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger writeFailures = new AtomicInteger();
+
+    // Also keeps the parsed files in memory so that evaluating the same files
+    // again, such as at every workflow stage, doesn't even have to read the
+    // cache entries. The nodes are immutable so they can be shared.
+    private final Cache<String, FileNode> memory = CacheBuilder.newBuilder()
+        .softValues()
+        .build();
+
+    public static NodeCache getInstance() {
+        return INSTANCE.get();
+    }
+
+    /**
+     * @param directory If {@code null}, nothing is cached.
+     */
+    public NodeCache(Path directory, String version) {
+        this.directory = directory;
+        this.version = version;
+    }
+
+    /**
+     * @return Number of files that were already parsed in this process.
+     */
+    public int getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    /**
+     * @return Number of files that were read from the cache on disk.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of parsed files that couldn't be written to the cache.
+     */
+    public int getWriteFailures() {
+        return writeFailures.get();
+    }
+
+    /**
+     * Resets the counts, for example, at the start of each command, since
+     * the same process can run many of them.
+     */
+    public void resetCounts() {
+        memoryHits.set(0);
+        hits.set(0);
+        misses.set(0);
+        writeFailures.set(0);
+    }
+
+    /**
+     * Removes the entries on disk that weren't used for {@link #MAX_AGE}.
+     */
+    public void prune() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+
+        FileTime oldest = FileTime.fromMillis(System.currentTimeMillis() - MAX_AGE.toMillis());
+
+        try (Stream<Path> entryFiles = Files.list(directory)) {
+            entryFiles.forEach(entryFile -> {
+                try {
+                    if (Files.getLastModifiedTime(entryFile).compareTo(oldest) < 0) {
+                        Files.deleteIfExists(entryFile);
+                    }
+
+                } catch (IOException error) {
+                    // Ignore since it's tried again on the next run.
+                }
+            });
+
+        } catch (IOException error) {
+            // Ignore since it's tried again on the next run.
+        }
+    }
+
+    public FileNode parse(String file, byte[] content) throws IOException {
+        String hash = Hashing.sha256()
+            .newHasher()
+            .putString(version != null ? version : "", StandardCharsets.UTF_8)
+            .putBytes(content)
+            .hash()
+            .toString();
+
+        // The file name is part of the parsed nodes, so identical content in
+        // different files can't share them.
+        String memoryKey = hash + " " + file;
+        FileNode node = memory.getIfPresent(memoryKey);
+
+        if (node != null) {
+            memoryHits.incrementAndGet();
+            return node;
+        }
+
+        node = directory != null
+            ? parse(file, content, directory.resolve(hash))
+            : (FileNode) Node.parse(new ByteArrayInputStream(content), file, GyroParser::file);
+
+        memory.put(memoryKey, node);
+        return node;
+    }
+
+    private FileNode parse(String file, byte[] content, Path cacheFile) throws IOException {
+        if (Files.exists(cacheFile)) {
+            GyroCharStream stream = new GyroCharStream(new ByteArrayInputStream(content), file);
+
+            try (NodeInputStream input = new NodeInputStream(
+                new BufferedInputStream(Files.newInputStream(cacheFile)),
+                stream)) {
+
+                Node node = input.readNode();
+
+                if (node instanceof FileNode) {
+                    hits.incrementAndGet();
+                    touch(cacheFile);
+                    return (FileNode) node;
+                }
+
+            } catch (IOException | ClassNotFoundException | ClassCastException error) {
+                // Parse again and overwrite the entry below.
+            }
+        }
+
+        misses.incrementAndGet();
+
+        FileNode node = (FileNode) Node.parse(new ByteArrayInputStream(content), file, GyroParser::file);
+
+        write(cacheFile, node);
+        return node;
+    }
+
+    // Marks the entry as used so that it's not pruned.
+    private void touch(Path cacheFile) {
+        try {
+            Files.setLastModifiedTime(cacheFile, FileTime.fromMillis(System.currentTimeMillis()));
+
+        } catch (IOException error) {
+            // Ignore since the entry is written again if it's pruned.
+        }
+    }
+
+    // Failing to write is only counted since the cache is an optimization.
+    private void write(Path cacheFile, FileNode node) {
+        Path tempFile = null;
+
+        try {
+            Files.createDirectories(directory);
+
+            tempFile = Files.createTempFile(directory, ".node-cache-", ".tmp");
+
+            try (ObjectOutputStream output = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+
+                output.writeObject(node);
+            }
+
+            Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (IOException error) {
+            writeFailures.incrementAndGet();
+
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+
+                } catch (IOException deleteError) {
+                    // Ignore.
+                }
+            }
+        }
+    }
+
+}
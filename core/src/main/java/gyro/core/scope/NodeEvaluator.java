@@ -21,9 +21,9 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +43,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.psddev.dari.util.ObjectUtils;
 import com.psddev.dari.util.TypeDefinition;
+import gyro.core.DependsOnSettings;
 import gyro.core.GyroException;
 import gyro.core.Reflections;
 import gyro.core.directive.DirectiveProcessor;
@@ -80,7 +81,10 @@ import org.apache.commons.lang3.math.NumberUtils;
 
 public class NodeEvaluator implements NodeVisitor<Scope, Object, RuntimeException> {
 
-    private Map<String, Set<Node>> typeNodes;
+    // Top level nodes that will create resources of a type, indexed both ways
+    // so that removing a node doesn't require going through every type.
+    private Map<Node, Set<String>> nodeTypes;
+    private Map<String, Integer> typeNodeCounts;
     private List<Node> body;
 
     private static final LoadingCache<Class<? extends DirectiveProcessor>, Class<? extends Scope>> DIRECTIVE_PROCESSOR_SCOPE_CLASSES = CacheBuilder
@@ -316,7 +320,12 @@ public class NodeEvaluator implements NodeVisitor<Scope, Object, RuntimeExceptio
     }
 
     public void evaluate(RootScope root, List<Node> body) {
-        this.typeNodes = new HashMap<>();
+        evaluate(root, body, Collections.emptyList());
+    }
+
+    void evaluate(RootScope root, List<Node> body, List<BinaryStateFile> stateFiles) {
+        this.nodeTypes = new HashMap<>();
+        this.typeNodeCounts = new HashMap<>();
         this.body = body;
 
         body.stream()
@@ -326,12 +335,32 @@ public class NodeEvaluator implements NodeVisitor<Scope, Object, RuntimeExceptio
             .flatMap(List::stream)
             .forEach(item -> addTypeNode(item, item));
 
-        evaluateBody(body, root);
+        if (stateFiles.isEmpty()) {
+            evaluateBody(body, root);
+
+        } else {
+            List<Object> items = new ArrayList<>(body);
+
+            items.addAll(stateFiles);
+
+            Defer.execute(items, item -> {
+                if (item instanceof BinaryStateFile) {
+                    ((BinaryStateFile) item).evaluate(root);
+
+                } else {
+                    visit((Node) item, root);
+                }
+            });
+        }
     }
 
     public void addTypeNode(Node top, Node node) {
         if (node instanceof ResourceNode) {
-            typeNodes.computeIfAbsent(((ResourceNode) node).getType(), k -> new HashSet<>()).add(top);
+            String type = ((ResourceNode) node).getType();
+
+            if (nodeTypes.computeIfAbsent(top, k -> new HashSet<>()).add(type)) {
+                typeNodeCounts.merge(type, 1, Integer::sum);
+            }
         }
 
         if (node instanceof BlockNode) {
@@ -346,14 +375,14 @@ public class NodeEvaluator implements NodeVisitor<Scope, Object, RuntimeExceptio
     }
 
     private void removeTypeNode(Node node) {
-        if (typeNodes != null) {
-            for (Iterator<Set<Node>> i = typeNodes.values().iterator(); i.hasNext(); ) {
-                Set<Node> nodes = i.next();
+        if (nodeTypes != null) {
+            Set<String> types = nodeTypes.remove(node);
 
-                nodes.remove(node);
-
-                if (nodes.isEmpty()) {
-                    i.remove();
+            if (types != null) {
+                for (String type : types) {
+                    if (typeNodeCounts.computeIfPresent(type, (k, count) -> count > 1 ? count - 1 : null) == null) {
+                        DeferScheduler.publish(WildcardDefer.getKey(type));
+                    }
                 }
             }
         }
@@ -751,14 +780,41 @@ public class NodeEvaluator implements NodeVisitor<Scope, Object, RuntimeExceptio
             return null;
         }
 
-        return resolveFilters(node, scope, value);
+        value = resolveFilters(node, scope, value);
+
+        addReferences(scope, value);
+        return value;
+    }
+
+    private void addReferences(Scope scope, Object value) {
+        if (!(value instanceof Resource) && !(value instanceof Collection)) {
+            return;
+        }
+
+        DiffableScope diffableScope = scope.getClosest(DiffableScope.class);
+
+        if (diffableScope == null) {
+            return;
+        }
+
+        Set<Resource> references = diffableScope.getSettings(DependsOnSettings.class).getReferences();
+
+        if (value instanceof Resource) {
+            references.add((Resource) value);
+
+        } else {
+            ((Collection<?>) value).stream()
+                .filter(Resource.class::isInstance)
+                .map(Resource.class::cast)
+                .forEach(references::add);
+        }
     }
 
     private Object resourceResolver(String resourceName, String referenceName, ReferenceNode node, RootScope root) {
         Object value = null;
 
         if (resourceName.endsWith("*")) {
-            if (typeNodes != null && typeNodes.containsKey(referenceName)) {
+            if (typeNodeCounts != null && typeNodeCounts.containsKey(referenceName)) {
                 throw new WildcardDefer(node, referenceName);
             }
 
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import gyro.core.GyroInputStream;
+import gyro.core.auth.CredentialsSettings;
+import gyro.core.resource.DiffableField;
+import gyro.core.resource.DiffableInternals;
+import gyro.core.resource.DiffableType;
+import gyro.core.resource.Resource;
+import gyro.core.resource.SelfSettings;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.NodePrinter;
+import gyro.lang.ast.PairNode;
+import gyro.lang.ast.PrinterContext;
+import gyro.lang.ast.block.DirectiveNode;
+import gyro.lang.ast.block.FileNode;
+import gyro.lang.ast.block.ResourceNode;
+import gyro.lang.ast.value.ValueNode;
+import gyro.parser.antlr4.GyroParser;
+import gyro.util.Bug;
+
+/**
+ * Caches refreshed resources under {@code .gyro/cache/refresh} so that a
+ * later run can skip refreshing the ones that were refreshed recently.
+ *
+ * <p>Each entry is keyed by the SHA-256 of the resource primary key, the name
+ * of the credentials it uses, and the content of the state file that it was
+ * loaded from, so that any change to the state invalidates the entry.</p>
+ */
+public class RefreshCache {
+
+    private static final String REFRESHED_AT_KEY = "_refreshed-at";
+
+    private final Path directory;
+    private final RootScope root;
+    private final Map<String, String> stateHashes = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public RefreshCache(Path directory, RootScope root) {
+        this.directory = directory;
+        this.root = root;
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Restores the values of the given {@code resource} from its entry if it
+     * was refreshed within the given {@code maxAge}.
+     *
+     * @return {@code true} if the values were restored and the resource
+     * doesn't need to be refreshed.
+     */
+    public boolean load(Resource resource, Duration maxAge) {
+        Path entryFile = getEntryFile(resource);
+
+        if (Files.exists(entryFile)) {
+            try {
+                FileNode fileNode = (FileNode) Node.parse(
+                    new ByteArrayInputStream(Files.readAllBytes(entryFile)),
+                    entryFile.toString(),
+                    GyroParser::file);
+
+                Long refreshedAt = null;
+                ResourceNode resourceNode = null;
+
+                for (Node item : fileNode.getBody()) {
+                    if (item instanceof PairNode) {
+                        PairNode pair = (PairNode) item;
+
+                        if (isValue(pair.getKey(), REFRESHED_AT_KEY) && pair.getValue() instanceof ValueNode) {
+                            Object value = ((ValueNode) pair.getValue()).getValue();
+
+                            if (value instanceof Number) {
+                                refreshedAt = ((Number) value).longValue();
+                            }
+                        }
+
+                    } else if (item instanceof ResourceNode) {
+                        resourceNode = (ResourceNode) item;
+                    }
+                }
+
+                if (refreshedAt != null
+                    && resourceNode != null
+                    && System.currentTimeMillis() - refreshedAt <= maxAge.toMillis()) {
+
+                    restore(resource, resourceNode);
+                    hits.incrementAndGet();
+                    return true;
+                }
+
+            } catch (Exception error) {
+                // Refresh again and overwrite the entry afterwards.
+            }
+        }
+
+        misses.incrementAndGet();
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void restore(Resource resource, ResourceNode node) {
+        DiffableScope resourceScope = DiffableInternals.getScope(resource);
+        DiffableScope selfScope = new DiffableScope(resourceScope.getFileScope(), node);
+
+        selfScope.getSettings(SelfSettings.class).setSelf(resource);
+
+        DiffableScope bodyScope = new DiffableScope(selfScope);
+
+        root.getEvaluator().evaluateDiffable(node, bodyScope);
+
+        DiffableType<Resource> type = DiffableType.getInstance((Class<Resource>) resource.getClass());
+        Map<String, Object> values = new LinkedHashMap<>(bodyScope);
+
+        // Fields that are missing from the entry were null after the refresh.
+        for (DiffableField field : type.getFields()) {
+            String name = field.getName();
+
+            if (!values.containsKey(name) && field.getValue(resource) != null) {
+                values.put(name, null);
+            }
+        }
+
+        type.setValues(resource, values);
+    }
+
+    /**
+     * Stores the current values of the given {@code resource}, which should
+     * have just been refreshed.
+     *
+     * <p>Failing to write is ignored since the cache is only an
+     * optimization.</p>
+     */
+    public void store(Resource resource) {
+        Path entryFile = getEntryFile(resource);
+        ResourceNode node = new StateNodes(Collections.emptyMap(), true).toResourceNode(resource);
+
+        // Only the field values are restored from the entry.
+        List<Node> body = node.getBody()
+            .stream()
+            .filter(n -> !(n instanceof DirectiveNode))
+            .filter(n -> !(n instanceof PairNode) || !isHidden(((PairNode) n).getKey()))
+            .collect(Collectors.toList());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            NodePrinter printer = new NodePrinter();
+            PrinterContext context = new PrinterContext(out, 0);
+
+            printer.visit(
+                new PairNode(new ValueNode(REFRESHED_AT_KEY), new ValueNode(System.currentTimeMillis())),
+                context);
+
+            printer.visit(new ResourceNode(node.getType(), node.getName(), body), context);
+            out.append('\n');
+
+        } catch (IOException error) {
+            throw new Bug(error);
+        }
+
+        Path tempFile = null;
+
+        try {
+            Files.createDirectories(directory);
+
+            tempFile = Files.createTempFile(directory, ".refresh-cache-", ".tmp");
+
+            Files.write(tempFile, bytes.toByteArray());
+            Files.move(tempFile, entryFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (IOException error) {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+
+                } catch (IOException deleteError) {
+                    // Ignore.
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for the given {@code resource}, for example, because
+     * the refresh found that it no longer exists.
+     */
+    public void invalidate(Resource resource) {
+        try {
+            Files.deleteIfExists(getEntryFile(resource));
+
+        } catch (IOException error) {
+            // Ignore since a stale entry is replaced on the next refresh.
+        }
+    }
+
+    /**
+     * Removes the entries that were written longer than the given
+     * {@code maxAge} ago, since they can't be loaded anymore. Entries for
+     * older versions of a state file are never loaded either, so without
+     * this the cache would keep growing.
+     */
+    public void prune(Duration maxAge) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        FileTime oldest = FileTime.fromMillis(System.currentTimeMillis() - maxAge.toMillis());
+
+        try (Stream<Path> entryFiles = Files.list(directory)) {
+            entryFiles.forEach(entryFile -> {
+                try {
+                    if (Files.getLastModifiedTime(entryFile).compareTo(oldest) < 0) {
+                        Files.deleteIfExists(entryFile);
+                    }
+
+                } catch (IOException error) {
+                    // Ignore since it's tried again on the next run.
+                }
+            });
+
+        } catch (IOException error) {
+            // Ignore since it's tried again on the next run.
+        }
+    }
+
+    private Path getEntryFile(Resource resource) {
+        String stateFile = DiffableInternals.getScope(resource).getFileScope().getFile();
+
+        String credentials = Optional.ofNullable(DiffableInternals.getScope(resource)
+            .getSettings(CredentialsSettings.class)
+            .getUseCredentials())
+            .orElse("default");
+
+        return directory.resolve(Hashing.sha256()
+            .newHasher()
+            .putString(resource.primaryKey(), StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(credentials, StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(stateFile, StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(stateHashes.computeIfAbsent(stateFile, this::hashState), StandardCharsets.UTF_8)
+            .hash()
+            .toString());
+    }
+
+    private String hashState(String file) {
+        try (GyroInputStream input = root.openInput(file)) {
+            return Hashing.sha256().hashBytes(ByteStreams.toByteArray(input)).toString();
+
+        } catch (IOException error) {
+            throw new Bug(error);
+        }
+    }
+
+    private static boolean isValue(Node node, String value) {
+        return node instanceof ValueNode && value.equals(((ValueNode) node).getValue());
+    }
+
+    private static boolean isHidden(Node node) {
+        return node instanceof ValueNode
+            && ((ValueNode) node).getValue() instanceof String
+            && ((String) ((ValueNode) node).getValue()).startsWith("_");
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import gyro.core.resource.DiffableField;
+import gyro.core.resource.DiffableType;
+import gyro.core.resource.Resource;
+
+/**
+ * Resources in a {@link RootScope} grouped by their classes and ids so that
+ * finding them doesn't require going through every resource.
+ *
+ * <p>Resources are ordered the same way as {@link RootScope#getResources()}.
+ * Ids are indexed lazily per class. Since they're usually set after the
+ * resource is added, e.g. when it's created, {@link #update(Resource)} must
+ * be called afterwards to drop the stale index.</p>
+ */
+class ResourceIndex {
+
+    private final Map<String, Long> orderByKey = new HashMap<>();
+    private final Map<String, Class<?>> classByKey = new HashMap<>();
+    private final Map<Class<?>, TreeMap<Long, Resource>> resourcesByClass = new HashMap<>();
+    private final Map<Class<?>, Map<Object, Long>> orderByIdByClass = new HashMap<>();
+    private long nextOrder;
+
+    public synchronized void put(String key, Resource resource) {
+        Long order = orderByKey.get(key);
+
+        if (order != null) {
+            removeFromClass(key, order);
+
+        } else {
+            order = nextOrder++;
+            orderByKey.put(key, order);
+        }
+
+        // Resources can also be stored under other names, e.g. as variables.
+        if (key.equals(resource.primaryKey())) {
+            Class<?> resourceClass = resource.getClass();
+
+            classByKey.put(key, resourceClass);
+            resourcesByClass.computeIfAbsent(resourceClass, c -> new TreeMap<>()).put(order, resource);
+            orderByIdByClass.remove(resourceClass);
+        }
+    }
+
+    public synchronized void remove(Object key) {
+        Long order = orderByKey.remove(key);
+
+        if (order != null) {
+            removeFromClass(key, order);
+        }
+    }
+
+    public synchronized void update(Resource resource) {
+        orderByIdByClass.remove(resource.getClass());
+    }
+
+    private void removeFromClass(Object key, Long order) {
+        Class<?> resourceClass = classByKey.remove(key);
+
+        if (resourceClass != null) {
+            resourcesByClass.get(resourceClass).remove(order);
+            orderByIdByClass.remove(resourceClass);
+        }
+    }
+
+    public synchronized <T extends Resource> List<T> findByClass(Class<T> resourceClass) {
+        TreeMap<Long, Resource> found = new TreeMap<>();
+
+        resourcesByClass.forEach((c, resources) -> {
+            if (resourceClass.isAssignableFrom(c)) {
+                found.putAll(resources);
+            }
+        });
+
+        List<T> resources = new ArrayList<>();
+
+        found.values().forEach(r -> resources.add(resourceClass.cast(r)));
+        return resources;
+    }
+
+    public synchronized <T extends Resource> T findById(Class<T> resourceClass, Object id) {
+        Resource found = null;
+        long foundOrder = Long.MAX_VALUE;
+
+        for (Map.Entry<Class<?>, TreeMap<Long, Resource>> entry : resourcesByClass.entrySet()) {
+            Class<?> c = entry.getKey();
+
+            if (!resourceClass.isAssignableFrom(c)) {
+                continue;
+            }
+
+            @SuppressWarnings("unchecked")
+            DiffableField idField = DiffableType.getInstance((Class<? extends Resource>) c).getIdField();
+
+            if (idField == null) {
+                continue;
+            }
+
+            TreeMap<Long, Resource> resources = entry.getValue();
+            Long order = orderByIdByClass.computeIfAbsent(c, k -> indexIds(resources, idField)).get(id);
+            Resource resource = order != null ? resources.get(order) : null;
+
+            // Ids can still change in place, e.g. on refresh.
+            if (resource != null && !id.equals(idField.getValue(resource))) {
+                Map<Object, Long> orderById = indexIds(resources, idField);
+
+                orderByIdByClass.put(c, orderById);
+
+                order = orderById.get(id);
+                resource = order != null ? resources.get(order) : null;
+            }
+
+            if (resource != null && order < foundOrder) {
+                found = resource;
+                foundOrder = order;
+            }
+        }
+
+        return resourceClass.cast(found);
+    }
+
+    private Map<Object, Long> indexIds(TreeMap<Long, Resource> resources, DiffableField idField) {
+        Map<Object, Long> orderById = new HashMap<>();
+
+        resources.forEach((order, resource) -> {
+            Object id = idField.getValue(resource);
+
+            if (id != null) {
+                orderById.putIfAbsent(id, order);
+            }
+        });
+
+        return orderById;
+    }
+
+}
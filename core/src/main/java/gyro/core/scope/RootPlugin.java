@@ -1,10 +1,18 @@
 package gyro.core.scope;
 
+import java.util.Collections;
+import java.util.Set;
+
 import gyro.core.Reflections;
 import gyro.core.plugin.Plugin;
 
 public class RootPlugin extends Plugin {
 
+    @Override
+    public Set<Class<?>> getAcceptedTypes() {
+        return Collections.singleton(RootProcessor.class);
+    }
+
     @Override
     public void onEachClass(RootScope root, Class<?> aClass) {
         if (RootProcessor.class.isAssignableFrom(aClass)) {
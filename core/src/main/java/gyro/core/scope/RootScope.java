@@ -20,19 +20,27 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
 import com.psddev.dari.util.Converter;
 import gyro.core.DependsOnDirectiveProcessor;
 import gyro.core.FileBackend;
@@ -83,6 +91,7 @@ import gyro.core.resource.ElapsedTimeChangeProcessor;
 import gyro.core.resource.ExtendsDirectiveProcessor;
 import gyro.core.resource.ModificationChangeProcessor;
 import gyro.core.resource.ModificationPlugin;
+import gyro.core.resource.RefreshDirectiveProcessor;
 import gyro.core.resource.Resource;
 import gyro.core.resource.ResourcePlugin;
 import gyro.core.resource.TypeDescriptionDirectiveProcessor;
@@ -100,9 +109,10 @@ import gyro.core.workflow.DeleteDirectiveProcessor;
 import gyro.core.workflow.ReplaceDirectiveProcessor;
 import gyro.core.workflow.RestoreRootProcessor;
 import gyro.core.workflow.UpdateDirectiveProcessor;
+import gyro.lang.SyntaxErrorException;
+import gyro.lang.SyntaxErrorsException;
 import gyro.lang.ast.Node;
 import gyro.lang.ast.block.FileNode;
-import gyro.parser.antlr4.GyroParser;
 import gyro.util.Bug;
 import org.apache.commons.lang3.StringUtils;
 
@@ -115,11 +125,15 @@ public class RootScope extends FileScope {
     private final RootScope current;
     private final Set<String> loadFiles;
     private final Map<String, Resource> resources = new LinkedHashMap<>();
+    private final ResourceIndex resourceIndex = new ResourceIndex();
+    private boolean rootResources;
     private final List<FileScope> fileScopes = new ArrayList<>();
     // Workflow related
     private final AtomicBoolean inWorkflow = new AtomicBoolean();
     private final Map<String, Resource> workflowRemovedResources = new HashMap<>();
     private final Map<String, Resource> workflowReplacedResources = new HashMap<>();
+    private final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> reloadedContents = new ConcurrentHashMap<>();
 
     public RootScope(String file, FileBackend backend, RootScope current, Set<String> loadFiles) {
         this(file, backend, null, current, loadFiles);
@@ -201,9 +215,11 @@ public class RootScope extends FileScope {
             MetadataDirectiveProcessor.class,
             PluginDirectiveProcessor.class,
             PrintDirectiveProcessor.class,
+            RefreshDirectiveProcessor.class,
             ReplaceDirectiveProcessor.class,
             RepositoryDirectiveProcessor.class,
             StateBackendDirectiveProcessor.class,
+            StateFormatDirectiveProcessor.class,
             TimeoutDirectiveProcessor.class,
             TypeDescriptionDirectiveProcessor.class,
             UpdateDirectiveProcessor.class,
@@ -247,6 +263,38 @@ public class RootScope extends FileScope {
         return resources;
     }
 
+    void putResource(String key, Resource resource) {
+        resources.put(key, resource);
+        resourceIndex.put(key, resource);
+    }
+
+    void removeResource(Object key) {
+        resources.remove(key);
+        resourceIndex.remove(key);
+    }
+
+    void updateResource(Resource resource) {
+        resourceIndex.update(resource);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (value instanceof Resource) {
+            rootResources = true;
+        }
+
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> other) {
+        if (other.values().stream().anyMatch(Resource.class::isInstance)) {
+            rootResources = true;
+        }
+
+        super.putAll(other);
+    }
+
     public List<FileScope> getFileScopes() {
         return fileScopes;
     }
@@ -344,10 +392,16 @@ public class RootScope extends FileScope {
     }
 
     public <T extends Resource> Stream<T> findResourcesByClass(Class<T> resourceClass) {
-        return findSortedResources()
-            .stream()
-            .filter(resourceClass::isInstance)
-            .map(resourceClass::cast);
+
+        // Resources directly in the root aren't indexed.
+        if (rootResources) {
+            return findSortedResources()
+                .stream()
+                .filter(resourceClass::isInstance)
+                .map(resourceClass::cast);
+        }
+
+        return resourceIndex.findByClass(resourceClass).stream();
     }
 
     public Resource findResource(String name) {
@@ -378,10 +432,19 @@ public class RootScope extends FileScope {
                 resourceClass.getSimpleName()));
         }
 
-        return findResourcesByClass(resourceClass)
-            .filter(r -> id.equals(idField.getValue(r)))
-            .findFirst()
-            .orElseGet(() -> type.newExternal(this, id));
+        T resource;
+
+        if (rootResources) {
+            resource = findResourcesByClass(resourceClass)
+                .filter(r -> id.equals(idField.getValue(r)))
+                .findFirst()
+                .orElse(null);
+
+        } else {
+            resource = resourceIndex.findById(resourceClass, id);
+        }
+
+        return resource != null ? resource : type.newExternal(this, id);
     }
 
     public List<Node> load() {
@@ -404,6 +467,27 @@ public class RootScope extends FileScope {
     }
 
     public void evaluate() {
+        evaluate(Collections.emptyList(), Collections.emptySet());
+    }
+
+    /**
+     * Evaluates the given {@code changedFiles} again, along with the files
+     * whose values refer to the resources in them, and keeps the file
+     * scopes from the previous evaluation for the rest of the files.
+     *
+     * @return Names of the files that were evaluated again. Never {@code null}.
+     */
+    public Set<String> reevaluate(Set<String> changedFiles) {
+        Set<String> files = findReferringFiles(changedFiles);
+        List<FileScope> previousFileScopes = new ArrayList<>(fileScopes);
+
+        fileScopes.clear();
+        evaluate(previousFileScopes, files);
+
+        return files;
+    }
+
+    private void evaluate(List<FileScope> previousFileScopes, Set<String> changedFiles) {
         List<Node> nodes = load();
         Set<String> existingFiles;
 
@@ -411,6 +495,8 @@ public class RootScope extends FileScope {
             existingFiles = s.collect(Collectors.toCollection(LinkedHashSet::new));
         }
 
+        List<String> loadedFiles;
+
         if (getSettings(HighlanderSettings.class).isHighlander()) {
             int s = loadFiles.size();
 
@@ -421,20 +507,135 @@ public class RootScope extends FileScope {
                 throw new GyroException("Can't specify more than one file in highlander mode!");
 
             } else {
-                Optional.of(loadFiles.iterator().next())
+                loadedFiles = Optional.of(loadFiles.iterator().next())
                     .filter(existingFiles::contains)
-                    .ifPresent(f -> evaluateFile(f, nodes::add));
+                    .map(Collections::singletonList)
+                    .orElse(Collections.emptyList());
             }
 
         } else {
-            existingFiles.forEach(f -> evaluateFile(f, nodes::add));
+            loadedFiles = existingFiles.stream()
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toList());
         }
 
-        evaluator.evaluate(this, nodes);
+        Map<String, FileScope> keptFileScopes = new HashMap<>();
+
+        // Clear the file scopes that aren't kept first so that their
+        // resources are removed from the index before they're put again.
+        for (FileScope fileScope : previousFileScopes) {
+            String file = fileScope.getFile();
+
+            if (loadedFiles.contains(file) && !changedFiles.contains(file)) {
+                keptFileScopes.put(file, fileScope);
+
+            } else {
+                fileScope.clear();
+            }
+        }
+
+        List<Object> files = readFiles(loadedFiles.stream()
+            .filter(f -> !keptFileScopes.containsKey(f))
+            .collect(Collectors.toList()));
+
+        List<BinaryStateFile> stateFiles = new ArrayList<>();
+
+        for (Object file : files) {
+            if (file instanceof BinaryStateFile) {
+                stateFiles.add((BinaryStateFile) file);
+
+            } else {
+                nodes.add((FileNode) file);
+            }
+        }
+
+        // Binary state files are evaluated after the parsed files, so create
+        // the file scopes up front to keep them in the listed order.
+        if (!stateFiles.isEmpty() || !keptFileScopes.isEmpty()) {
+            for (String file : loadedFiles) {
+                FileScope fileScope = keptFileScopes.get(file);
+
+                getFileScopes().add(fileScope != null ? fileScope : new FileScope(this, file));
+            }
+        }
+
+        FinderReferenceResolver.prefetch(this, nodes);
+        evaluator.evaluate(this, nodes, stateFiles);
 
         processRootSettings();
     }
 
+    // Resources keep pointers to the resources that they refer to, so the
+    // files that refer to the changed files must be evaluated again too.
+    private Set<String> findReferringFiles(Set<String> changedFiles) {
+        Set<String> files = new HashSet<>(changedFiles);
+        boolean added;
+
+        do {
+            added = false;
+
+            for (FileScope fileScope : fileScopes) {
+                String file = fileScope.getFile();
+
+                if (!files.contains(file) && refersTo(fileScope, files)) {
+                    files.add(file);
+                    added = true;
+                }
+            }
+        } while (added);
+
+        return files;
+    }
+
+    private boolean refersTo(FileScope fileScope, Set<String> files) {
+        for (Object value : fileScope.values()) {
+
+            // Resources defined in the file only refer to others through
+            // their fields.
+            if (value instanceof Resource && isDefinedIn((Resource) value, fileScope)
+                ? refersTo((Diffable) value, files)
+                : refersTo(value, files)) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isDefinedIn(Resource resource, FileScope fileScope) {
+        DiffableScope scope = DiffableInternals.getScope(resource);
+
+        return scope != null && fileScope.getFile().equals(scope.getFileScope().getFile());
+    }
+
+    private boolean refersTo(Diffable diffable, Set<String> files) {
+        return DiffableType.getInstance(diffable)
+            .getFields()
+            .stream()
+            .anyMatch(f -> refersTo(f.getValue(diffable), files));
+    }
+
+    private boolean refersTo(Object value, Set<String> files) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().anyMatch(v -> refersTo(v, files));
+
+        } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).values().stream().anyMatch(v -> refersTo(v, files));
+
+        } else if (value instanceof Resource && DiffableType.getInstance((Resource) value).isRoot()) {
+            DiffableScope scope = DiffableInternals.getScope((Resource) value);
+
+            return scope != null && files.contains(scope.getFileScope().getFile());
+
+        } else if (value instanceof Diffable) {
+            return refersTo((Diffable) value, files);
+
+        } else {
+            return false;
+        }
+    }
+
     public void validate() {
         StringBuilder sb = new StringBuilder();
 
@@ -484,6 +685,28 @@ public class RootScope extends FileScope {
         return rootScope;
     }
 
+    /**
+     * Creates a new unevaluated root scope over the same files that reuses
+     * the contents already read by this one, except for the given
+     * {@code changedFiles} which are read again from the backend.
+     */
+    public RootScope reload(RootScope current, Set<String> changedFiles) {
+        RootScope rootScope = new RootScope(
+            getFile(),
+            getBackend(),
+            getRemoteStateBackend(),
+            current,
+            getLoadFiles());
+
+        contents.forEach((file, content) -> {
+            if (!changedFiles.contains(file)) {
+                rootScope.reloadedContents.put(file, content);
+            }
+        });
+
+        return rootScope;
+    }
+
     public void setWorkflow() {
         inWorkflow.set(true);
     }
@@ -493,8 +716,31 @@ public class RootScope extends FileScope {
             return;
         }
 
-        try (GyroInputStream input = openInput(file)) {
-            consumer.accept((FileNode) Node.parse(input, file, GyroParser::file));
+        consumer.accept(parseFile(file));
+    }
+
+    private FileNode parseFile(String file) {
+        return (FileNode) readFile(file);
+    }
+
+    // Returns either a FileNode or a BinaryStateFile depending on the content.
+    private Object readFile(String file) {
+        try {
+            // Reloaded contents are only used once so that evaluating this
+            // root scope again still sees the latest files.
+            byte[] content = reloadedContents.remove(file);
+
+            if (content == null) {
+                try (GyroInputStream input = openInput(file)) {
+                    content = ByteStreams.toByteArray(input);
+                }
+            }
+
+            contents.put(file, content);
+
+            return BinaryState.isBinary(content)
+                ? BinaryStateFile.read(file, content)
+                : NodeCache.getInstance().parse(file, content);
 
         } catch (IOException error) {
             throw new Bug(error);
@@ -506,6 +752,74 @@ public class RootScope extends FileScope {
         }
     }
 
+    // Reads the files concurrently since they're independent of each other,
+    // but returns them in the same order as the given files.
+    private List<Object> readFiles(Collection<String> files) {
+        List<String> nonBlankFiles = files.stream()
+            .filter(StringUtils::isNotBlank)
+            .collect(Collectors.toList());
+
+        int size = nonBlankFiles.size();
+
+        if (size < 2) {
+            return nonBlankFiles.stream()
+                .map(this::readFile)
+                .collect(Collectors.toList());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(size, Runtime.getRuntime().availableProcessors()));
+
+        try {
+            List<Future<Object>> futures = nonBlankFiles.stream()
+                .map(f -> executor.submit(() -> readFile(f)))
+                .collect(Collectors.toList());
+
+            List<Object> results = new ArrayList<>();
+            List<GyroException> syntaxErrors = new ArrayList<>();
+
+            for (Future<Object> future : futures) {
+                try {
+                    results.add(future.get());
+
+                } catch (ExecutionException error) {
+                    Throwable cause = error.getCause();
+
+                    if (cause instanceof GyroException && cause.getCause() instanceof SyntaxErrorException) {
+                        syntaxErrors.add((GyroException) cause);
+
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+
+                    } else {
+                        throw new Bug(cause);
+                    }
+
+                } catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                    throw new Bug(error);
+                }
+            }
+
+            if (syntaxErrors.size() == 1) {
+                throw syntaxErrors.get(0);
+
+            } else if (!syntaxErrors.isEmpty()) {
+                throw new SyntaxErrorsException(syntaxErrors.stream()
+                    .map(e -> (SyntaxErrorException) e.getCause())
+                    .collect(Collectors.toList()));
+            }
+
+            return results;
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private void processRootSettings() {
         getSettings(RootSettings.class).getProcessors().forEach(p -> {
             try {
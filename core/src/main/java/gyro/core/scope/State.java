@@ -16,26 +16,27 @@
 
 package gyro.core.scope;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
-import com.psddev.dari.util.IoUtils;
 import gyro.core.GyroException;
+import gyro.core.GyroOutputStream;
 import gyro.core.diff.Change;
 import gyro.core.diff.Delete;
 import gyro.core.diff.Replace;
@@ -44,16 +45,9 @@ import gyro.core.resource.DiffableField;
 import gyro.core.resource.DiffableInternals;
 import gyro.core.resource.DiffableType;
 import gyro.core.resource.Resource;
-import gyro.lang.ast.Node;
 import gyro.lang.ast.NodePrinter;
-import gyro.lang.ast.PairNode;
 import gyro.lang.ast.PrinterContext;
-import gyro.lang.ast.block.KeyBlockNode;
 import gyro.lang.ast.block.ResourceNode;
-import gyro.lang.ast.value.ListNode;
-import gyro.lang.ast.value.MapNode;
-import gyro.lang.ast.value.ReferenceNode;
-import gyro.lang.ast.value.ValueNode;
 import gyro.util.Bug;
 
 public class State {
@@ -62,15 +56,16 @@ public class State {
     private final boolean test;
     private final Map<String, FileScope> states = new HashMap<>();
     private final Map<String, String> newNames = new HashMap<>();
+    private final Set<String> dirtyFiles = new LinkedHashSet<>();
+    private final Map<String, Long> writtenFiles = new LinkedHashMap<>();
+    private long writes;
+    private final AtomicLong savedFiles = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
     private Boolean removeModifiedInField;
+    private StateFormat format;
 
     public State(RootScope current, RootScope pending, boolean test) {
-        this.root = new RootScope(
-            current.getFile(),
-            current.getBackend(),
-            current.getRemoteStateBackend(),
-            null,
-            current.getLoadFiles());
+        this.root = current.reload(null, Collections.emptySet());
 
         root.evaluate();
 
@@ -93,11 +88,75 @@ public class State {
         return test;
     }
 
-    public void setRemoveModifiedInField(Boolean removeModifiedInField) {
+    public synchronized void setRemoveModifiedInField(Boolean removeModifiedInField) {
+        if (!Objects.equals(this.removeModifiedInField, removeModifiedInField)) {
+
+            // Affects how every resource is written out.
+            dirtyFiles.addAll(states.keySet());
+        }
+
         this.removeModifiedInField = removeModifiedInField;
     }
 
-    public void update(Change change) {
+    /**
+     * @return Number of state files written by {@link #save()} so far.
+     */
+    public long getSavedFiles() {
+        return savedFiles.get();
+    }
+
+    /**
+     * @return Number of bytes written by {@link #save()} so far.
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * @return Names of the state files written or deleted by {@link #save()}
+     * so far. Never {@code null}.
+     */
+    public synchronized Set<String> getWrittenFiles() {
+        return new LinkedHashSet<>(writtenFiles.keySet());
+    }
+
+    /**
+     * @return Number of times that {@link #save()} wrote or deleted a state
+     * file so far.
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * @return Names of the state files written or deleted by {@link #save()}
+     * after the given number of {@code writes}. Never {@code null}.
+     */
+    public synchronized Set<String> getWrittenFilesSince(long writes) {
+        return writtenFiles.entrySet()
+            .stream()
+            .filter(e -> e.getValue() > writes)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Rewrites all state files in the given {@code format}.
+     */
+    public synchronized void convert(StateFormat format) {
+        this.format = format;
+
+        root.getFileScopes().forEach(this::markDirty);
+        save();
+    }
+
+    private void markDirty(FileScope state) {
+        if (state != null) {
+            dirtyFiles.add(state.getFile());
+        }
+    }
+
+    public synchronized void update(Change change) {
         if (change instanceof Replace) {
             return;
         }
@@ -110,26 +169,42 @@ public class State {
 
         Resource resource = (Resource) diffable;
         boolean typeRoot = DiffableType.getInstance(resource.getClass()).isRoot();
+        DiffableScope scope = DiffableInternals.getScope(resource);
+
+        // Changes usually set the id without putting the resource again.
+        if (scope != null) {
+            scope.getRootScope().updateResource(resource);
+        }
 
         // Delete goes through every state to remove the resource.
         if (change instanceof Delete) {
             if (typeRoot) {
                 String key = resource.primaryKey();
-                states.values().forEach(s -> s.remove(key));
+
+                for (FileScope state : states.values()) {
+                    if (state.remove(key) != null) {
+                        markDirty(state);
+                    }
+                }
 
             } else {
-                states.values()
-                    .stream()
-                    .flatMap(s -> s.values().stream())
-                    .filter(Resource.class::isInstance)
-                    .map(Resource.class::cast)
-                    .filter(r -> r.equals(resource.parentResource()))
-                    .forEach(r -> updateSubresource(r, resource, true));
+                Resource parent = resource.parentResource();
+
+                for (FileScope state : states.values()) {
+                    for (Object value : state.values()) {
+                        if (value instanceof Resource && value.equals(parent)) {
+                            updateSubresource((Resource) value, resource, true);
+                            markDirty(state);
+                        }
+                    }
+                }
             }
 
         } else {
             FileScope state = states.get(DiffableInternals.getScope(resource).getFileScope().getFile());
 
+            markDirty(state);
+
             if (typeRoot) {
                 String key = resource.primaryKey();
 
@@ -142,6 +217,7 @@ public class State {
 
                     if (state != oldState) {
                         oldState.remove(key);
+                        markDirty(oldState);
                     }
                 }
 
@@ -192,207 +268,148 @@ public class State {
         }
     }
 
-    public void save() {
+    /**
+     * Writes out the state files that were changed since the last save.
+     * Each file is fully serialized in memory first so that a conversion
+     * error never leaves a partially written file behind.
+     */
+    public synchronized void save() {
+        if (dirtyFiles.isEmpty()) {
+            return;
+        }
+
         NodePrinter printer = new NodePrinter();
+        StateNodes stateNodes = new StateNodes(newNames, Boolean.TRUE.equals(removeModifiedInField));
+        StateFormat format = this.format != null
+            ? this.format
+            : root.getSettings(StateFormatSettings.class).getFormat();
 
-        for (FileScope state : states.values()) {
-            String file = state.getFile();
+        for (String file : new ArrayList<>(dirtyFiles)) {
+            FileScope state = states.get(file);
 
-            List<Resource> resources = state.values()
-                .stream()
-                .filter(Resource.class::isInstance)
-                .map(Resource.class::cast)
-                .collect(Collectors.toList());
+            List<Resource> resources = state != null
+                ? state.values()
+                    .stream()
+                    .filter(Resource.class::isInstance)
+                    .map(Resource.class::cast)
+                    .collect(Collectors.toList())
+                : Collections.emptyList();
 
             if (!resources.isEmpty()) {
-                String tempFile = String.format("%s~", file);
-
-                try (PrintWriter out = new PrintWriter(
-                    new OutputStreamWriter(
-                        root.openOutput(tempFile),
-                        StandardCharsets.UTF_8))) {
-
-                    PrinterContext context = new PrinterContext(out, 0);
-
-                    for (Resource resource : resources) {
-                        printer.visit(
-                            new ResourceNode(
-                                DiffableType.getInstance(resource.getClass()).getName(),
-                                new ValueNode(newNames.getOrDefault(
-                                    resource.primaryKey(),
-                                    DiffableInternals.getName(resource))),
-                                toBodyNodes(resource, resource)),
-                            context);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+                List<ResourceNode> nodes = resources.stream()
+                    .map(stateNodes::toResourceNode)
+                    .collect(Collectors.toList());
+
+                if (format == StateFormat.BINARY) {
+                    BinaryStateWriter writer = new BinaryStateWriter();
+
+                    nodes.forEach(writer::write);
+
+                    try {
+                        writer.writeTo(bytes);
+
+                    } catch (IOException error) {
+                        throw new Bug(error);
                     }
 
-                } catch (IOException error) {
-                    throw new Bug(error);
+                } else {
+                    try (PrintWriter out = new PrintWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+                        PrinterContext context = new PrinterContext(out, 0);
+
+                        for (ResourceNode node : nodes) {
+                            printer.visit(node, context);
+                        }
+
+                    } catch (IOException error) {
+                        throw new Bug(error);
+                    }
                 }
 
-                try (InputStream in = root.openInput(tempFile); OutputStream out = root.openOutput(file)) {
-                    IoUtils.copy(in, out);
+                try (GyroOutputStream out = root.openOutput(file)) {
+                    bytes.writeTo(out);
 
-                    root.delete(tempFile);
                 } catch (IOException error) {
                     throw new Bug(error);
                 }
 
+                savedFiles.incrementAndGet();
+                savedBytes.addAndGet(bytes.size());
+
             } else {
                 root.delete(file);
             }
+
+            writtenFiles.put(file, ++writes);
+            dirtyFiles.remove(file);
         }
     }
 
-    private List<Node> toBodyNodes(Diffable diffable, Resource resource) {
-        List<Node> body = new ArrayList<>();
-        body.add(toPairNode("_configured-fields", DiffableInternals.getConfiguredFields(diffable), resource));
+    public synchronized void replace(Resource resource, Resource with) {
+        String resourceType = DiffableType.getInstance(resource.getClass()).getName();
+        String withType = DiffableType.getInstance(with.getClass()).getName();
 
-        if (!Boolean.TRUE.equals(removeModifiedInField)
-            && diffable.equals(resource)
-            && DiffableInternals.getModifiedIn(resource) != null) {
-            body.add(toPairNode("_modified-in", DiffableInternals.getModifiedIn(resource).toString(), resource));
+        if (!Objects.equals(resourceType, withType)) {
+            throw new GyroException(String.format(
+                "Can't replace a [%s] resource with a [%s] resource!",
+                resourceType,
+                withType));
         }
-        body.addAll(DiffableInternals.getScope(diffable).getStateNodes());
 
-        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
-            Object value = field.getValue(diffable);
+        String resourceKey = resource.primaryKey();
+        String withKey = with.primaryKey();
 
-            if (value == null) {
-                continue;
+        for (FileScope state : states.values()) {
+            if (state.remove(resourceKey) != null) {
+                markDirty(state);
             }
+        }
 
-            String key = field.getName();
-
-            if (value instanceof Boolean
-                || value instanceof Map
-                || value instanceof Number
-                || value instanceof String) {
-
-                body.add(toPairNode(key, value, resource));
-
-            } else if (value instanceof Date) {
-                body.add(toPairNode(key, value.toString(), resource));
-
-            } else if (value instanceof Enum<?>) {
-                body.add(toPairNode(key, ((Enum) value).name(), resource));
-
-            } else if (value instanceof Diffable) {
-                if (field.shouldBeDiffed()) {
-                    body.add(new KeyBlockNode(key, null, toBodyNodes((Diffable) value, resource)));
-
-                } else {
-                    body.add(toPairNode(key, value, resource));
-                }
-
-            } else if (value instanceof Collection) {
-                if (field.shouldBeDiffed()) {
-                    for (Object item : (Collection<?>) value) {
-                        body.add(new KeyBlockNode(key, null, toBodyNodes((Diffable) item, resource)));
-                    }
+        newNames.put(withKey, DiffableInternals.getName(resource));
 
-                } else {
-                    body.add(toPairNode(key, value, resource));
+        // Renaming changes the resource itself and every reference to it.
+        for (FileScope state : states.values()) {
+            for (Object value : state.values()) {
+                if (value == with || (value instanceof Diffable && references((Diffable) value, with))) {
+                    markDirty(state);
+                    break;
                 }
-
-            } else {
-                throw new GyroException(String.format(
-                    "Can't convert @|bold %s|@, an instance of @|bold %s|@, into a node!",
-                    value,
-                    value.getClass().getName()));
             }
         }
 
-        return body;
-    }
-
-    private PairNode toPairNode(Object key, Object value, Resource resource) {
-        return new PairNode(toNode(key, resource), toNode(value, resource));
+        save();
     }
 
-    private Node toNode(Object value, Resource self) {
-        if (value instanceof Boolean
-            || value instanceof Number
-            || value instanceof String) {
-
-            return new ValueNode(value);
-
-        } else if (value instanceof Enum<?>) {
-
-            return new ValueNode(((Enum) value).name());
-
-        } else if (value instanceof Collection) {
-            List<Node> items = new ArrayList<>();
-
-            for (Object item : (Collection<?>) value) {
-                if (item != null) {
-                    items.add(toNode(item, self));
-                }
+    private boolean references(Diffable diffable, Resource resource) {
+        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
+            if (references(field.getValue(diffable), resource)) {
+                return true;
             }
+        }
 
-            return new ListNode(items);
-
-        } else if (value instanceof Map) {
-            List<PairNode> entries = new ArrayList<>();
-
-            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
-                Object v = entry.getValue();
-
-                if (v != null) {
-                    entries.add(toPairNode(entry.getKey(), v, self));
-                }
-            }
+        return false;
+    }
 
-            return new MapNode(entries);
+    private boolean references(Object value, Resource resource) {
+        if (value == resource) {
+            return true;
 
         } else if (value instanceof Resource) {
-            Resource resource = (Resource) value;
-            DiffableType<Resource> type = DiffableType.getInstance(resource);
+            return false;
 
-            if (DiffableInternals.isExternal(resource)) {
-                return new ValueNode(type.getIdField().getValue(resource));
+        } else if (value instanceof Diffable) {
+            return references((Diffable) value, resource);
 
-            } else if (value == self) {
-                return new ReferenceNode(
-                    Collections.singletonList(new ValueNode("SELF")),
-                    Collections.emptyList(),
-                    Collections.emptyList());
+        } else if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().anyMatch(v -> references(v, resource));
 
-            } else {
-                return new ReferenceNode(
-                    Arrays.asList(
-                        new ValueNode(type.getName()),
-                        new ValueNode(newNames.getOrDefault(
-                            resource.primaryKey(),
-                            DiffableInternals.getName(resource)))),
-                    Collections.emptyList(),
-                    Collections.emptyList());
-            }
+        } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).values().stream().anyMatch(v -> references(v, resource));
 
         } else {
-            throw new GyroException(String.format(
-                "Can't convert @|bold %s|@, an instance of @|bold %s|@, into a node!",
-                value,
-                value.getClass().getName()));
+            return false;
         }
     }
 
-    public void replace(Resource resource, Resource with) {
-        String resourceType = DiffableType.getInstance(resource.getClass()).getName();
-        String withType = DiffableType.getInstance(with.getClass()).getName();
-
-        if (!Objects.equals(resourceType, withType)) {
-            throw new GyroException(String.format(
-                "Can't replace a [%s] resource with a [%s] resource!",
-                resourceType,
-                withType));
-        }
-
-        String resourceKey = resource.primaryKey();
-        String withKey = with.primaryKey();
-
-        states.values().forEach(s -> s.remove(resourceKey));
-        newNames.put(withKey, DiffableInternals.getName(resource));
-        save();
-    }
-
 }
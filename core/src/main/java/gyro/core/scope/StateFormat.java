@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.util.Locale;
+
+import gyro.core.GyroException;
+
+/**
+ * Format used to write state files.
+ */
+public enum StateFormat {
+
+    TEXT,
+    BINARY;
+
+    public static StateFormat fromString(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ENGLISH));
+
+        } catch (IllegalArgumentException error) {
+            throw new GyroException(String.format(
+                "@|bold %s|@ isn't a valid state format! Use @|bold text|@ or @|bold binary|@.",
+                name));
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import gyro.core.GyroException;
+import gyro.core.resource.Diffable;
+import gyro.core.resource.DiffableField;
+import gyro.core.resource.DiffableInternals;
+import gyro.core.resource.DiffableType;
+import gyro.core.resource.Resource;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.PairNode;
+import gyro.lang.ast.block.KeyBlockNode;
+import gyro.lang.ast.block.ResourceNode;
+import gyro.lang.ast.value.ListNode;
+import gyro.lang.ast.value.MapNode;
+import gyro.lang.ast.value.ReferenceNode;
+import gyro.lang.ast.value.ValueNode;
+
+/**
+ * Converts resources into the nodes that are written out to the state files.
+ */
+class StateNodes {
+
+    private final Map<String, String> newNames;
+    private final boolean removeModifiedInField;
+
+    public StateNodes(Map<String, String> newNames, boolean removeModifiedInField) {
+        this.newNames = newNames;
+        this.removeModifiedInField = removeModifiedInField;
+    }
+
+    public ResourceNode toResourceNode(Resource resource) {
+        return new ResourceNode(
+            DiffableType.getInstance(resource.getClass()).getName(),
+            new ValueNode(newNames.getOrDefault(resource.primaryKey(), DiffableInternals.getName(resource))),
+            toBodyNodes(resource, resource));
+    }
+
+    List<Node> toBodyNodes(Diffable diffable, Resource resource) {
+        List<Node> body = new ArrayList<>();
+        body.add(toPairNode("_configured-fields", DiffableInternals.getConfiguredFields(diffable), resource));
+
+        if (!removeModifiedInField
+            && diffable.equals(resource)
+            && DiffableInternals.getModifiedIn(resource) != null) {
+            body.add(toPairNode("_modified-in", DiffableInternals.getModifiedIn(resource).toString(), resource));
+        }
+        body.addAll(DiffableInternals.getScope(diffable).getStateNodes());
+
+        for (DiffableField field : DiffableType.getInstance(diffable.getClass()).getFields()) {
+            Object value = field.getValue(diffable);
+
+            if (value == null) {
+                continue;
+            }
+
+            String key = field.getName();
+
+            if (value instanceof Boolean
+                || value instanceof Map
+                || value instanceof Number
+                || value instanceof String) {
+
+                body.add(toPairNode(key, value, resource));
+
+            } else if (value instanceof Date) {
+                body.add(toPairNode(key, value.toString(), resource));
+
+            } else if (value instanceof Enum<?>) {
+                body.add(toPairNode(key, ((Enum) value).name(), resource));
+
+            } else if (value instanceof Diffable) {
+                if (field.shouldBeDiffed()) {
+                    body.add(new KeyBlockNode(key, null, toBodyNodes((Diffable) value, resource)));
+
+                } else {
+                    body.add(toPairNode(key, value, resource));
+                }
+
+            } else if (value instanceof Collection) {
+                if (field.shouldBeDiffed()) {
+                    for (Object item : (Collection<?>) value) {
+                        body.add(new KeyBlockNode(key, null, toBodyNodes((Diffable) item, resource)));
+                    }
+
+                } else {
+                    body.add(toPairNode(key, value, resource));
+                }
+
+            } else {
+                throw new GyroException(String.format(
+                    "Can't convert @|bold %s|@, an instance of @|bold %s|@, into a node!",
+                    value,
+                    value.getClass().getName()));
+            }
+        }
+
+        return body;
+    }
+
+    private PairNode toPairNode(Object key, Object value, Resource resource) {
+        return new PairNode(toNode(key, resource), toNode(value, resource));
+    }
+
+    private Node toNode(Object value, Resource self) {
+        if (value instanceof Boolean
+            || value instanceof Number
+            || value instanceof String) {
+
+            return new ValueNode(value);
+
+        } else if (value instanceof Enum<?>) {
+
+            return new ValueNode(((Enum) value).name());
+
+        } else if (value instanceof Collection) {
+            List<Node> items = new ArrayList<>();
+
+            for (Object item : (Collection<?>) value) {
+                if (item != null) {
+                    items.add(toNode(item, self));
+                }
+            }
+
+            return new ListNode(items);
+
+        } else if (value instanceof Map) {
+            List<PairNode> entries = new ArrayList<>();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object v = entry.getValue();
+
+                if (v != null) {
+                    entries.add(toPairNode(entry.getKey(), v, self));
+                }
+            }
+
+            return new MapNode(entries);
+
+        } else if (value instanceof Resource) {
+            Resource resource = (Resource) value;
+            DiffableType<Resource> type = DiffableType.getInstance(resource);
+
+            if (DiffableInternals.isExternal(resource)) {
+                return new ValueNode(type.getIdField().getValue(resource));
+
+            } else if (value == self) {
+                return new ReferenceNode(
+                    Collections.singletonList(new ValueNode("SELF")),
+                    Collections.emptyList(),
+                    Collections.emptyList());
+
+            } else {
+                return new ReferenceNode(
+                    Arrays.asList(
+                        new ValueNode(type.getName()),
+                        new ValueNode(newNames.getOrDefault(
+                            resource.primaryKey(),
+                            DiffableInternals.getName(resource)))),
+                    Collections.emptyList(),
+                    Collections.emptyList());
+            }
+
+        } else {
+            throw new GyroException(String.format(
+                "Can't convert @|bold %s|@, an instance of @|bold %s|@, into a node!",
+                value,
+                value.getClass().getName()));
+        }
+    }
+
+}
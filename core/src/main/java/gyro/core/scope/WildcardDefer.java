@@ -20,8 +20,21 @@ import gyro.lang.ast.Node;
 
 class WildcardDefer extends Defer {
 
+    private final String key;
+
     public WildcardDefer(Node node, String type) {
         super(node, String.format("Can't resolve wildcard reference to @|bold %s|@ type!", type));
+
+        this.key = getKey(type);
+    }
+
+    static String getKey(String type) {
+        return type + "::*";
+    }
+
+    @Override
+    String getAwaitedKey() {
+        return key;
     }
 
 }
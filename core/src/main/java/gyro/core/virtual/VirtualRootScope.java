@@ -21,7 +21,10 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import gyro.core.GyroException;
+import gyro.core.resource.DiffableField;
 import gyro.core.resource.DiffableInternals;
+import gyro.core.resource.DiffableType;
 import gyro.core.resource.Resource;
 import gyro.core.scope.RootScope;
 
@@ -70,6 +73,28 @@ public class VirtualRootScope extends RootScope {
             .filter(r -> DiffableInternals.getName(r).startsWith(virtualName));
     }
 
+    @Override
+    public <T extends Resource> T findResourceById(Class<T> resourceClass, Object id) {
+        if (id == null) {
+            return null;
+        }
+
+        DiffableType<T> type = DiffableType.getInstance(resourceClass);
+        DiffableField idField = type.getIdField();
+
+        if (idField == null) {
+            throw new GyroException(String.format(
+                "Unable to find @Id on a getter in %s",
+                resourceClass.getSimpleName()));
+        }
+
+        // Other virtual resources can share the id so filter before picking.
+        return findResourcesByClass(resourceClass)
+            .filter(r -> id.equals(idField.getValue(r)))
+            .findFirst()
+            .orElseGet(() -> type.newExternal(this, id));
+    }
+
     @Override
     public void evaluate() {
         throw new UnsupportedOperationException();
@@ -30,6 +30,8 @@ import gyro.core.Abort;
 import gyro.core.GyroOutputStream;
 import gyro.core.GyroUI;
 import gyro.core.diff.Diff;
+import gyro.core.diff.Keep;
+import gyro.core.reference.FinderReferenceResolver;
 import gyro.core.resource.DiffableInternals;
 import gyro.core.resource.DiffableType;
 import gyro.core.resource.Resource;
@@ -149,7 +151,20 @@ public class Stage {
             )).getBytes(StandardCharsets.UTF_8));
         }
 
-        diff.execute(ui, state);
+        try {
+            diff.execute(ui, state);
+
+        } finally {
+
+            // External queries for the changed types may find different
+            // resources now.
+            diff.getChanges()
+                .stream()
+                .filter(c -> !(c instanceof Keep) || c.getDiffs().stream().anyMatch(Diff::hasChanges))
+                .map(c -> DiffableType.getInstance(c.getDiffable()).getName())
+                .distinct()
+                .forEach(FinderReferenceResolver::bustCache);
+        }
     }
 
     public Stage prompt(GyroUI ui, State state, RootScope currentRootScope) {
@@ -20,9 +20,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Preconditions;
@@ -137,12 +139,16 @@ public class Workflow {
             stage = stages.values().iterator().next();
         }
 
-        // TODO: optimize performance.
+        // Changes made before the workflow may affect any query. After that,
+        // each stage only busts the types that it changed.
+        FinderReferenceResolver.bustCache();
+
+        RootScope pending = null;
+        long writes = 0;
+
         while (stage != null) {
             ui.write("\n@|magenta · Executing %s stage|@\n", stage.getName());
 
-            FinderReferenceResolver.bustCache();
-
             if (ui.isVerbose()) {
                 ui.write("\n");
             }
@@ -160,7 +166,13 @@ public class Workflow {
                 executedStages.add(stage);
             }
 
-            RootScope pending = copyRootScope();
+            // After the first stage, only the state files written since the
+            // previous stage and the files with the resources that the stages
+            // modify are evaluated again.
+            Set<String> writtenFiles = state.getWrittenFilesSince(writes);
+
+            writes = state.getWrites();
+            pending = pending != null ? reevaluateRootScope(pending, writtenFiles) : copyRootScope();
 
             List<String> toBeRemoved = new ArrayList<>();
             List<ReplaceResource> toBeReplaced = new ArrayList<>();
@@ -254,6 +266,34 @@ public class Workflow {
         return pending;
     }
 
+    private RootScope reevaluateRootScope(RootScope pending, Set<String> writtenFiles) {
+        RootScope current = pending.getCurrent();
+        Set<String> currentFiles = new HashSet<>(writtenFiles);
+
+        currentFiles.addAll(findModifiedInFiles(current));
+
+        // Pending resources copy the values from the current resources in
+        // the state files with the same names.
+        Set<String> pendingFiles = new HashSet<>(current.reevaluate(currentFiles));
+
+        pendingFiles.addAll(findModifiedInFiles(pending));
+        pending.reevaluate(pendingFiles);
+
+        restoreModifiedInValues(pending);
+
+        return pending;
+    }
+
+    private Set<String> findModifiedInFiles(RootScope root) {
+        return root.getFileScopes()
+            .stream()
+            .filter(f -> f.values()
+                .stream()
+                .anyMatch(v -> v instanceof Resource && DiffableInternals.getModifiedIn((Diffable) v) != null))
+            .map(FileScope::getFile)
+            .collect(Collectors.toSet());
+    }
+
     public FileScope getFileScope() {
         return this.fileScope;
     }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.Mockito.*;
+
+class BufferedGyroUITest {
+
+    @Test
+    void flush() {
+        GyroUI delegate = mock(GyroUI.class);
+        BufferedGyroUI ui = new BufferedGyroUI(delegate);
+
+        ui.write("foo %s\n", 1);
+        ui.indent();
+        ui.write("bar\n");
+        ui.unindent();
+
+        verifyZeroInteractions(delegate);
+
+        ui.flush();
+
+        InOrder order = inOrder(delegate);
+
+        order.verify(delegate).write("%s", "foo 1\n");
+        order.verify(delegate).indent();
+        order.verify(delegate).write("%s", "bar\n");
+        order.verify(delegate).unindent();
+    }
+
+    @Test
+    void flushOnlyOnce() {
+        GyroUI delegate = mock(GyroUI.class);
+        BufferedGyroUI ui = new BufferedGyroUI(delegate);
+
+        ui.write("foo");
+        ui.flush();
+        ui.flush();
+
+        verify(delegate, times(1)).write("%s", "foo");
+    }
+
+    @Test
+    void readTextFlushesFirst() {
+        GyroUI delegate = mock(GyroUI.class);
+        BufferedGyroUI ui = new BufferedGyroUI(delegate);
+
+        ui.write("foo");
+        ui.readText("bar");
+
+        InOrder order = inOrder(delegate);
+
+        order.verify(delegate).write("%s", "foo");
+        order.verify(delegate).readText("bar");
+    }
+
+}
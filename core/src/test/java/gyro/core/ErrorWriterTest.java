@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core;
+
+import gyro.core.scope.Defer;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.Mockito.*;
+
+class ErrorWriterTest {
+
+    @Test
+    void writeDefer() {
+        GyroUI ui = mock(GyroUI.class);
+
+        ErrorWriter.write(ui, new Defer(null, "foo", new Defer(null, "bar")));
+
+        InOrder order = inOrder(ui);
+
+        order.verify(ui).write("@|red Error:|@ %s\n", "foo");
+        order.verify(ui).write("\n@|red Caused by:|@ ");
+        order.verify(ui).write("@|red Error:|@ %s\n", "bar");
+    }
+
+    @Test
+    void writeGyroExceptionWithDeferCause() {
+        GyroUI ui = mock(GyroUI.class);
+
+        ErrorWriter.write(ui, new GyroException("foo", new Defer(null, "bar")));
+
+        InOrder order = inOrder(ui);
+
+        order.verify(ui).write("@|red Error:|@ %s\n", "foo");
+        order.verify(ui).write("\n@|red Caused by:|@ ");
+        order.verify(ui).write("@|red Error:|@ %s\n", "bar");
+    }
+
+}
@@ -17,6 +17,7 @@
 package gyro.core;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
@@ -41,4 +42,54 @@ class WaitTest {
     void until() {
         assertThat(Wait.until(() -> true)).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void backoff() {
+        AtomicInteger checks = new AtomicInteger();
+
+        assertThat(Wait.atMost(1, TimeUnit.SECONDS)
+            .checkEvery(10, TimeUnit.MILLISECONDS)
+            .maxCheckEvery(200, TimeUnit.MILLISECONDS)
+            .prompt(false)
+            .until(() -> {
+                checks.incrementAndGet();
+                return false;
+            })).isFalse();
+
+        // A fixed 10ms interval would check about 100 times.
+        assertThat(checks.get()).isLessThan(30);
+    }
+
+    @Test
+    void untilAsync() throws Exception {
+        AtomicInteger checks = new AtomicInteger();
+
+        assertThat(Wait.checkEvery(10, TimeUnit.MILLISECONDS)
+            .untilAsync(() -> checks.incrementAndGet() >= 3)
+            .get()).isTrue();
+
+        assertThat(checks.get()).isEqualTo(3);
+    }
+
+    @Test
+    void failedCheck() {
+        assertThatExceptionOfType(GyroException.class)
+            .isThrownBy(() -> Wait.until(() -> {
+                throw new IllegalStateException();
+            }))
+            .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void failedCheckWithError() {
+        AssertionError error = new AssertionError();
+
+        assertThatExceptionOfType(AssertionError.class)
+            .isThrownBy(() -> Wait.atMost(1, TimeUnit.SECONDS)
+                .prompt(false)
+                .until(() -> {
+                    throw error;
+                }))
+            .isSameAs(error);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.audit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import gyro.core.GyroException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AuditDispatcherTest {
+
+    @Test
+    void submit() {
+        TestAuditor auditor = new TestAuditor();
+        AuditDispatcher dispatcher = new AuditDispatcher(() -> Collections.singleton(auditor), 16);
+
+        dispatcher.submit("a", false);
+        dispatcher.submit("b", false);
+        dispatcher.submit("c", true);
+        dispatcher.submit("d", false);
+        dispatcher.flush();
+
+        assertThat(auditor.outputs).containsExactly("ab", "c!", "d");
+    }
+
+    @Test
+    void submitSpill() {
+        CountDownLatch latch = new CountDownLatch(1);
+        TestAuditor auditor = new TestAuditor(latch);
+        AuditDispatcher dispatcher = new AuditDispatcher(() -> Collections.singleton(auditor), 4);
+        List<String> outputs = IntStream.range(0, 100).mapToObj(i -> i + ",").collect(Collectors.toList());
+
+        dispatcher.submit(outputs.get(0), true);
+
+        // The auditor is stuck, so everything after the first few outputs
+        // has to be spilled.
+        outputs.subList(1, outputs.size()).forEach(o -> dispatcher.submit(o, false));
+        latch.countDown();
+        dispatcher.flush();
+
+        assertThat(String.join("", auditor.outputs).replace("!", "")).isEqualTo(String.join("", outputs));
+    }
+
+    @Test
+    void setPaused() {
+        TestAuditor auditor = new TestAuditor();
+        AuditDispatcher dispatcher = new AuditDispatcher(() -> Collections.singleton(auditor), 2);
+
+        dispatcher.setPaused(true);
+        dispatcher.submit("a", false);
+        dispatcher.submit("b", false);
+        dispatcher.submit("c", false);
+        dispatcher.flush();
+
+        assertThat(auditor.outputs).isEmpty();
+
+        dispatcher.setPaused(false);
+        dispatcher.flush();
+
+        assertThat(String.join("", auditor.outputs)).isEqualTo("abc");
+    }
+
+    @Test
+    void flushError() {
+        TestAuditor auditor = new TestAuditor();
+        AuditDispatcher dispatcher = new AuditDispatcher(() -> Collections.singleton(auditor), 16);
+
+        auditor.error = true;
+
+        dispatcher.submit("a", false);
+
+        assertThatExceptionOfType(GyroException.class)
+            .isThrownBy(dispatcher::flush)
+            .withMessage("foo");
+    }
+
+    static class TestAuditor implements GyroAuditor {
+
+        final List<String> outputs = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch;
+        boolean error;
+
+        TestAuditor() {
+            this(new CountDownLatch(0));
+        }
+
+        TestAuditor(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void start(Map<String, Object> log) {
+        }
+
+        @Override
+        public void append(String output, boolean replace) throws Exception {
+            latch.await();
+
+            if (error) {
+                throw new IllegalStateException("foo");
+            }
+
+            outputs.add(replace ? output + "!" : output);
+        }
+
+        @Override
+        public void finish(Map<String, Object> log, boolean success) {
+        }
+
+        @Override
+        public boolean isStarted() {
+            return true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+    }
+
+}
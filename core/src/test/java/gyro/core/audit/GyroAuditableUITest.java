@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.audit;
+
+import java.util.Map;
+
+import gyro.core.GyroException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GyroAuditableUITest {
+
+    @AfterEach
+    void afterEach() {
+        GyroAuditor.AUDITOR_BY_NAME.clear();
+    }
+
+    @Test
+    void finishAuditorsAfterFlushError() {
+        TestAuditor auditor = new TestAuditor();
+        TestUI ui = new TestUI();
+
+        GyroAuditor.AUDITOR_BY_NAME.put("test", auditor);
+        ui.write("foo");
+
+        assertThatExceptionOfType(GyroException.class)
+            .isThrownBy(() -> ui.finishAuditors(null, true))
+            .withMessage("foo");
+
+        assertThat(auditor.finished).isTrue();
+    }
+
+    static class TestAuditor implements GyroAuditor {
+
+        volatile boolean finished;
+
+        @Override
+        public void start(Map<String, Object> log) {
+        }
+
+        @Override
+        public void append(String output, boolean replace) {
+            throw new IllegalStateException("foo");
+        }
+
+        @Override
+        public void finish(Map<String, Object> log, boolean success) {
+            finished = true;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+
+    static class TestUI extends GyroAuditableUI {
+
+        @Override
+        public String doWrite(String message, Object... arguments) {
+            return String.format(message, arguments);
+        }
+
+        @Override
+        public String doReplace(String message, Object... arguments) {
+            return String.format(message, arguments);
+        }
+
+        @Override
+        public boolean isVerbose() {
+            return false;
+        }
+
+        @Override
+        public void setVerbose(boolean verbose) {
+        }
+
+        @Override
+        public boolean readBoolean(Boolean defaultValue, String message, Object... arguments) {
+            return false;
+        }
+
+        @Override
+        public void readEnter(String message, Object... arguments) {
+        }
+
+        @Override
+        public <E extends Enum<E>> E readNamedOption(E options) {
+            return options;
+        }
+
+        @Override
+        public String readPassword(String message, Object... arguments) {
+            return null;
+        }
+
+        @Override
+        public String readText(String message, Object... arguments) {
+            return null;
+        }
+
+        @Override
+        public void indent() {
+        }
+
+        @Override
+        public void unindent() {
+        }
+
+        @Override
+        public boolean isIndented() {
+            return false;
+        }
+    }
+
+}
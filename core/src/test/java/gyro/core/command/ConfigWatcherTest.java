@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.command;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConfigWatcherTest {
+
+    Path directory;
+    ConfigWatcher watcher;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        directory = Files.createTempDirectory("gyro-config-watcher");
+
+        Files.createDirectories(directory.resolve(".gyro/state"));
+        write("main.gyro");
+
+        watcher = new ConfigWatcher(directory);
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        watcher.close();
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void take() throws Exception {
+        write("main.gyro");
+        write("notes.txt");
+
+        assertThat(watcher.take()).containsExactly("main.gyro");
+    }
+
+    @Test
+    void takeIgnoresGyroDirectory() throws Exception {
+        write(".gyro/state/main.gyro");
+        write("other.gyro");
+
+        assertThat(watcher.take()).containsExactly("other.gyro");
+    }
+
+    @Test
+    void takeNewDirectory() throws Exception {
+        write("sub/new.gyro");
+
+        assertThat(watcher.take()).containsExactly(Paths.get("sub", "new.gyro").toString());
+
+        write("sub/new.gyro");
+
+        assertThat(watcher.take()).containsExactly(Paths.get("sub", "new.gyro").toString());
+    }
+
+    @Test
+    void takeDeleted() throws Exception {
+        Files.delete(directory.resolve("main.gyro"));
+
+        assertThat(watcher.take()).containsExactly("main.gyro");
+    }
+
+    void write(String file) throws IOException {
+        Path path = directory.resolve(file);
+
+        Files.createDirectories(path.getParent());
+        Files.write(path, file.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import gyro.core.GyroException;
+import gyro.core.GyroUI;
+import gyro.core.Namespace;
+import gyro.core.Type;
+import gyro.core.resource.DiffableInternals;
+import gyro.core.resource.Resource;
+import gyro.core.scope.State;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ParallelExecutorTest {
+
+    List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    GyroUI ui = mock(GyroUI.class, invocation -> {
+        if (invocation.getMethod().getName().equals("write")) {
+            Object[] arguments = invocation.getArguments();
+
+            messages.add(String.format((String) arguments[0], Arrays.copyOfRange(arguments, 1, arguments.length)));
+        }
+
+        return Answers.RETURNS_DEFAULTS.answer(invocation);
+    });
+
+    @Test
+    void executeDependenciesFirst() {
+        TestResource foo = new TestResource("foo");
+        TestResource bar = new TestResource("bar");
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+        bar.setDependency(foo);
+
+        new ParallelExecutor(ui, 4).execute(
+            changes(new Create(bar), new Create(foo)),
+            false,
+            (u, c) -> executed.add(DiffableInternals.getName(c.getDiffable())));
+
+        assertThat(executed).containsExactly("foo", "bar");
+    }
+
+    @Test
+    void executeReverse() {
+        TestResource foo = new TestResource("foo");
+        TestResource bar = new TestResource("bar");
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+        bar.setDependency(foo);
+
+        new ParallelExecutor(ui, 4).execute(
+            changes(new Delete(foo), new Delete(bar)),
+            true,
+            (u, c) -> executed.add(DiffableInternals.getName(c.getDiffable())));
+
+        assertThat(executed).containsExactly("bar", "foo");
+    }
+
+    @Test
+    void executeFailureStopsDependents() {
+        TestResource foo = new TestResource("foo");
+        TestResource bar = new TestResource("bar");
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+        bar.setDependency(foo);
+
+        BiConsumer<GyroUI, Change> action = (u, c) -> {
+            String name = DiffableInternals.getName(c.getDiffable());
+
+            executed.add(name);
+
+            if (name.equals("foo")) {
+                throw new GyroException("foo");
+            }
+        };
+
+        assertThatExceptionOfType(GyroException.class)
+            .isThrownBy(() -> new ParallelExecutor(ui, 4).execute(
+                changes(new Create(bar), new Create(foo)),
+                false,
+                action))
+            .withMessage("foo");
+
+        assertThat(executed).containsExactly("foo");
+    }
+
+    @Test
+    void executeGroupsOutput() {
+        TestResource foo = new TestResource("foo");
+        TestResource bar = new TestResource("bar");
+
+        new ParallelExecutor(ui, 2).execute(
+            changes(new Create(foo), new Create(bar)),
+            false,
+            (u, c) -> {
+                String name = DiffableInternals.getName(c.getDiffable());
+
+                u.write(name + "1");
+
+                try {
+                    Thread.sleep(50);
+
+                } catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                }
+
+                u.write(name + "2");
+            });
+
+        assertThat(messages).hasSize(4);
+        assertThat(messages.indexOf("foo2")).isEqualTo(messages.indexOf("foo1") + 1);
+        assertThat(messages.indexOf("bar2")).isEqualTo(messages.indexOf("bar1") + 1);
+    }
+
+    @Test
+    void findDependenciesWithSamePrimaryKey() {
+        TestResource currentFoo = new TestResource("foo");
+        TestResource pendingFoo = new TestResource("foo");
+        TestResource bar = new TestResource("bar");
+
+        bar.setDependency(pendingFoo);
+
+        Change create = new Create(pendingFoo);
+        Change delete = new Delete(currentFoo);
+        Change createBar = new Create(bar);
+
+        Map<Change, Set<Change>> dependencies = new ParallelExecutor(ui, 4)
+            .findDependencies(changes(create, delete, createBar));
+
+        assertThat(dependencies.get(createBar)).containsExactly(create);
+    }
+
+    List<Change> changes(Change... changes) {
+        for (Change change : changes) {
+            DiffableInternals.setChange(change.getDiffable(), change);
+        }
+
+        return Arrays.asList(changes);
+    }
+
+    @Namespace("test")
+    @Type("parallel")
+    public static class TestResource extends Resource {
+
+        private TestResource dependency;
+
+        public TestResource() {
+        }
+
+        public TestResource(String name) {
+            DiffableInternals.setName(this, name);
+        }
+
+        public TestResource getDependency() {
+            return dependency;
+        }
+
+        public void setDependency(TestResource dependency) {
+            this.dependency = dependency;
+        }
+
+        @Override
+        public boolean refresh() {
+            return false;
+        }
+
+        @Override
+        public void create(GyroUI ui, State state) {
+        }
+
+        @Override
+        public void update(GyroUI ui, State state, Resource current, Set<String> changedFieldNames) {
+        }
+
+        @Override
+        public void delete(GyroUI ui, State state) {
+        }
+    }
+
+}
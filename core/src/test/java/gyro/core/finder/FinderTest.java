@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.finder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import gyro.core.Namespace;
+import gyro.core.Type;
+import gyro.core.scope.TestResource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FinderTest {
+
+    @Test
+    void findBatchLocally() {
+        TestFinder finder = new TestFinder();
+        List<List<TestResource>> results = finder.findBatch(filters("foo", 5));
+
+        assertThat(finder.findAllCalls).isEqualTo(1);
+        assertThat(finder.findCalls).isEqualTo(0);
+        assertThat(results).hasSize(5);
+        assertThat(results.get(2)).extracting(TestResource::getFoo).containsExactly("foo2");
+    }
+
+    @Test
+    void findBatchUnderThreshold() {
+        TestFinder finder = new TestFinder();
+        List<List<TestResource>> results = finder.findBatch(filters("foo", 2));
+
+        assertThat(finder.findAllCalls).isEqualTo(0);
+        assertThat(finder.findCalls).isEqualTo(2);
+        assertThat(results.get(1)).extracting(TestResource::getFoo).containsExactly("foo1");
+    }
+
+    @Test
+    void findBatchUnknownField() {
+        TestFinder finder = new TestFinder();
+
+        finder.findBatch(filters("bar", 5));
+
+        assertThat(finder.findAllCalls).isEqualTo(0);
+        assertThat(finder.findCalls).isEqualTo(5);
+    }
+
+    @Test
+    void findBatchWildcard() {
+        TestFinder finder = new TestFinder();
+        List<Map<String, Object>> filters = new ArrayList<>(filters("foo", 4));
+
+        filters.add(Collections.singletonMap("foo", "foo*"));
+        finder.findBatch(filters);
+
+        assertThat(finder.findAllCalls).isEqualTo(0);
+        assertThat(finder.findCalls).isEqualTo(5);
+    }
+
+    private List<Map<String, Object>> filters(String key, int size) {
+        return IntStream.range(0, size)
+            .mapToObj(i -> Collections.<String, Object>singletonMap(key, "foo" + i))
+            .collect(Collectors.toList());
+    }
+
+    @Namespace("test")
+    @Type("resource")
+    public static class TestFinder extends Finder<TestResource> {
+
+        int findAllCalls;
+        int findCalls;
+
+        @Override
+        public List<TestResource> findAll() {
+            ++findAllCalls;
+
+            return IntStream.range(0, 10)
+                .mapToObj(i -> {
+                    TestResource resource = new TestResource("r" + i);
+                    resource.setFoo("foo" + i);
+                    return resource;
+                })
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<TestResource> find(Map<String, Object> filters) {
+            ++findCalls;
+
+            TestResource resource = new TestResource("found");
+            resource.setFoo((String) filters.values().iterator().next());
+            return Arrays.asList(resource);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PluginClassIndexTest {
+
+    Path directory;
+    File jar;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        directory = Files.createTempDirectory("gyro-plugin-class-index");
+        jar = directory.resolve("plugin.jar").toFile();
+
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            for (Class<?> c : Arrays.asList(Plugin.class, TestPlugin.class, TestExceptionPlugin.class)) {
+                String name = c.getName().replace('.', '/') + ".class";
+
+                output.putNextEntry(new JarEntry(name));
+
+                try (InputStream input = c.getClassLoader().getResourceAsStream(name)) {
+                    ByteStreams.copy(input, output);
+                }
+
+                output.closeEntry();
+            }
+        }
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    List<Path> indexFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(directory.resolve("classes"))) {
+            return paths.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void load() throws Exception {
+        PluginClassIndex index = PluginClassIndex.load(directory.resolve("classes"), jar, getClass().getClassLoader());
+
+        assertThat(index.findClassNames(types -> types.contains(Plugin.class.getName())))
+            .containsExactly(TestExceptionPlugin.class.getName(), TestPlugin.class.getName());
+
+        assertThat(indexFiles()).hasSize(1);
+    }
+
+    @Test
+    void loadFromIndexFile() throws Exception {
+        PluginClassIndex.load(directory.resolve("classes"), jar, getClass().getClassLoader());
+
+        Path indexFile = indexFiles().get(0);
+        String version = Files.readAllLines(indexFile, StandardCharsets.UTF_8).get(0);
+
+        Files.write(indexFile, Arrays.asList(version, "gyro.Indexed gyro.Type"), StandardCharsets.UTF_8);
+
+        PluginClassIndex index = PluginClassIndex.load(directory.resolve("classes"), jar, getClass().getClassLoader());
+
+        assertThat(index.findClassNames(types -> types.contains("gyro.Type"))).containsExactly("gyro.Indexed");
+    }
+
+    @Test
+    void loadAfterJarChange() throws Exception {
+        PluginClassIndex.load(directory.resolve("classes"), jar, getClass().getClassLoader());
+
+        try (OutputStream output = Files.newOutputStream(jar.toPath())) {
+            new JarOutputStream(output).close();
+        }
+
+        PluginClassIndex index = PluginClassIndex.load(directory.resolve("classes"), jar, getClass().getClassLoader());
+
+        assertThat(index.findClassNames(types -> true)).isEmpty();
+        assertThat(indexFiles()).hasSize(2);
+    }
+
+}
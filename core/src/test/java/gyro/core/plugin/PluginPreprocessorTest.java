@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.plugin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import gyro.core.FileBackend;
+import gyro.core.GyroCore;
+import gyro.core.GyroUI;
+import gyro.core.scope.RootScope;
+import gyro.lang.ast.Node;
+import gyro.parser.antlr4.GyroParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PluginPreprocessorTest {
+
+    Path home;
+    Path repository;
+    String oldHome;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        home = Files.createTempDirectory("gyro-plugin-preprocessor");
+        repository = home.resolve("repository");
+        oldHome = System.getProperty("user.home");
+
+        System.setProperty("user.home", home.toString());
+        GyroCore.pushUi(mock(GyroUI.class));
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        GyroCore.popUi();
+        System.setProperty("user.home", oldHome);
+
+        try (Stream<Path> paths = Files.walk(home)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    void deploy(String artifactId, String version, String dependency) throws IOException {
+        Path directory = repository.resolve("gyro/test").resolve(artifactId).resolve(version);
+        String name = artifactId + "-" + version;
+
+        Files.createDirectories(directory);
+
+        try (OutputStream output = Files.newOutputStream(directory.resolve(name + ".jar"))) {
+            new JarOutputStream(output).close();
+        }
+
+        String dependencies = dependency != null
+            ? "<dependencies><dependency><groupId>gyro.test</groupId><artifactId>common</artifactId><version>"
+                + dependency + "</version></dependency></dependencies>"
+            : "";
+
+        Files.write(directory.resolve(name + ".pom"), Arrays.asList(
+            "<project><modelVersion>4.0.0</modelVersion>",
+            "<groupId>gyro.test</groupId><artifactId>" + artifactId + "</artifactId><version>" + version + "</version>",
+            dependencies,
+            "</project>"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void preprocessFromFileRepository() throws IOException {
+        deploy("common", "1.0", null);
+        deploy("common", "2.0", null);
+        deploy("plugin-a", "1.0", "2.0");
+        deploy("plugin-b", "1.0", "1.0");
+
+        RootScope root = new RootScope("", mock(FileBackend.class), null, null);
+
+        List<Node> nodes = Stream.of(
+            "@repository: '" + repository.toUri() + "'",
+            "@plugin: 'gyro.test:plugin-a:1.0'",
+            "@plugin: 'gyro.test:plugin-b:1.0'")
+            .map(text -> Node.parse(text, GyroParser::directive))
+            .collect(Collectors.toList());
+
+        new PluginPreprocessor().preprocess(nodes, root);
+
+        PluginSettings settings = root.getSettings(PluginSettings.class);
+        Path cachePath = settings.getCachePath();
+
+        assertThat(settings.pluginInitialized("gyro.test:plugin-a:1.0")).isTrue();
+        assertThat(settings.pluginInitialized("gyro.test:plugin-b:1.0")).isTrue();
+
+        assertThat(Files.readAllLines(cachePath.resolve("info")))
+            .extracting(line -> line.split(" ")[0])
+            .containsExactly("gyro.test:plugin-a:1.0", "gyro.test:plugin-b:1.0");
+
+        assertThat(Files.readAllLines(cachePath.resolve("deps")))
+            .anyMatch(line -> line.endsWith("common-2.0.jar"))
+            .noneMatch(line -> line.endsWith("common-1.0.jar"));
+    }
+}
@@ -16,9 +16,26 @@
 
 package gyro.core.plugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
 import com.psddev.test.AbstractBeanTest;
 import com.psddev.test.BeanProperty;
+import gyro.core.scope.RootScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.*;
@@ -26,6 +43,49 @@ import static org.assertj.core.api.Assertions.*;
 @BeanProperty(name = "call", getter = false)
 class PluginSettingsTest extends AbstractBeanTest<PluginSettings> {
 
+    Path directory;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        directory = Files.createTempDirectory("gyro-plugin-settings");
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    PluginClassIndex index(String name, Class<?>... classes) throws Exception {
+        File jar = directory.resolve(name + ".jar").toFile();
+
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            for (Class<?> c : classes) {
+                String entryName = c.getName().replace('.', '/') + ".class";
+
+                output.putNextEntry(new JarEntry(entryName));
+
+                try (InputStream input = c.getClassLoader().getResourceAsStream(entryName)) {
+                    ByteStreams.copy(input, output);
+                }
+
+                output.closeEntry();
+            }
+        }
+
+        return PluginClassIndex.load(directory.resolve("classes"), jar, getClass().getClassLoader());
+    }
+
+    Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, false, getClass().getClassLoader());
+
+        } catch (ClassNotFoundException error) {
+            throw new IllegalStateException(error);
+        }
+    }
+
     @Test
     void addClasses() throws Exception {
         PluginSettings settings = new PluginSettings();
@@ -63,6 +123,43 @@ class PluginSettingsTest extends AbstractBeanTest<PluginSettings> {
         assertThat(plugin.counts.get(testClass)).isEqualTo(1);
     }
 
+    @Test
+    void addClassesFromEarlierJar() throws Exception {
+        PluginSettings settings = new PluginSettings();
+
+        settings.addClasses(index("first", TestTask.class, TestOther.class), this::loadClass);
+
+        assertThat(settings.getOtherClasses()).isEmpty();
+
+        settings.addClasses(index("second", TestPlugin.class), this::loadClass);
+
+        assertThat(settings.getOtherClasses()).containsExactlyInAnyOrder(TestTask.class, TestOther.class);
+
+        TestPlugin plugin = (TestPlugin) settings.getPlugins().get(0);
+
+        assertThat(plugin.counts).containsOnlyKeys(TestTask.class, TestOther.class);
+    }
+
+    @Test
+    void addAcceptedClassesFromEarlierJar() throws Exception {
+        PluginSettings settings = new PluginSettings();
+
+        settings.addClasses(index("first", TestTask.class, TestOther.class), this::loadClass);
+        settings.addClasses(index("second", TestTaskPlugin.class), this::loadClass);
+
+        assertThat(settings.getOtherClasses()).containsExactly(TestTask.class);
+
+        TestTaskPlugin plugin = (TestTaskPlugin) settings.getPlugins().get(0);
+
+        assertThat(plugin.counts).containsOnlyKeys(TestTask.class);
+
+        // The classes that were already loaded aren't added again.
+        settings.addClasses(index("third", TestPlugin.class), this::loadClass);
+
+        assertThat(settings.getOtherClasses()).containsExactlyInAnyOrder(TestTask.class, TestOther.class);
+        assertThat(plugin.counts.get(TestTask.class)).isEqualTo(1);
+    }
+
     @Test
     void addClassesException() {
         PluginSettings settings = new PluginSettings();
@@ -71,4 +168,29 @@ class PluginSettingsTest extends AbstractBeanTest<PluginSettings> {
             .isThrownBy(() -> settings.addClasses(ImmutableSet.of(TestExceptionPlugin.class, getClass())));
     }
 
-}
\ No newline at end of file
+    public static class TestTask implements Runnable {
+
+        @Override
+        public void run() {
+        }
+    }
+
+    public static class TestOther {
+    }
+
+    public static class TestTaskPlugin extends Plugin {
+
+        public final Map<Class<?>, Integer> counts = new HashMap<>();
+
+        @Override
+        public Set<Class<?>> getAcceptedTypes() {
+            return ImmutableSet.of(Runnable.class);
+        }
+
+        @Override
+        public void onEachClass(RootScope root, Class<?> aClass) {
+            counts.compute(aClass, (c, v) -> (v != null ? v : 0) + 1);
+        }
+    }
+
+}
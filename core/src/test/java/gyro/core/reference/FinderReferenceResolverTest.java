@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.reference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import gyro.core.FileBackend;
+import gyro.core.Namespace;
+import gyro.core.Type;
+import gyro.core.finder.Finder;
+import gyro.core.finder.FinderSettings;
+import gyro.core.resource.Resource;
+import gyro.core.scope.RootScope;
+import gyro.core.scope.TestResource;
+import gyro.lang.ast.Node;
+import gyro.parser.antlr4.GyroParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FinderReferenceResolverTest {
+
+    RootScope root;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void beforeEach() {
+        root = new RootScope("", mock(FileBackend.class), null, null);
+
+        Map<String, Class<? extends Finder<Resource>>> finderClasses = root.getSettings(FinderSettings.class)
+            .getFinderClasses();
+
+        finderClasses.put("test::batch", (Class) BatchFinder.class);
+        finderClasses.put("test::plain", (Class) PlainFinder.class);
+
+        FinderReferenceResolver.bustCache();
+        BatchFinder.BATCHES.clear();
+        PlainFinder.findAllCalls = 0;
+        PlainFinder.findCalls = 0;
+    }
+
+    private void prefetch(String text) {
+        FinderReferenceResolver.prefetch(root, Collections.singletonList(Node.parse(text, GyroParser::file)));
+    }
+
+    private String queries(String type, int size, String indent) {
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < size; ++i) {
+            text.append(indent)
+                .append("q").append(i)
+                .append(": $(external-query ").append(type)
+                .append(" { foo: 'foo").append(i).append("' })\n");
+        }
+
+        return text.toString();
+    }
+
+    @Test
+    void prefetch() {
+        prefetch(queries("test::batch", 5, ""));
+
+        assertThat(BatchFinder.BATCHES).hasSize(1);
+        assertThat(BatchFinder.BATCHES.get(0)).hasSize(5);
+        assertThat(FinderReferenceResolver.getQueryCache().getSize()).isEqualTo(5);
+    }
+
+    @Test
+    void prefetchUnderThreshold() {
+        prefetch(queries("test::batch", 4, ""));
+
+        assertThat(BatchFinder.BATCHES).isEmpty();
+    }
+
+    @Test
+    void prefetchSkipsDirectives() {
+        prefetch("@if false\n" + queries("test::batch", 5, "    ") + "@end\n");
+
+        assertThat(BatchFinder.BATCHES).isEmpty();
+    }
+
+    @Test
+    void prefetchWithDefaultFindBatch() {
+        prefetch(queries("test::plain", 5, ""));
+
+        assertThat(PlainFinder.findAllCalls).isEqualTo(1);
+        assertThat(PlainFinder.findCalls).isEqualTo(0);
+        assertThat(FinderReferenceResolver.getQueryCache().getSize()).isEqualTo(5);
+    }
+
+    @Test
+    void prefetchWithDefaultFindBatchUnderThreshold() {
+        prefetch(queries("test::plain", 4, ""));
+
+        assertThat(PlainFinder.findAllCalls).isEqualTo(0);
+        assertThat(PlainFinder.findCalls).isEqualTo(0);
+        assertThat(FinderReferenceResolver.getQueryCache().getSize()).isEqualTo(0);
+    }
+
+    @Namespace("test")
+    @Type("batch")
+    public static class BatchFinder extends Finder<TestResource> {
+
+        static final List<List<Map<String, Object>>> BATCHES = new ArrayList<>();
+
+        @Override
+        public List<TestResource> findAll() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<TestResource> find(Map<String, Object> filters) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<List<TestResource>> findBatch(List<Map<String, Object>> filters) {
+            BATCHES.add(filters);
+
+            return filters.stream()
+                .map(f -> Collections.<TestResource>emptyList())
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Namespace("test")
+    @Type("plain")
+    public static class PlainFinder extends Finder<TestResource> {
+
+        static int findAllCalls;
+        static int findCalls;
+
+        @Override
+        public List<TestResource> findAll() {
+            ++findAllCalls;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<TestResource> find(Map<String, Object> filters) {
+            ++findCalls;
+            return Collections.emptyList();
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.reference;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QueryCacheTest {
+
+    @Test
+    void get() {
+        QueryCache<String> cache = new QueryCache<>(10, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("foo", "a", () -> "a" + loads.incrementAndGet())).isEqualTo("a1");
+        assertThat(cache.get("foo", "a", () -> "a" + loads.incrementAndGet())).isEqualTo("a1");
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        QueryCache<String> cache = new QueryCache<>(2, 1, TimeUnit.MINUTES);
+
+        cache.get("foo", "a", () -> "a");
+        cache.get("foo", "b", () -> "b");
+        cache.get("foo", "a", () -> "a");
+        cache.get("foo", "c", () -> "c");
+
+        assertThat(cache.getSize()).isEqualTo(2);
+        assertThat(cache.get("foo", "a", () -> "reloaded")).isEqualTo("a");
+        assertThat(cache.get("foo", "b", () -> "reloaded")).isEqualTo("reloaded");
+    }
+
+    @Test
+    void expires() throws Exception {
+        QueryCache<String> cache = new QueryCache<>(10, 10, TimeUnit.MILLISECONDS);
+
+        cache.get("foo", "a", () -> "a");
+        Thread.sleep(50);
+
+        assertThat(cache.get("foo", "a", () -> "reloaded")).isEqualTo("reloaded");
+    }
+
+    @Test
+    void bust() {
+        QueryCache<String> cache = new QueryCache<>(10, 1, TimeUnit.MINUTES);
+
+        cache.get("foo", "a", () -> "a");
+        cache.get("bar", "a", () -> "a");
+        cache.bust("foo");
+
+        assertThat(cache.get("foo", "a", () -> "reloaded")).isEqualTo("reloaded");
+        assertThat(cache.get("bar", "a", () -> "reloaded")).isEqualTo("a");
+    }
+
+    @Test
+    void singleFlight() throws Exception {
+        QueryCache<String> cache = new QueryCache<>(10, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> first = executor.submit(() -> cache.get("foo", "a", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+
+                try {
+                    release.await();
+
+                } catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return "a";
+            }));
+
+            loading.await();
+
+            Future<String> second = executor.submit(() -> cache.get("foo", "a", () -> {
+                loads.incrementAndGet();
+                return "b";
+            }));
+
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo("a");
+            assertThat(second.get()).isEqualTo("a");
+            assertThat(loads.get()).isEqualTo(1);
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoad() {
+        QueryCache<String> cache = new QueryCache<>(10, 1, TimeUnit.MINUTES);
+
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> cache.get("foo", "a", () -> {
+                throw new IllegalStateException();
+            }));
+
+        assertThat(cache.get("foo", "a", () -> "a")).isEqualTo("a");
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import java.util.Collections;
+import java.util.List;
+
+import gyro.core.GyroException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FieldAccessorTest {
+
+    @Test
+    void lambda() throws Exception {
+        FieldAccessor accessor = FieldAccessor.create(
+            "count",
+            PublicBean.class.getMethod("getCount"),
+            PublicBean.class.getMethod("setCount", int.class));
+
+        PublicBean bean = new PublicBean();
+
+        accessor.set(bean, 5);
+
+        assertThat(accessor.getClass().getSimpleName()).isEqualTo("LambdaFieldAccessor");
+        assertThat(accessor.get(bean)).isEqualTo(5);
+    }
+
+    @Test
+    void handle() throws Exception {
+        FieldAccessor accessor = FieldAccessor.create(
+            "items",
+            PrivateBean.class.getMethod("getItems"),
+            PrivateBean.class.getMethod("setItems", List.class));
+
+        PrivateBean bean = new PrivateBean();
+
+        accessor.set(bean, Collections.singletonList("foo"));
+
+        assertThat(accessor.getClass().getSimpleName()).isEqualTo("HandleFieldAccessor");
+        assertThat(accessor.get(bean)).isEqualTo(Collections.singletonList("foo"));
+    }
+
+    @Test
+    void checkedException() throws Exception {
+        FieldAccessor accessor = FieldAccessor.create(
+            "broken",
+            PublicBean.class.getMethod("getBroken"),
+            PublicBean.class.getMethod("setBroken", String.class));
+
+        assertThatExceptionOfType(GyroException.class)
+            .isThrownBy(() -> accessor.get(new PublicBean()))
+            .withMessageContaining("broken")
+            .withMessageContaining(PublicBean.class.getName())
+            .withCauseInstanceOf(Exception.class);
+    }
+
+    @Test
+    void checkedExceptionWithHandle() throws Exception {
+        FieldAccessor accessor = FieldAccessor.create(
+            "broken",
+            PrivateBean.class.getMethod("getBroken"),
+            PrivateBean.class.getMethod("setBroken", String.class));
+
+        assertThatExceptionOfType(GyroException.class)
+            .isThrownBy(() -> accessor.set(new PrivateBean(), "foo"))
+            .withMessageContaining("broken")
+            .withMessageContaining(PrivateBean.class.getName())
+            .withCauseInstanceOf(Exception.class);
+    }
+
+    @Test
+    void runtimeException() throws Exception {
+        FieldAccessor accessor = FieldAccessor.create(
+            "unsupported",
+            PublicBean.class.getMethod("getUnsupported"),
+            PublicBean.class.getMethod("setUnsupported", String.class));
+
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> accessor.get(new PublicBean()));
+    }
+
+    public static class PublicBean {
+
+        private int count;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getBroken() throws Exception {
+            throw new Exception();
+        }
+
+        public void setBroken(String broken) {
+        }
+
+        public String getUnsupported() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void setUnsupported(String unsupported) {
+        }
+
+    }
+
+    static class PrivateBean {
+
+        private List<String> items;
+
+        public List<String> getItems() {
+            return items;
+        }
+
+        public void setItems(List<String> items) {
+            this.items = items;
+        }
+
+        public String getBroken() {
+            return null;
+        }
+
+        public void setBroken(String broken) throws Exception {
+            throw new Exception();
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import gyro.core.FileBackend;
+import gyro.core.GyroException;
+import gyro.core.scope.RootScope;
+import gyro.lang.ast.Node;
+import gyro.lang.ast.block.DirectiveNode;
+import gyro.parser.antlr4.GyroParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RefreshDirectiveProcessorTest {
+
+    RefreshDirectiveProcessor processor;
+    RootScope root;
+
+    @BeforeEach
+    void beforeEach() {
+        processor = new RefreshDirectiveProcessor();
+        root = new RootScope("", mock(FileBackend.class), null, null);
+    }
+
+    private DirectiveNode parse(String text) {
+        return (DirectiveNode) Node.parse(text, GyroParser::directive);
+    }
+
+    @Test
+    void process() {
+        processor.process(root, parse("@refresh\n    concurrency: 4\n    limits: { aws: 2 }\n@end"));
+
+        RefreshSettings settings = root.getSettings(RefreshSettings.class);
+
+        assertThat(settings.getConcurrency()).isEqualTo(4);
+        assertThat(settings.getLimits()).containsEntry("aws", 2);
+    }
+
+    @Test
+    void processDefaults() {
+        processor.process(root, parse("@refresh\n@end"));
+
+        RefreshSettings settings = root.getSettings(RefreshSettings.class);
+
+        assertThat(settings.getConcurrency()).isEqualTo(32);
+        assertThat(settings.getRetries()).isEqualTo(3);
+    }
+
+    @Test
+    void processUnknownOption() {
+        assertThatExceptionOfType(GyroException.class)
+            .isThrownBy(() -> processor.process(root, parse("@refresh\n    concurrent: 4\n@end")))
+            .withMessageContaining("concurrent");
+    }
+
+}
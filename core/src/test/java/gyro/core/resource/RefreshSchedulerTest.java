@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gyro.core.scope.TestResource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RefreshSchedulerTest {
+
+    @Test
+    void limits() throws Exception {
+        RefreshSettings settings = new RefreshSettings();
+
+        settings.setConcurrency(4);
+        settings.getLimits().put("test", 2);
+
+        RefreshScheduler scheduler = new RefreshScheduler(settings);
+        TestResource resource = new TestResource("foo");
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maximum = new AtomicInteger();
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; ++i) {
+            futures.add(scheduler.submit(resource, () -> {
+                maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return true;
+            }));
+        }
+
+        for (Future<Boolean> future : futures) {
+            assertThat(future.get()).isTrue();
+        }
+
+        assertThat(maximum.get()).isEqualTo(2);
+        assertThat(scheduler.getRunning()).isEqualTo(0);
+    }
+
+    @Test
+    void retryThrottled() throws Exception {
+        RefreshScheduler scheduler = new RefreshScheduler(new RefreshSettings());
+        TestResource resource = new TestResource("foo");
+        AtomicInteger attempts = new AtomicInteger();
+
+        Future<Boolean> future = scheduler.submit(resource, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("Rate exceeded");
+            }
+
+            return true;
+        });
+
+        assertThat(future.get()).isTrue();
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failure() {
+        RefreshScheduler scheduler = new RefreshScheduler(new RefreshSettings());
+
+        Future<Boolean> future = scheduler.submit(new TestResource("foo"), () -> {
+            throw new IllegalStateException("Not found");
+        });
+
+        assertThatExceptionOfType(ExecutionException.class)
+            .isThrownBy(future::get)
+            .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import gyro.core.FileBackend;
+import gyro.core.resource.Resource;
+import gyro.lang.ast.PairNode;
+import gyro.lang.ast.block.ResourceNode;
+import gyro.lang.ast.value.ListNode;
+import gyro.lang.ast.value.ValueNode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BinaryStateFileTest {
+
+    @Test
+    void evaluate() throws Exception {
+        RootScope root = new RootScope("", mock(FileBackend.class), null, null);
+
+        root.put("test::resource", TestResource.class);
+
+        BinaryStateWriter writer = new BinaryStateWriter();
+
+        writer.write(new ResourceNode(
+            "test::resource",
+            new ValueNode("foo"),
+            Arrays.asList(
+                new PairNode(
+                    new ValueNode("_configured-fields"),
+                    new ListNode(Collections.singletonList(new ValueNode("foo")))),
+                new PairNode(new ValueNode("foo"), new ValueNode("bar")))));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        writer.writeTo(bytes);
+
+        byte[] content = bytes.toByteArray();
+
+        assertThat(BinaryState.isBinary(content)).isTrue();
+
+        BinaryStateFile.read("foo.gyro", content).evaluate(root);
+
+        Resource resource = root.findResource("test::resource::foo");
+
+        assertThat(resource).isInstanceOf(TestResource.class);
+        assertThat(((TestResource) resource).getFoo()).isEqualTo("bar");
+    }
+
+    @Test
+    void isBinaryText() {
+        assertThat(BinaryState.isBinary("test::resource foo\nend\n".getBytes())).isFalse();
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DeferSchedulerTest {
+
+    @Test
+    void executeInDependencyOrder() {
+        Map<String, String> dependencies = new HashMap<>();
+
+        dependencies.put("a", "b");
+        dependencies.put("b", "c");
+
+        List<String> executed = new ArrayList<>();
+        Map<String, Integer> attempts = new HashMap<>();
+        Set<String> available = new HashSet<>();
+
+        Defer.execute(Arrays.asList("a", "b", "c", "d"), item -> {
+            attempts.merge(item, 1, Integer::sum);
+
+            String dependency = dependencies.get(item);
+
+            if (dependency != null && !available.contains(dependency)) {
+                throw new FindDefer(null, "test", dependency);
+            }
+
+            executed.add(item);
+            available.add(item);
+            DeferScheduler.publish("test::" + item);
+        });
+
+        assertThat(executed).containsExactly("c", "d", "b", "a");
+        assertThat(attempts).containsEntry("a", 2).containsEntry("b", 2).containsEntry("c", 1).containsEntry("d", 1);
+    }
+
+    @Test
+    void executeWithMissingDependency() {
+        assertThatExceptionOfType(ExecuteDefer.class).isThrownBy(() -> Defer.execute(
+            Arrays.asList("a", "b"),
+            item -> {
+                if (item.equals("a")) {
+                    throw new FindDefer(null, "test", "missing");
+                }
+            }));
+    }
+
+}
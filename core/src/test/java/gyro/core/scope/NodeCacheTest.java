@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import gyro.lang.ast.Node;
+import gyro.lang.ast.block.BlockNode;
+import gyro.lang.ast.block.FileNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class NodeCacheTest {
+
+    Path directory;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        directory = Files.createTempDirectory("gyro-node-cache");
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void parseFromMemory() throws Exception {
+        NodeCache cache = new NodeCache(null, null);
+        byte[] content = "foo: 'bar'\n".getBytes(StandardCharsets.UTF_8);
+        FileNode node = cache.parse("foo.gyro", content);
+
+        assertThat(cache.parse("foo.gyro", content)).isSameAs(node);
+        assertThat(cache.getMemoryHits()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(0);
+    }
+
+    @Test
+    void parseSameContentInOtherFile() throws Exception {
+        NodeCache cache = new NodeCache(null, null);
+        byte[] content = "foo: 'bar'\n".getBytes(StandardCharsets.UTF_8);
+        FileNode node = cache.parse("foo.gyro", content);
+        FileNode other = cache.parse("bar.gyro", content);
+
+        assertThat(other).isNotSameAs(node);
+        assertThat(other.getFile()).isEqualTo("bar.gyro");
+    }
+
+    @Test
+    void parseFromDisk() throws Exception {
+        byte[] content = ("foo: 'bar'\n"
+            + "\n"
+            + "test::resource qux\n"
+            + "    foo: $(foo)\n"
+            + "end\n").getBytes(StandardCharsets.UTF_8);
+
+        FileNode parsed = new NodeCache(directory, "1.0").parse("foo.gyro", content);
+        NodeCache cache = new NodeCache(directory, "1.0");
+        FileNode read = cache.parse("foo.gyro", content);
+
+        assertThat(read).isNotSameAs(parsed);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(0);
+        assertSameLocations(read, parsed);
+    }
+
+    @Test
+    void parseWithOtherVersion() throws Exception {
+        byte[] content = "foo: 'bar'\n".getBytes(StandardCharsets.UTF_8);
+
+        new NodeCache(directory, "1.0").parse("foo.gyro", content);
+
+        NodeCache cache = new NodeCache(directory, "2.0");
+
+        cache.parse("foo.gyro", content);
+
+        assertThat(cache.getHits()).isEqualTo(0);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void parseWriteFailure() throws Exception {
+        Path file = Files.createFile(directory.resolve("file"));
+        NodeCache cache = new NodeCache(file, "1.0");
+        byte[] content = "foo: 'bar'\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(cache.parse("foo.gyro", content).getBody()).hasSize(1);
+        assertThat(cache.getWriteFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void resetCounts() throws Exception {
+        NodeCache cache = new NodeCache(directory, "1.0");
+        byte[] content = "foo: 'bar'\n".getBytes(StandardCharsets.UTF_8);
+
+        cache.parse("foo.gyro", content);
+        cache.parse("foo.gyro", content);
+        cache.resetCounts();
+
+        assertThat(cache.getMemoryHits()).isEqualTo(0);
+        assertThat(cache.getMisses()).isEqualTo(0);
+    }
+
+    @Test
+    void prune() throws Exception {
+        byte[] content = "foo: 'bar'\n".getBytes(StandardCharsets.UTF_8);
+        NodeCache cache = new NodeCache(directory, "1.0");
+
+        cache.parse("foo.gyro", content);
+
+        Path entryFile = entryFile();
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - NodeCache.MAX_AGE.toMillis() - 60000);
+
+        Files.setLastModifiedTime(entryFile, old);
+        cache.prune();
+
+        assertThat(entryFile).doesNotExist();
+    }
+
+    @Test
+    void pruneKeepsUsed() throws Exception {
+        byte[] content = "foo: 'bar'\n".getBytes(StandardCharsets.UTF_8);
+
+        new NodeCache(directory, "1.0").parse("foo.gyro", content);
+
+        Path entryFile = entryFile();
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - NodeCache.MAX_AGE.toMillis() - 60000);
+
+        Files.setLastModifiedTime(entryFile, old);
+
+        NodeCache cache = new NodeCache(directory, "1.0");
+
+        cache.parse("foo.gyro", content);
+        cache.prune();
+
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(entryFile).exists();
+    }
+
+    private Path entryFile() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            List<Path> entryFiles = paths.collect(Collectors.toList());
+
+            assertThat(entryFiles).hasSize(1);
+            return entryFiles.get(0);
+        }
+    }
+
+    private void assertSameLocations(Node actual, Node expected) {
+        assertThat(actual).isInstanceOf(expected.getClass());
+        assertThat(actual.getFile()).isEqualTo(expected.getFile());
+        assertThat(actual.toLocation()).isEqualTo(expected.toLocation());
+        assertThat(actual.toCodeSnippet()).isEqualTo(expected.toCodeSnippet());
+
+        if (expected instanceof BlockNode) {
+            List<Node> actualBody = ((BlockNode) actual).getBody();
+            List<Node> expectedBody = ((BlockNode) expected).getBody();
+
+            assertThat(actualBody).hasSameSizeAs(expectedBody);
+
+            for (int i = 0; i < expectedBody.size(); ++i) {
+                assertSameLocations(actualBody.get(i), expectedBody.get(i));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import gyro.core.FileBackend;
+import gyro.lang.ast.Node;
+import gyro.parser.antlr4.GyroParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RefreshCacheTest {
+
+    Path directory;
+    FileBackend backend;
+    RootScope root;
+    TestResource resource;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        directory = Files.createTempDirectory("gyro-refresh-cache");
+        backend = mock(FileBackend.class);
+        root = new RootScope("", backend, null, null);
+
+        root.put("test::resource", TestResource.class);
+
+        String content = "test::resource foo\n    foo: 'bar'\nend\n";
+
+        when(backend.openInput("foo.gyro")).thenAnswer(i -> new ByteArrayInputStream(content.getBytes()));
+
+        FileScope file = new FileScope(root, "foo.gyro");
+
+        root.getFileScopes().add(file);
+        root.getEvaluator().visit(Node.parse(content.trim(), GyroParser::block), file);
+
+        resource = (TestResource) root.findResource("test::resource::foo");
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void load() {
+        RefreshCache cache = new RefreshCache(directory, root);
+
+        resource.setFoo("refreshed");
+        cache.store(resource);
+        resource.setFoo("bar");
+
+        assertThat(cache.load(resource, Duration.ofMinutes(1))).isTrue();
+        assertThat(resource.getFoo()).isEqualTo("refreshed");
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void loadMissing() {
+        RefreshCache cache = new RefreshCache(directory, root);
+
+        assertThat(cache.load(resource, Duration.ofMinutes(1))).isFalse();
+        assertThat(resource.getFoo()).isEqualTo("bar");
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void loadNullField() {
+        RefreshCache cache = new RefreshCache(directory, root);
+
+        resource.setFoo(null);
+        cache.store(resource);
+        resource.setFoo("bar");
+
+        assertThat(cache.load(resource, Duration.ofMinutes(1))).isTrue();
+        assertThat(resource.getFoo()).isNull();
+    }
+
+    @Test
+    void loadAfterStateChange() throws Exception {
+        new RefreshCache(directory, root).store(resource);
+
+        when(backend.openInput("foo.gyro")).thenAnswer(i -> new ByteArrayInputStream("changed".getBytes()));
+
+        assertThat(new RefreshCache(directory, root).load(resource, Duration.ofMinutes(1))).isFalse();
+    }
+
+    @Test
+    void invalidate() {
+        RefreshCache cache = new RefreshCache(directory, root);
+
+        cache.store(resource);
+        cache.invalidate(resource);
+
+        assertThat(cache.load(resource, Duration.ofMinutes(1))).isFalse();
+    }
+
+    @Test
+    void prune() throws Exception {
+        RefreshCache cache = new RefreshCache(directory, root);
+
+        cache.store(resource);
+
+        try (Stream<Path> entryFiles = Files.list(directory)) {
+            entryFiles.forEach(f -> f.toFile().setLastModified(System.currentTimeMillis() - 120_000L));
+        }
+
+        cache.prune(Duration.ofMinutes(1));
+
+        try (Stream<Path> entryFiles = Files.list(directory)) {
+            assertThat(entryFiles.count()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void pruneKeepsRecent() throws Exception {
+        RefreshCache cache = new RefreshCache(directory, root);
+
+        cache.store(resource);
+        cache.prune(Duration.ofMinutes(1));
+
+        assertThat(cache.load(resource, Duration.ofMinutes(1))).isTrue();
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.util.Set;
+
+import gyro.core.GyroUI;
+import gyro.core.Namespace;
+import gyro.core.Type;
+import gyro.core.resource.DiffableInternals;
+import gyro.core.resource.Id;
+import gyro.core.resource.Resource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ResourceIndexTest {
+
+    @Test
+    void findByClass() {
+        ResourceIndex index = new ResourceIndex();
+        TestResource foo = new TestResource("foo");
+        TestResource bar = new TestResource("bar");
+
+        index.put(foo.primaryKey(), foo);
+        index.put(bar.primaryKey(), bar);
+
+        assertThat(index.findByClass(TestResource.class)).containsExactly(foo, bar);
+    }
+
+    @Test
+    void findByClassKeepsOrderOnPut() {
+        ResourceIndex index = new ResourceIndex();
+        TestResource foo = new TestResource("foo");
+        TestResource bar = new TestResource("bar");
+
+        index.put(foo.primaryKey(), foo);
+        index.put(bar.primaryKey(), bar);
+        index.put(foo.primaryKey(), foo);
+
+        assertThat(index.findByClass(TestResource.class)).containsExactly(foo, bar);
+    }
+
+    @Test
+    void findByClassSkipsOtherKeys() {
+        ResourceIndex index = new ResourceIndex();
+        TestResource foo = new TestResource("foo");
+
+        index.put("variable", foo);
+
+        assertThat(index.findByClass(TestResource.class)).isEmpty();
+    }
+
+    @Test
+    void remove() {
+        ResourceIndex index = new ResourceIndex();
+        TestResource foo = new TestResource("foo");
+
+        index.put(foo.primaryKey(), foo);
+        index.remove(foo.primaryKey());
+
+        assertThat(index.findByClass(TestResource.class)).isEmpty();
+    }
+
+    @Test
+    void findById() {
+        ResourceIndex index = new ResourceIndex();
+        IdResource foo = new IdResource("foo", "foo-id");
+        IdResource bar = new IdResource("bar", "bar-id");
+
+        index.put(foo.primaryKey(), foo);
+        index.put(bar.primaryKey(), bar);
+
+        assertThat(index.findById(IdResource.class, "bar-id")).isSameAs(bar);
+        assertThat(index.findById(IdResource.class, "missing-id")).isNull();
+    }
+
+    @Test
+    void findByIdAfterUpdate() {
+        ResourceIndex index = new ResourceIndex();
+        IdResource foo = new IdResource("foo", null);
+
+        index.put(foo.primaryKey(), foo);
+
+        assertThat(index.findById(IdResource.class, "foo-id")).isNull();
+
+        foo.setId("foo-id");
+        index.update(foo);
+
+        assertThat(index.findById(IdResource.class, "foo-id")).isSameAs(foo);
+    }
+
+    @Test
+    void findByIdChangedInPlace() {
+        ResourceIndex index = new ResourceIndex();
+        IdResource foo = new IdResource("foo", "foo-id");
+        IdResource bar = new IdResource("bar", "bar-id");
+
+        index.put(foo.primaryKey(), foo);
+        index.put(bar.primaryKey(), bar);
+
+        assertThat(index.findById(IdResource.class, "foo-id")).isSameAs(foo);
+
+        foo.setId("bar-id");
+        bar.setId("foo-id");
+
+        assertThat(index.findById(IdResource.class, "foo-id")).isSameAs(bar);
+    }
+
+    @Namespace("test")
+    @Type("id-resource")
+    public static class IdResource extends Resource {
+
+        private String id;
+
+        public IdResource() {
+        }
+
+        public IdResource(String name, String id) {
+            DiffableInternals.setName(this, name);
+            this.id = id;
+        }
+
+        @Id
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean refresh() {
+            return false;
+        }
+
+        @Override
+        public void create(GyroUI ui, State state) {
+        }
+
+        @Override
+        public void update(GyroUI ui, State state, Resource current, Set<String> changedFieldNames) {
+        }
+
+        @Override
+        public void delete(GyroUI ui, State state) {
+        }
+
+    }
+
+}
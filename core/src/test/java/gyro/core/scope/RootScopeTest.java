@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.core.scope;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import gyro.core.FileBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RootScopeTest {
+
+    FileBackend backend;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        backend = mock(FileBackend.class);
+
+        when(backend.list()).thenAnswer(i -> Stream.of("a.gyro", "b.gyro"));
+        when(backend.openInput("a.gyro")).thenAnswer(i -> input("a: 'a1'"));
+        when(backend.openInput("b.gyro")).thenReturn(input("b: 'b1'"), input("b: 'b2'"));
+    }
+
+    ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Object getValue(RootScope root, String file, String key) {
+        return root.getFileScopes()
+            .stream()
+            .filter(f -> f.getFile().equals(file))
+            .findFirst()
+            .map(f -> f.get(key))
+            .orElse(null);
+    }
+
+    @Test
+    void reload() throws Exception {
+        RootScope root = new RootScope("", backend, null, null);
+
+        root.evaluate();
+
+        RootScope reloaded = root.reload(null, Collections.singleton("b.gyro"));
+
+        reloaded.evaluate();
+
+        verify(backend, times(1)).openInput("a.gyro");
+        verify(backend, times(2)).openInput("b.gyro");
+        assertThat(getValue(reloaded, "a.gyro", "a")).isEqualTo("a1");
+        assertThat(getValue(reloaded, "b.gyro", "b")).isEqualTo("b2");
+    }
+
+    @Test
+    void reloadUnchanged() throws Exception {
+        RootScope root = new RootScope("", backend, null, null);
+
+        root.evaluate();
+        root.reload(null, Collections.emptySet()).evaluate();
+
+        verify(backend, times(1)).openInput("a.gyro");
+        verify(backend, times(1)).openInput("b.gyro");
+    }
+
+    // The first workflow stage evaluates the roots again the same way.
+    @Test
+    void evaluateAgain() throws Exception {
+
+        // Parsed files are kept in memory across tests, so b.gyro needs
+        // content that no other test parses.
+        when(backend.openInput("b.gyro")).thenReturn(input("b: 'b1'"), input("b: 'b3'"));
+
+        RootScope root = new RootScope("", backend, null, null);
+
+        root.evaluate();
+
+        int hits = NodeCache.getInstance().getMemoryHits();
+
+        root.getFileScopes().clear();
+        root.evaluate();
+
+        assertThat(NodeCache.getInstance().getMemoryHits() - hits).isEqualTo(1);
+        assertThat(getValue(root, "a.gyro", "a")).isEqualTo("a1");
+        assertThat(getValue(root, "b.gyro", "b")).isEqualTo("b3");
+    }
+
+    @Test
+    void reevaluate() throws Exception {
+        RootScope root = new RootScope("", backend, null, null);
+
+        root.evaluate();
+
+        FileScope a = root.getFileScopes().get(0);
+
+        assertThat(root.reevaluate(Collections.singleton("b.gyro"))).containsExactly("b.gyro");
+        verify(backend, times(1)).openInput("a.gyro");
+        verify(backend, times(2)).openInput("b.gyro");
+        assertThat(root.getFileScopes()).extracting(FileScope::getFile).containsExactly("a.gyro", "b.gyro");
+        assertThat(root.getFileScopes().get(0)).isSameAs(a);
+        assertThat(getValue(root, "b.gyro", "b")).isEqualTo("b2");
+    }
+
+    @Test
+    void reevaluateReferringFiles() throws Exception {
+        when(backend.list()).thenAnswer(i -> Stream.of("a.gyro", "b.gyro", "c.gyro"));
+        when(backend.openInput("a.gyro")).thenAnswer(i -> input("a: $(test::resource foo)"));
+        when(backend.openInput("b.gyro")).thenAnswer(i -> input("test::resource foo\n    foo: 'bar'\nend"));
+        when(backend.openInput("c.gyro")).thenAnswer(i -> input("c: 'c1'"));
+
+        RootScope root = new RootScope("", backend, null, null);
+
+        root.put("test::resource", TestResource.class);
+        root.evaluate();
+
+        assertThat(root.reevaluate(Collections.singleton("b.gyro"))).containsExactlyInAnyOrder("a.gyro", "b.gyro");
+        verify(backend, times(1)).openInput("c.gyro");
+
+        Object foo = root.findResource("test::resource::foo");
+
+        assertThat(foo).isNotNull();
+        assertThat(getValue(root, "a.gyro", "a")).isSameAs(foo);
+        assertThat(root.findResourcesByClass(TestResource.class)).containsExactly((TestResource) foo);
+    }
+}
@@ -28,10 +28,23 @@ import gyro.core.resource.Resource;
 @Type("resource")
 public class TestResource extends Resource {
 
+    private String foo;
+
+    public TestResource() {
+    }
+
     public TestResource(String name) {
         DiffableInternals.setName(this, name);
     }
 
+    public String getFoo() {
+        return foo;
+    }
+
+    public void setFoo(String foo) {
+        this.foo = foo;
+    }
+
     @Override
     public boolean refresh() {
         return false;
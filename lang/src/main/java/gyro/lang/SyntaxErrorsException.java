@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.lang;
+
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Syntax errors from multiple files, reported together.
+ */
+public class SyntaxErrorsException extends RuntimeException {
+
+    private final List<SyntaxErrorException> errors;
+
+    public SyntaxErrorsException(List<SyntaxErrorException> errors) {
+        this.errors = ImmutableList.copyOf(Preconditions.checkNotNull(errors));
+    }
+
+    public List<SyntaxErrorException> getErrors() {
+        return errors;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.lang.ast;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+
+import com.google.common.collect.ImmutableList;
+import gyro.lang.GyroCharStream;
+
+/**
+ * Reads nodes written with {@link java.io.ObjectOutputStream}, attaching the
+ * given {@code stream} to them so that their locations and code snippets are
+ * the same as if they were just parsed.
+ */
+public class NodeInputStream extends ObjectInputStream {
+
+    private static final ImmutableList<String> ALLOWED_PACKAGES = ImmutableList.of(
+        "gyro.lang.",
+        "java.lang.",
+        "java.math.",
+        "java.util.",
+        "com.google.common.collect.");
+
+    private final GyroCharStream stream;
+
+    public NodeInputStream(InputStream input, GyroCharStream stream) throws IOException {
+        super(input);
+
+        this.stream = stream;
+    }
+
+    public GyroCharStream getStream() {
+        return stream;
+    }
+
+    public Node readNode() throws IOException, ClassNotFoundException {
+        return (Node) readObject();
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        String name = desc.getName();
+        String elementName = name.replaceFirst("^\\[+L?", "").replaceFirst(";$", "");
+
+        if (name.startsWith("[") && elementName.length() == 1
+            || ALLOWED_PACKAGES.stream().anyMatch(elementName::startsWith)) {
+
+            return super.resolveClass(desc);
+
+        } else {
+            throw new InvalidClassException(name, "Not allowed in a node stream!");
+        }
+    }
+
+}
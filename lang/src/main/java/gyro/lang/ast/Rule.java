@@ -16,15 +16,24 @@
 
 package gyro.lang.ast;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
 import gyro.lang.GyroCharStream;
 import gyro.lang.Locatable;
+import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Pair;
 
-public abstract class Rule implements Locatable {
+public abstract class Rule implements Locatable, Serializable {
 
-    protected final Token start;
-    protected final Token stop;
+    // Tokens aren't serializable, so only their positions are written and
+    // they're recreated against the stream given to NodeInputStream.
+    protected transient Token start;
+    protected transient Token stop;
 
     public Rule(Token start, Token stop) {
         this.start = start;
@@ -44,7 +53,7 @@ public abstract class Rule implements Locatable {
 
     @Override
     public GyroCharStream getStream() {
-        return start != null ? (GyroCharStream) start.getTokenSource().getInputStream() : null;
+        return start != null ? (GyroCharStream) start.getInputStream() : null;
     }
 
     @Override
@@ -79,4 +88,58 @@ public abstract class Rule implements Locatable {
         return column;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeToken(out, start);
+        writeToken(out, stop);
+    }
+
+    private void writeToken(ObjectOutputStream out, Token token) throws IOException {
+        out.writeBoolean(token != null);
+
+        if (token != null) {
+            out.writeInt(token.getType());
+            out.writeInt(token.getLine());
+            out.writeInt(token.getCharPositionInLine());
+            out.writeInt(token.getStartIndex());
+            out.writeInt(token.getStopIndex());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        GyroCharStream stream = in instanceof NodeInputStream ? ((NodeInputStream) in).getStream() : null;
+
+        start = readToken(in, stream);
+        stop = readToken(in, stream);
+    }
+
+    private Token readToken(ObjectInputStream in, GyroCharStream stream) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        int type = in.readInt();
+        int line = in.readInt();
+        int charPositionInLine = in.readInt();
+        int startIndex = in.readInt();
+        int stopIndex = in.readInt();
+
+        if (stream == null) {
+            return null;
+        }
+
+        CommonToken token = new CommonToken(
+            new Pair<>(null, stream),
+            type,
+            Token.DEFAULT_CHANNEL,
+            startIndex,
+            stopIndex);
+
+        token.setLine(line);
+        token.setCharPositionInLine(charPositionInLine);
+        return token;
+    }
+
 }
@@ -16,10 +16,12 @@
 
 package gyro.lang.filter;
 
+import java.io.Serializable;
+
 import gyro.parser.antlr4.GyroParser;
 import org.antlr.v4.runtime.tree.ParseTree;
 
-public abstract class Filter {
+public abstract class Filter implements Serializable {
 
     public static Filter create(ParseTree context) {
         Class<? extends ParseTree> cc = context.getClass();